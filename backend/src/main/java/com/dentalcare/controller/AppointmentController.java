@@ -1,6 +1,7 @@
 package com.dentalcare.controller;
 
 import com.dentalcare.model.Appointment;
+import com.dentalcare.dto.AppointmentSummary;
 import com.dentalcare.dto.PageRequest;
 import com.dentalcare.dto.PageResponse;
 import com.dentalcare.service.AppointmentService;
@@ -21,7 +22,7 @@ public class AppointmentController {
     }
     
     @GetMapping
-    public PageResponse<Appointment> getAllAppointments(
+    public PageResponse<AppointmentSummary> getAllAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "date") String sortBy,
@@ -0,0 +1,34 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.service.ChangeFeedService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    @GetMapping
+    public Map<String, Object> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(defaultValue = "500") int limit) {
+        int size = Math.min(Math.max(1, limit), 1000);
+        List<ChangeEvent> changes = changeFeedService.getChangesSince(since, entityType, size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("changes", changes);
+        response.put("version", changes.isEmpty() ? since : changes.get(changes.size() - 1).getVersion());
+        response.put("hasMore", changes.size() == size);
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.model.DrugContraindication;
+import com.dentalcare.model.DrugInteraction;
+import com.dentalcare.service.InteractionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/drug-interactions")
+public class DrugInteractionController {
+    private final InteractionService interactionService;
+
+    public DrugInteractionController(InteractionService interactionService) {
+        this.interactionService = interactionService;
+    }
+
+    @GetMapping
+    public List<DrugInteraction> getInteractions() {
+        return interactionService.getInteractions();
+    }
+
+    @PostMapping
+    public DrugInteraction createInteraction(@RequestBody DrugInteraction interaction) {
+        interaction.setId(null);
+        return interactionService.saveInteraction(interaction);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteInteraction(@PathVariable Long id) {
+        return interactionService.deleteInteraction(id)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/contraindications")
+    public List<DrugContraindication> getContraindications() {
+        return interactionService.getContraindications();
+    }
+
+    @PostMapping("/contraindications")
+    public DrugContraindication createContraindication(@RequestBody DrugContraindication contraindication) {
+        contraindication.setId(null);
+        return interactionService.saveContraindication(contraindication);
+    }
+
+    @DeleteMapping("/contraindications/{id}")
+    public ResponseEntity<Void> deleteContraindication(@PathVariable Long id) {
+        return interactionService.deleteContraindication(id)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
+}
@@ -0,0 +1,21 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.service.EmailOutboxService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/email-outbox")
+public class EmailOutboxController {
+    private final EmailOutboxService emailOutboxService;
+
+    public EmailOutboxController(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return emailOutboxService.getStats();
+    }
+}
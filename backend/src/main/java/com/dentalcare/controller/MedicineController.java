@@ -1,6 +1,7 @@
 package com.dentalcare.controller;
 
 import com.dentalcare.model.Medicine;
+import com.dentalcare.dto.MedicineSummary;
 import com.dentalcare.dto.PageRequest;
 import com.dentalcare.dto.PageResponse;
 import com.dentalcare.service.MedicineService;
@@ -18,7 +19,7 @@ public class MedicineController {
     }
     
     @GetMapping
-    public PageResponse<Medicine> getAllMedicines(
+    public PageResponse<MedicineSummary> getAllMedicines(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
@@ -30,7 +31,7 @@ public class MedicineController {
     }
     
     @GetMapping("/search")
-    public List<Medicine> searchMedicines(@RequestParam String query) {
+    public List<MedicineSummary> searchMedicines(@RequestParam String query) {
         return medicineService.searchMedicines(query);
     }
     
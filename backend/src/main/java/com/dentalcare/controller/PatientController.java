@@ -3,30 +3,39 @@ package com.dentalcare.controller;
 import com.dentalcare.model.Patient;
 import com.dentalcare.dto.PageRequest;
 import com.dentalcare.dto.PageResponse;
+import com.dentalcare.dto.PatientSummary;
+import com.dentalcare.dto.TimelineEntry;
 import com.dentalcare.service.PatientService;
+import com.dentalcare.service.PatientTimelineService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/patients")
 public class PatientController {
     private final PatientService patientService;
+    private final PatientTimelineService patientTimelineService;
     
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, PatientTimelineService patientTimelineService) {
         this.patientService = patientService;
+        this.patientTimelineService = patientTimelineService;
     }
     
     @GetMapping
-    public PageResponse<Patient> getAllPatients(
+    public PageResponse<PatientSummary> getAllPatients(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection,
-            @RequestParam(defaultValue = "") String search) {
+            @RequestParam(defaultValue = "") String search,
+            @RequestParam(required = false) Integer minVisits,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate lastVisitBefore) {
         PageRequest pageRequest = new PageRequest(page, size, sortBy, sortDirection);
         pageRequest.setSearch(search);
-        return patientService.getAllPatients(pageRequest);
+        return patientService.getAllPatients(pageRequest, minVisits, lastVisitBefore);
     }
     
     @GetMapping("/{id}")
@@ -36,6 +45,16 @@ public class PatientController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<PageResponse<TimelineEntry>> getPatientTimeline(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return patientTimelineService.getTimeline(id, page, size)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping("/phone/{phone}")
     public ResponseEntity<Patient> getPatientByPhone(@PathVariable String phone) {
         return patientService.getPatientByPhone(phone)
@@ -63,7 +82,7 @@ public class PatientController {
     }
 
     @GetMapping("/search")
-    public List<Patient> searchPatients(@RequestParam String query) {
+    public List<PatientSummary> searchPatients(@RequestParam String query) {
         return patientService.searchPatients(query);
     }
 }
\ No newline at end of file
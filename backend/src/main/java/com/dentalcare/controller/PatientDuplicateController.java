@@ -0,0 +1,59 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.dto.PageResponse;
+import com.dentalcare.model.PatientDuplicate;
+import com.dentalcare.service.PatientDedupeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/patients/duplicates")
+public class PatientDuplicateController {
+    private final PatientDedupeService patientDedupeService;
+
+    public PatientDuplicateController(PatientDedupeService patientDedupeService) {
+        this.patientDedupeService = patientDedupeService;
+    }
+
+    @GetMapping
+    public PageResponse<PatientDuplicate> getCandidates(
+            @RequestParam(defaultValue = PatientDuplicate.PENDING) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return new PageResponse<>(patientDedupeService.getCandidates(status, page, size));
+    }
+
+    @PostMapping("/scan")
+    public Map<String, Object> scan() {
+        return Map.of("found", patientDedupeService.scanAll());
+    }
+
+    @PostMapping("/{id}/merge")
+    public ResponseEntity<Map<String, Object>> merge(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long survivorId) {
+        return patientDedupeService.merge(id, survivorId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/dismiss")
+    public ResponseEntity<PatientDuplicate> dismiss(@PathVariable Long id) {
+        return patientDedupeService.dismiss(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.dto.PatientImportJob;
+import com.dentalcare.service.PatientImportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/patients/import")
+public class PatientImportController {
+    private final PatientImportService patientImportService;
+
+    public PatientImportController(PatientImportService patientImportService) {
+        this.patientImportService = patientImportService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<PatientImportJob> startImport(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientImportService.start(file));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<PatientImportJob> getImport(@PathVariable String jobId) {
+        return patientImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The error file is still being written until the job completes or fails
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<?> getImportErrors(@PathVariable String jobId) {
+        return patientImportService.getJob(jobId)
+                .<ResponseEntity<?>>map(job -> job.isFinished()
+                        ? ResponseEntity.ok()
+                                .contentType(MediaType.parseMediaType("text/csv"))
+                                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                                .<Resource>body(new FileSystemResource(job.getErrorFile()))
+                        : ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body(Map.of("message", "Import is still " + job.getStatus())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleQueueFull(TaskRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "60")
+                .body(Map.of("message", "Too many imports are queued; try again later"));
+    }
+}
@@ -2,10 +2,15 @@
 package com.dentalcare.controller;
 
 import com.dentalcare.model.PharmacyCustomer;
+import com.dentalcare.service.DuplicateCustomerException;
 import com.dentalcare.service.PharmacyCustomerService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/pharmacy-customers")
 public class PharmacyCustomerController {
@@ -26,4 +31,12 @@ public class PharmacyCustomerController {
     public PharmacyCustomer createCustomer(@RequestBody PharmacyCustomer customer) {
         return pharmacyCustomerService.createCustomer(customer);
     }
+
+    @ExceptionHandler(DuplicateCustomerException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicate(DuplicateCustomerException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("customer", e.getExisting());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
 }
\ No newline at end of file
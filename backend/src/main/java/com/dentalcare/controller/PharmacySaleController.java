@@ -1,10 +1,16 @@
 package com.dentalcare.controller;
 
+import com.dentalcare.dto.PageResponse;
 import com.dentalcare.model.PharmacySale;
+import com.dentalcare.service.InsufficientStockException;
 import com.dentalcare.service.PharmacySaleService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/pharmacy-sales")
@@ -16,8 +22,16 @@ public class PharmacySaleController {
     }
     
     @GetMapping
-    public List<PharmacySale> getAllSales() {
-        return pharmacySaleService.getAllSales();
+    public PageResponse<?> getSales(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        return summary
+            ? pharmacySaleService.getSaleSummaries(from, to, customerId, page, size)
+            : pharmacySaleService.getSales(from, to, customerId, page, size);
     }
     
     @GetMapping("/{id}")
@@ -28,7 +42,17 @@ public class PharmacySaleController {
     }
     
     @PostMapping
-    public PharmacySale createSale(@RequestBody PharmacySale sale) {
-        return pharmacySaleService.createSale(sale);
+    public PharmacySale createSale(
+            @RequestBody PharmacySale sale,
+            @RequestParam(required = false) String reservationId) {
+        return pharmacySaleService.createSale(sale, reservationId);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("shortfalls", e.getShortfalls());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 }
\ No newline at end of file
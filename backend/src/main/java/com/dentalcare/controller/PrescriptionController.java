@@ -1,18 +1,31 @@
 package com.dentalcare.controller;
 
+import com.dentalcare.dto.InteractionWarning;
+import com.dentalcare.dto.PrescriptionFulfilmentRequest;
+import com.dentalcare.model.PharmacySale;
 import com.dentalcare.model.Prescription;
+import com.dentalcare.service.InsufficientStockException;
+import com.dentalcare.service.PrescriptionConflictException;
+import com.dentalcare.service.PrescriptionFulfilmentException;
+import com.dentalcare.service.PrescriptionFulfilmentService;
 import com.dentalcare.service.PrescriptionService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/prescriptions")
 public class PrescriptionController {
     private final PrescriptionService prescriptionService;
+    private final PrescriptionFulfilmentService prescriptionFulfilmentService;
     
-    public PrescriptionController(PrescriptionService prescriptionService) {
+    public PrescriptionController(PrescriptionService prescriptionService,
+                                  PrescriptionFulfilmentService prescriptionFulfilmentService) {
         this.prescriptionService = prescriptionService;
+        this.prescriptionFulfilmentService = prescriptionFulfilmentService;
     }
     
     @GetMapping
@@ -33,14 +46,23 @@ public class PrescriptionController {
     }
     
     @PostMapping
-    public Prescription createPrescription(@RequestBody Prescription prescription) {
-        return prescriptionService.createPrescription(prescription);
+    public Prescription createPrescription(
+            @RequestBody Prescription prescription,
+            @RequestParam(defaultValue = "false") boolean override) {
+        return prescriptionService.createPrescription(prescription, override);
+    }
+    
+    @PostMapping("/check")
+    public List<InteractionWarning> checkPrescription(@RequestBody Prescription prescription) {
+        return prescriptionService.checkPrescription(prescription);
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<Prescription> updatePrescription(
-            @PathVariable Long id, @RequestBody Prescription prescription) {
-        return prescriptionService.updatePrescription(id, prescription)
+            @PathVariable Long id,
+            @RequestBody Prescription prescription,
+            @RequestParam(defaultValue = "false") boolean override) {
+        return prescriptionService.updatePrescription(id, prescription, override)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -51,4 +73,35 @@ public class PrescriptionController {
                 ? ResponseEntity.ok().build()
                 : ResponseEntity.notFound().build();
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/{id}/fulfil")
+    public ResponseEntity<PharmacySale> fulfilPrescription(
+            @PathVariable Long id, @RequestBody PrescriptionFulfilmentRequest request) {
+        return prescriptionFulfilmentService.fulfil(id, request)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("shortfalls", e.getShortfalls());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(PrescriptionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handlePrescriptionConflict(PrescriptionConflictException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("warnings", e.getWarnings());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(PrescriptionFulfilmentException.class)
+    public ResponseEntity<Map<String, Object>> handleFulfilment(PrescriptionFulfilmentException e) {
+        HttpStatus status = e.getReason() == PrescriptionFulfilmentException.Reason.ALREADY_FULFILLED
+                ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of("message", e.getMessage()));
+    }
+}
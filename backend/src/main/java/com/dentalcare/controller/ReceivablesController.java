@@ -0,0 +1,43 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.dto.PageResponse;
+import com.dentalcare.model.LedgerEntry;
+import com.dentalcare.service.ReceivablesService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/receivables")
+public class ReceivablesController {
+    private final ReceivablesService receivablesService;
+
+    public ReceivablesController(ReceivablesService receivablesService) {
+        this.receivablesService = receivablesService;
+    }
+
+    @GetMapping("/aging")
+    public Map<String, Object> getAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return receivablesService.getAging(asOf != null ? asOf : LocalDate.now());
+    }
+
+    @GetMapping("/aging/patients")
+    public List<Map<String, Object>> getAgingByPatient(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return receivablesService.getAgingByPatient(asOf != null ? asOf : LocalDate.now(), page, size);
+    }
+
+    @GetMapping("/patients/{patientId}/ledger")
+    public PageResponse<LedgerEntry> getLedger(
+            @PathVariable Long patientId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return new PageResponse<>(receivablesService.getLedger(patientId, page, size));
+    }
+}
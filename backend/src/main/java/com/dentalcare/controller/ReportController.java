@@ -5,6 +5,7 @@ import com.dentalcare.service.ReportService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -47,4 +48,12 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         return reportService.getPharmacyStatistics(period, startDate, endDate);
     }
+    
+    @GetMapping("/pharmacy/top-medicines")
+    public List<Map<String, Object>> getTopMedicines(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "10") int limit) {
+        return reportService.getTopMedicines(startDate, endDate, limit);
+    }
 }
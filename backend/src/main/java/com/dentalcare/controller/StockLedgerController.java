@@ -0,0 +1,98 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.dto.PageRequest;
+import com.dentalcare.dto.PageResponse;
+import com.dentalcare.model.MedicineLot;
+import com.dentalcare.model.StockMovement;
+import com.dentalcare.service.InsufficientStockException;
+import com.dentalcare.service.MedicineLotService;
+import com.dentalcare.service.StockLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/medicines/{medicineId}")
+public class StockLedgerController {
+    private final StockLedgerService stockLedgerService;
+    private final MedicineLotService medicineLotService;
+
+    public StockLedgerController(StockLedgerService stockLedgerService, MedicineLotService medicineLotService) {
+        this.stockLedgerService = stockLedgerService;
+        this.medicineLotService = medicineLotService;
+    }
+
+    @GetMapping("/stock-movements")
+    public PageResponse<StockMovement> getMovements(
+            @PathVariable Long medicineId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        // The setters clamp page and size; the constructor does not
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setSize(size);
+        pageRequest.setSortBy("createdAt");
+        pageRequest.setSortDirection("desc");
+        return stockLedgerService.getMovements(medicineId, pageRequest);
+    }
+
+    @PostMapping("/stock-movements")
+    public ResponseEntity<List<StockMovement>> createMovement(
+            @PathVariable Long medicineId, @RequestBody StockMovement movement) {
+        try {
+            return ResponseEntity.ok(stockLedgerService.applyMovement(
+                medicineId, movement.getMovementType(), movement.getQuantity(), movement.getNote()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/lots")
+    public List<MedicineLot> getLots(@PathVariable Long medicineId) {
+        return medicineLotService.getAvailableLots(medicineId);
+    }
+
+    @PostMapping("/lots")
+    public ResponseEntity<MedicineLot> receiveLot(@PathVariable Long medicineId, @RequestBody MedicineLot lot) {
+        try {
+            return ResponseEntity.ok(stockLedgerService.receiveLot(medicineId, lot));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/lots/{lotId}/write-off")
+    public ResponseEntity<StockMovement> writeOffLot(@PathVariable Long medicineId, @PathVariable Long lotId) {
+        try {
+            return ResponseEntity.ok(stockLedgerService.writeOffLot(medicineId, lotId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/stock")
+    public Map<String, Object> getStock(
+            @PathVariable Long medicineId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        LocalDateTime at = asOf != null ? asOf : LocalDateTime.now();
+        Map<String, Object> response = new HashMap<>();
+        response.put("medicineId", medicineId);
+        response.put("asOf", at);
+        response.put("stock", stockLedgerService.getStockAsOf(medicineId, at));
+        return response;
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("shortfalls", e.getShortfalls());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+}
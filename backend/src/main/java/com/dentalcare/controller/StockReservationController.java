@@ -0,0 +1,56 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.dto.StockReservationDto;
+import com.dentalcare.service.InsufficientStockException;
+import com.dentalcare.service.StockReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/stock-reservations")
+public class StockReservationController {
+    private final StockReservationService stockReservationService;
+
+    public StockReservationController(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    @PostMapping
+    public StockReservationDto reserve(@RequestBody StockReservationDto request) {
+        return stockReservationService.reserve(request.getItems());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservationDto> getReservation(@PathVariable String id) {
+        return stockReservationService.getReservation(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<StockReservationDto> updateReservation(
+            @PathVariable String id, @RequestBody StockReservationDto request) {
+        return stockReservationService.update(id, request.getItems())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> releaseReservation(@PathVariable String id) {
+        return stockReservationService.release(id)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("shortfalls", e.getShortfalls());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+}
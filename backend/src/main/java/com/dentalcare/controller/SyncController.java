@@ -0,0 +1,30 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.service.SyncService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> sync(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) List<String> entities,
+            @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(syncService.sync(since, entities, Math.min(Math.max(1, limit), 5000)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.model.TaxRate;
+import com.dentalcare.service.PricingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/tax-rates")
+public class TaxRateController {
+    private final PricingService pricingService;
+
+    public TaxRateController(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    @GetMapping
+    public List<TaxRate> getTaxRates() {
+        return pricingService.getTaxRates();
+    }
+
+    // Upserts by medicine type
+    @PutMapping
+    public TaxRate saveTaxRate(@RequestBody TaxRate taxRate) {
+        return pricingService.saveTaxRate(taxRate);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteTaxRate(@PathVariable Long id) {
+        return pricingService.deleteTaxRate(id)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.dentalcare.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Appointment row for the paged list; notes are only returned by the detail and calendar endpoints
+public class AppointmentSummary {
+    private Long id;
+    private Long patientId;
+    private String patientName;
+    private Long dentistId;
+    private String dentistName;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String status;
+    private String type;
+    private String treatmentType;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public AppointmentSummary() {}
+
+    public AppointmentSummary(Long id, Long patientId, String patientName, Long dentistId, String dentistName,
+                              LocalDate date, LocalTime startTime, LocalTime endTime, String status,
+                              String type, String treatmentType, LocalDateTime createdAt,
+                              LocalDateTime updatedAt) {
+        this.id = id;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.dentistId = dentistId;
+        this.dentistName = dentistName;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+        this.type = type;
+        this.treatmentType = treatmentType;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public String getPatientName() { return patientName; }
+    public void setPatientName(String patientName) { this.patientName = patientName; }
+    public Long getDentistId() { return dentistId; }
+    public void setDentistId(Long dentistId) { this.dentistId = dentistId; }
+    public String getDentistName() { return dentistName; }
+    public void setDentistName(String dentistName) { this.dentistName = dentistName; }
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getTreatmentType() { return treatmentType; }
+    public void setTreatmentType(String treatmentType) { this.treatmentType = treatmentType; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,35 @@
+package com.dentalcare.dto;
+
+import java.util.List;
+
+public class InteractionWarning {
+    public static final String INTERACTION = "interaction";
+    public static final String CONTRAINDICATION = "contraindication";
+
+    private String type;
+    private String severity;
+    private List<Long> medicineIds;
+    private String keyword; // contraindications only
+    private String description;
+
+    public InteractionWarning() {}
+
+    public InteractionWarning(String type, String severity, List<Long> medicineIds, String keyword, String description) {
+        this.type = type;
+        this.severity = severity;
+        this.medicineIds = medicineIds;
+        this.keyword = keyword;
+        this.description = description;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+    public List<Long> getMedicineIds() { return medicineIds; }
+    public void setMedicineIds(List<Long> medicineIds) { this.medicineIds = medicineIds; }
+    public String getKeyword() { return keyword; }
+    public void setKeyword(String keyword) { this.keyword = keyword; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+}
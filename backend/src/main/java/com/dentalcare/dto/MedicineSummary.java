@@ -0,0 +1,71 @@
+package com.dentalcare.dto;
+
+import com.dentalcare.util.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Medicine row for list and search views; description is cut to a one-line preview
+public class MedicineSummary {
+    private Long id;
+    private String name;
+    private String type;
+    private String description;
+    private String manufacturer;
+    private Integer stock;
+    private Integer reorderPoint;
+    private String unit;
+    private Money price;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDate dateOfMfg;
+    private LocalDate dateOfExpiry;
+
+    public MedicineSummary() {}
+
+    public MedicineSummary(Long id, String name, String type, String description, String manufacturer,
+                           Integer stock, Integer reorderPoint, String unit, Money price,
+                           LocalDateTime createdAt, LocalDateTime updatedAt, LocalDate dateOfMfg,
+                           LocalDate dateOfExpiry) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.description = description;
+        this.manufacturer = manufacturer;
+        this.stock = stock;
+        this.reorderPoint = reorderPoint;
+        this.unit = unit;
+        this.price = price;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.dateOfMfg = dateOfMfg;
+        this.dateOfExpiry = dateOfExpiry;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getManufacturer() { return manufacturer; }
+    public void setManufacturer(String manufacturer) { this.manufacturer = manufacturer; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+    public Integer getReorderPoint() { return reorderPoint; }
+    public void setReorderPoint(Integer reorderPoint) { this.reorderPoint = reorderPoint; }
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+    public Money getPrice() { return price; }
+    public void setPrice(Money price) { this.price = price; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDate getDateOfMfg() { return dateOfMfg; }
+    public void setDateOfMfg(LocalDate dateOfMfg) { this.dateOfMfg = dateOfMfg; }
+    public LocalDate getDateOfExpiry() { return dateOfExpiry; }
+    public void setDateOfExpiry(LocalDate dateOfExpiry) { this.dateOfExpiry = dateOfExpiry; }
+}
@@ -0,0 +1,68 @@
+package com.dentalcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk patient import; counters are updated by the import thread while clients poll
+public class PatientImportJob {
+    public static final String QUEUED = "queued";
+    public static final String LOADING = "loading";
+    public static final String DEDUPLICATING = "deduplicating";
+    public static final String INSERTING = "inserting";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private final String id;
+    private final String fileName;
+    private final Path errorFile;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong rowsDuplicate = new AtomicLong();
+    private volatile long rowsInserted;
+    private volatile String status = QUEUED;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    public PatientImportJob(String id, String fileName, Path errorFile) {
+        this.id = id;
+        this.fileName = fileName;
+        this.errorFile = errorFile;
+    }
+
+    public String getId() { return id; }
+    public String getFileName() { return fileName; }
+    @JsonIgnore
+    public Path getErrorFile() { return errorFile; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public long getRowsRead() { return rowsRead.get(); }
+    public long getRowsRejected() { return rowsRejected.get(); }
+    public long getRowsDuplicate() { return rowsDuplicate.get(); }
+    public long getRowsInserted() { return rowsInserted; }
+    public String getStatus() { return status; }
+    public String getError() { return error; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    @JsonIgnore
+    public boolean isFinished() { return finishedAt != null; }
+
+    public void rowRead() { rowsRead.incrementAndGet(); }
+    public void rowRejected() { rowsRejected.incrementAndGet(); }
+    public void rowDuplicate() { rowsDuplicate.incrementAndGet(); }
+    public void setRowsInserted(long rowsInserted) { this.rowsInserted = rowsInserted; }
+    public void setStatus(String status) { this.status = status; }
+
+    public void fail(String error) {
+        this.error = error;
+        this.rowsInserted = 0;
+        this.status = FAILED;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void complete() {
+        this.status = COMPLETED;
+        this.finishedAt = LocalDateTime.now();
+    }
+}
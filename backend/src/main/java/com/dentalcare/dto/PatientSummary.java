@@ -0,0 +1,79 @@
+package com.dentalcare.dto;
+
+import com.dentalcare.util.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Patient row for list views; medical history is only returned by the detail endpoint
+public class PatientSummary {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private LocalDate dateOfBirth;
+    private String gender;
+    private String address;
+    private String insuranceInfo;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastVisit;
+    private Integer visitCount;
+    private Money lifetimeSpend;
+    private Money outstandingBalance;
+    private LocalDateTime updatedAt;
+
+    public PatientSummary() {}
+
+    public PatientSummary(Long id, String firstName, String lastName, String email, String phone,
+                          LocalDate dateOfBirth, String gender, String address, String insuranceInfo,
+                          LocalDateTime createdAt, LocalDateTime lastVisit, Integer visitCount,
+                          Money lifetimeSpend, Money outstandingBalance, LocalDateTime updatedAt) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.dateOfBirth = dateOfBirth;
+        this.gender = gender;
+        this.address = address;
+        this.insuranceInfo = insuranceInfo;
+        this.createdAt = createdAt;
+        this.lastVisit = lastVisit;
+        this.visitCount = visitCount;
+        this.lifetimeSpend = lifetimeSpend;
+        this.outstandingBalance = outstandingBalance;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+    public LocalDate getDateOfBirth() { return dateOfBirth; }
+    public void setDateOfBirth(LocalDate dateOfBirth) { this.dateOfBirth = dateOfBirth; }
+    public String getGender() { return gender; }
+    public void setGender(String gender) { this.gender = gender; }
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+    public String getInsuranceInfo() { return insuranceInfo; }
+    public void setInsuranceInfo(String insuranceInfo) { this.insuranceInfo = insuranceInfo; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getLastVisit() { return lastVisit; }
+    public void setLastVisit(LocalDateTime lastVisit) { this.lastVisit = lastVisit; }
+    public Integer getVisitCount() { return visitCount; }
+    public void setVisitCount(Integer visitCount) { this.visitCount = visitCount; }
+    public Money getLifetimeSpend() { return lifetimeSpend; }
+    public void setLifetimeSpend(Money lifetimeSpend) { this.lifetimeSpend = lifetimeSpend; }
+    public Money getOutstandingBalance() { return outstandingBalance; }
+    public void setOutstandingBalance(Money outstandingBalance) { this.outstandingBalance = outstandingBalance; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
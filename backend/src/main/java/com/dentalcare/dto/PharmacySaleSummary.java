@@ -0,0 +1,61 @@
+package com.dentalcare.dto;
+
+import com.dentalcare.util.Money;
+
+import java.time.LocalDateTime;
+
+// Sale header for list views; line items are loaded only when a sale is opened
+public class PharmacySaleSummary {
+    private Long id;
+    private Long customerId;
+    private String customerName;
+    private String customerPhone;
+    private Money subtotal;
+    private Money sgst;
+    private Money cgst;
+    private Money discount;
+    private Money total;
+    private LocalDateTime createdAt;
+    private int itemCount;
+
+    public PharmacySaleSummary() {}
+
+    public PharmacySaleSummary(Long id, Long customerId, String customerName, String customerPhone,
+                               Money subtotal, Money sgst, Money cgst, Money discount, Money total,
+                               LocalDateTime createdAt, int itemCount) {
+        this.id = id;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.customerPhone = customerPhone;
+        this.subtotal = subtotal;
+        this.sgst = sgst;
+        this.cgst = cgst;
+        this.discount = discount;
+        this.total = total;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+    public Money getSubtotal() { return subtotal; }
+    public void setSubtotal(Money subtotal) { this.subtotal = subtotal; }
+    public Money getSgst() { return sgst; }
+    public void setSgst(Money sgst) { this.sgst = sgst; }
+    public Money getCgst() { return cgst; }
+    public void setCgst(Money cgst) { this.cgst = cgst; }
+    public Money getDiscount() { return discount; }
+    public void setDiscount(Money discount) { this.discount = discount; }
+    public Money getTotal() { return total; }
+    public void setTotal(Money total) { this.total = total; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+}
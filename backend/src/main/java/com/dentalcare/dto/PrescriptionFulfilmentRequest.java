@@ -0,0 +1,23 @@
+package com.dentalcare.dto;
+
+import com.dentalcare.util.Money;
+
+import java.util.Map;
+
+public class PrescriptionFulfilmentRequest {
+    private Map<Long, Integer> quantities; // prescription item id -> units dispensed; missing or 0 skips the item
+    private Money discount;
+    private String customerPhone; // defaults to the patient's phone
+    private String reservationId;
+
+    public PrescriptionFulfilmentRequest() {}
+
+    public Map<Long, Integer> getQuantities() { return quantities; }
+    public void setQuantities(Map<Long, Integer> quantities) { this.quantities = quantities; }
+    public Money getDiscount() { return discount; }
+    public void setDiscount(Money discount) { this.discount = discount; }
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+    public String getReservationId() { return reservationId; }
+    public void setReservationId(String reservationId) { this.reservationId = reservationId; }
+}
@@ -0,0 +1,25 @@
+package com.dentalcare.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class StockReservationDto {
+    private String id;
+    private Map<Long, Integer> items; // medicineId -> quantity
+    private LocalDateTime expiresAt;
+
+    public StockReservationDto() {}
+
+    public StockReservationDto(String id, Map<Long, Integer> items, LocalDateTime expiresAt) {
+        this.id = id;
+        this.items = items;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Map<Long, Integer> getItems() { return items; }
+    public void setItems(Map<Long, Integer> items) { this.items = items; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
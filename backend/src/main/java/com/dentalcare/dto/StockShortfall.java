@@ -0,0 +1,26 @@
+package com.dentalcare.dto;
+
+public class StockShortfall {
+    private Long medicineId;
+    private String medicineName;
+    private int requested;
+    private int available;
+
+    public StockShortfall() {}
+
+    public StockShortfall(Long medicineId, String medicineName, int requested, int available) {
+        this.medicineId = medicineId;
+        this.medicineName = medicineName;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public Long getMedicineId() { return medicineId; }
+    public void setMedicineId(Long medicineId) { this.medicineId = medicineId; }
+    public String getMedicineName() { return medicineName; }
+    public void setMedicineName(String medicineName) { this.medicineName = medicineName; }
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+    public int getAvailable() { return available; }
+    public void setAvailable(int available) { this.available = available; }
+}
@@ -0,0 +1,33 @@
+package com.dentalcare.dto;
+
+import java.time.LocalDateTime;
+
+public class TimelineEntry {
+    public static final String APPOINTMENT = "appointment";
+    public static final String TREATMENT = "treatment";
+    public static final String PRESCRIPTION = "prescription";
+    public static final String PAYMENT = "payment";
+
+    private String type;
+    private Long id;
+    private LocalDateTime occurredAt;
+    private Object data; // the appointment, treatment, prescription (with items) or amount
+
+    public TimelineEntry() {}
+
+    public TimelineEntry(String type, Long id, LocalDateTime occurredAt, Object data) {
+        this.type = type;
+        this.id = id;
+        this.occurredAt = occurredAt;
+        this.data = data;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+    public Object getData() { return data; }
+    public void setData(Object data) { this.data = data; }
+}
@@ -1,5 +1,6 @@
 package com.dentalcare.model;
 
+import com.dentalcare.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -18,8 +19,8 @@ public class Amount {
     @Column(name = "patient_id", nullable = false)
     private Long patientId;
 
-    @Column(nullable = false)
-    private Double amount;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money amount;
 
     @Column(name = "payment_type", nullable = false)
     private String paymentType; // "cash" or "online"
@@ -1,5 +1,6 @@
 package com.dentalcare.model;
 
+import com.dentalcare.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
@@ -47,13 +48,26 @@ public class Appointment {
     @Column(columnDefinition = "TEXT")
     private String notes;
     
+    // Charged to the patient's ledger once the appointment is completed
+    @Column(precision = 12, scale = 2)
+    private Money fee;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
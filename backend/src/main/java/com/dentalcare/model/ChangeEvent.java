@@ -0,0 +1,49 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "change_events")
+public class ChangeEvent {
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+
+    public static final String APPOINTMENT = "appointment";
+    public static final String AMOUNT = "amount";
+    public static final String MEDICINE = "medicine";
+    public static final String PATIENT = "patient";
+    public static final String PHARMACY_SALE = "pharmacy_sale";
+    public static final String PRESCRIPTION = "prescription";
+    public static final String TREATMENT = "treatment";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Feed position consumers pass back as ?since=; stamped after commit, null until then
+    @Column(insertable = false, updatable = false)
+    private Long version;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private String operation;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
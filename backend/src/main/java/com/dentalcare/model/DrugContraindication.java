@@ -0,0 +1,39 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "drug_contraindications")
+public class DrugContraindication {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+
+    // Matched case-insensitively against the patient's medical history, e.g. "penicillin allergy"
+    @Column(nullable = false)
+    private String keyword;
+
+    @Column(nullable = false)
+    private String severity;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        if (keyword != null) {
+            keyword = keyword.trim().toLowerCase();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,45 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "drug_interactions")
+public class DrugInteraction {
+    public static final String MINOR = "minor";
+    public static final String MODERATE = "moderate";
+    public static final String MAJOR = "major";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Stored with the lower id first so each pair has one row
+    @Column(name = "medicine_a_id", nullable = false)
+    private Long medicineAId;
+
+    @Column(name = "medicine_b_id", nullable = false)
+    private Long medicineBId;
+
+    @Column(nullable = false)
+    private String severity;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        if (medicineAId != null && medicineBId != null && medicineAId > medicineBId) {
+            Long a = medicineAId;
+            medicineAId = medicineBId;
+            medicineBId = a;
+        }
+        updatedAt = LocalDateTime.now();
+    }
+}
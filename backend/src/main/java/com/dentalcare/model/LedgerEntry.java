@@ -0,0 +1,55 @@
+package com.dentalcare.model;
+
+import com.dentalcare.util.Money;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "patient_ledger")
+public class LedgerEntry {
+    public static final String CHARGE = "charge";
+    public static final String PAYMENT = "payment";
+    public static final String REVERSAL = "reversal";
+
+    public static final String SOURCE_APPOINTMENT = "appointment";
+    public static final String SOURCE_TREATMENT = "treatment";
+    public static final String SOURCE_AMOUNT = "amount";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "entry_type", nullable = false)
+    private String entryType;
+
+    @Column(name = "source_type", nullable = false)
+    private String sourceType;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    // Positive for charges, negative for payments and reversals
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money amount;
+
+    // Patient balance right after this entry
+    @Column(name = "balance_after", nullable = false, precision = 12, scale = 2)
+    private Money balanceAfter;
+
+    // Unpaid part of a charge; payments settle the oldest charges first
+    @Column(name = "open_amount", nullable = false, precision = 12, scale = 2)
+    private Money openAmount;
+
+    private String description;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+
+    @Column(name = "reversed_at")
+    private LocalDateTime reversedAt;
+}
@@ -1,5 +1,6 @@
 package com.dentalcare.model;
 
+import com.dentalcare.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
@@ -24,14 +25,19 @@ public class Medicine {
     
     private String manufacturer;
     
-    @Column(nullable = false)
+    // Never written by entity saves; changed only through atomic updates recorded in the stock ledger
+    @Column(nullable = false, updatable = false)
     private Integer stock;
     
+    // Maintained by the forecasting job; the column default applies until a medicine is forecast
+    @Column(name = "reorder_point", insertable = false, updatable = false)
+    private Integer reorderPoint;
+    
     @Column(nullable = false)
     private String unit;
     
-    @Column(nullable = false)
-    private Double price;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money price;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,26 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "medicine_forecasts")
+public class MedicineForecast {
+    @Id
+    @Column(name = "medicine_id")
+    private Long medicineId;
+
+    // Exponentially weighted average of units sold per day
+    @Column(name = "daily_velocity", nullable = false)
+    private Double dailyVelocity;
+
+    // Last complete day folded into the average; the next run continues from the day after
+    @Column(name = "last_day", nullable = false)
+    private LocalDate lastDay;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "medicine_lots")
+public class MedicineLot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+
+    @Column(name = "lot_number", nullable = false)
+    private String lotNumber;
+
+    // Units of this lot still on the shelf
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "date_of_mfg")
+    private LocalDate dateOfMfg;
+
+    @Column(name = "date_of_expiry")
+    private LocalDate dateOfExpiry;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.dentalcare.model;
 
+import com.dentalcare.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
@@ -25,6 +26,14 @@ public class Patient {
     @Column(nullable = false)
     private String phone;
     
+    // Canonical form of phone used for lookups; set by the service on every write
+    @Column(name = "phone_e164")
+    private String phoneE164;
+    
+    // Soundex of the last name plus date of birth; groups likely duplicates for the dedupe scan
+    @Column(name = "blocking_key")
+    private String blockingKey;
+    
     @Column(name = "date_of_birth", nullable = false)
     private LocalDate dateOfBirth;
     
@@ -43,6 +52,26 @@ public class Patient {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
-    @Column(name = "last_visit")
+    // Visit aggregates maintained by PatientStatsService; never written through the entity
+    @Column(name = "last_visit", insertable = false, updatable = false)
     private LocalDateTime lastVisit;
+    
+    @Column(name = "visit_count", insertable = false, updatable = false)
+    private Integer visitCount;
+    
+    @Column(name = "lifetime_spend", insertable = false, updatable = false, precision = 12, scale = 2)
+    private Money lifetimeSpend;
+    
+    // Running ledger balance maintained by ReceivablesService; negative means the patient is in credit
+    @Column(name = "outstanding_balance", insertable = false, updatable = false, precision = 12, scale = 2)
+    private Money outstandingBalance;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "patient_duplicates")
+public class PatientDuplicate {
+    public static final String PENDING = "pending";
+    public static final String MERGED = "merged";
+    public static final String DISMISSED = "dismissed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Always the lower of the two ids, so a pair is stored once
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "duplicate_id", nullable = false)
+    private Long duplicateId;
+
+    @Column(nullable = false)
+    private Integer score;
+
+    // Comma-separated list of the fields that matched
+    @Column(nullable = false)
+    private String reasons;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+}
@@ -19,6 +19,10 @@ public class PharmacyCustomer {
     @Column(nullable = false, unique = true)
     private String phone;
     
+    // Canonical form of phone used for lookups; set by the service on every write
+    @Column(name = "phone_e164", unique = true)
+    private String phoneE164;
+    
     private String email;
     
     @Column(columnDefinition = "TEXT")
@@ -1,5 +1,6 @@
 package com.dentalcare.model;
 
+import com.dentalcare.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -22,32 +23,45 @@ public class PharmacySale {
     @Column(name = "customer_phone", nullable = false)
     private String customerPhone;
     
+    // Set when the sale dispensed a prescription
+    @Column(name = "prescription_id")
+    private Long prescriptionId;
+    
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "sale_id")
     private List<PharmacySaleItem> items;
     
-    @Column(nullable = false)
-    private Double subtotal;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money subtotal;
     
-    @Column(nullable = false)
-    private Double sgst;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money sgst;
     
-    @Column(nullable = false)
-    private Double cgst;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money cgst;
     
-    @Column(nullable = false)
-    private Double discount;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money discount;
     
-    @Column(nullable = false)
-    private Double total;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Money total;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
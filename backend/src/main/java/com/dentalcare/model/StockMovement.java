@@ -0,0 +1,49 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "stock_movements")
+public class StockMovement {
+    public static final String SALE = "sale";
+    public static final String RECEIPT = "receipt";
+    public static final String ADJUSTMENT = "adjustment";
+    public static final String EXPIRY_WRITE_OFF = "expiry_write_off";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+
+    @Column(name = "movement_type", nullable = false)
+    private String movementType;
+
+    // Signed: positive adds stock, negative removes it
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Source document, e.g. the pharmacy sale id for sale movements
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    // Lot the units came from or went into; null for stock not tracked by lot
+    @Column(name = "lot_id")
+    private Long lotId;
+
+    private String note;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
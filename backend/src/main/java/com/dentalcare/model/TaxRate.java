@@ -0,0 +1,36 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "tax_rates")
+public class TaxRate {
+    // Applies to medicines whose type has no rate of its own
+    public static final String DEFAULT_TYPE = "*";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "medicine_type", nullable = false, unique = true)
+    private String medicineType;
+
+    // Rates in basis points, e.g. 900 is 9%
+    @Column(name = "sgst_basis_points", nullable = false)
+    private Integer sgstBasisPoints;
+
+    @Column(name = "cgst_basis_points", nullable = false)
+    private Integer cgstBasisPoints;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
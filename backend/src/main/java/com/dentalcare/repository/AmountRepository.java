@@ -1,6 +1,8 @@
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Amount;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDateTime;
@@ -9,6 +11,7 @@ import java.util.List;
 public interface AmountRepository extends JpaRepository<Amount, Long> {
     List<Amount> findByAppointmentId(Long appointmentId);
     List<Amount> findByPatientId(Long patientId);
+    Page<Amount> findByPatientId(Long patientId, Pageable pageable);
     List<Amount> findByAppointmentIdIn(List<Long> appointmentIds);
     List<Amount> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 }
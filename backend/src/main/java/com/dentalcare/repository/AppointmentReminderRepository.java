@@ -0,0 +1,11 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.AppointmentReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AppointmentReminderRepository extends JpaRepository<AppointmentReminder, Long> {
+    List<AppointmentReminder> findByAppointmentIdIn(Collection<Long> appointmentIds);
+}
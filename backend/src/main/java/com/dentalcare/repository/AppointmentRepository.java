@@ -1,5 +1,6 @@
 package com.dentalcare.repository;
 
+import com.dentalcare.dto.AppointmentSummary;
 import com.dentalcare.model.Appointment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
@@ -14,14 +15,20 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByDate(LocalDate date);
     List<Appointment> findByDateBetween(LocalDate startDate, LocalDate endDate);
     List<Appointment> findByPatientId(Long patientId);
+    Page<Appointment> findByPatientId(Long patientId, Pageable pageable);
     
-    @Query("SELECT a FROM Appointment a WHERE " +
+    String SEARCH_FILTER = "WHERE " +
            "(:search = '' OR " +
            "LOWER(a.patientName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(a.dentistName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(a.type) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(a.status) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Appointment> findAppointmentsWithSearch(@Param("search") String search, Pageable pageable);
+           "LOWER(a.status) LIKE LOWER(CONCAT('%', :search, '%')))";
+
+    @Query(value = "SELECT new com.dentalcare.dto.AppointmentSummary(a.id, a.patientId, a.patientName, a.dentistId, " +
+                   "a.dentistName, a.date, a.startTime, a.endTime, a.status, a.type, a.treatmentType, a.createdAt, " +
+                   "a.updatedAt) FROM Appointment a " + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(a) FROM Appointment a " + SEARCH_FILTER)
+    Page<AppointmentSummary> findAppointmentsWithSearch(@Param("search") String search, Pageable pageable);
     
     @Query("SELECT COALESCE(COUNT(DISTINCT a.patientId), 0) FROM Appointment a " +
            "WHERE a.date BETWEEN ?1 AND ?2 " +
@@ -41,15 +48,32 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.date = :date")
     long countByDate(@Param("date") LocalDate date);
 
-    @Query("SELECT a FROM Appointment a WHERE a.date >= :date AND a.status IN ('scheduled', 'confirmed') ORDER BY a.date ASC, a.startTime ASC")
-    List<Appointment> findUpcomingAppointments(@Param("date") LocalDate date, Pageable pageable);
+    @Query("SELECT new com.dentalcare.dto.AppointmentSummary(a.id, a.patientId, a.patientName, a.dentistId, " +
+           "a.dentistName, a.date, a.startTime, a.endTime, a.status, a.type, a.treatmentType, a.createdAt, " +
+           "a.updatedAt) FROM Appointment a WHERE a.date >= :date AND a.status IN ('scheduled', 'confirmed') " +
+           "ORDER BY a.date ASC, a.startTime ASC")
+    List<AppointmentSummary> findUpcomingAppointments(@Param("date") LocalDate date, Pageable pageable);
 
     @Query("SELECT a.type, COUNT(a) FROM Appointment a GROUP BY a.type")
     List<Object[]> getAppointmentTypeStatistics();
 
+    @Query("SELECT a.type, COUNT(a) FROM Appointment a WHERE a.date BETWEEN :startDate AND :endDate GROUP BY a.type")
+    List<Object[]> countByTypeBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     @Query("SELECT a.status, COUNT(a) FROM Appointment a GROUP BY a.status")
     List<Object[]> getAppointmentStatusStatistics();
 
     @Query("SELECT a.treatmentType, COUNT(a) FROM Appointment a WHERE a.treatmentType IS NOT NULL GROUP BY a.treatmentType")
     List<Object[]> getTreatmentTypeStatistics();
+
+    // Reminder candidates for a day, keyset-paged by id; skips sent reminders and exhausted retries
+    @Query("SELECT a FROM Appointment a WHERE a.date = :date AND a.status = :status AND a.id > :afterId " +
+           "AND NOT EXISTS (SELECT r FROM AppointmentReminder r WHERE r.appointmentId = a.id " +
+           "AND (r.sentAt IS NOT NULL OR r.attempts >= :maxAttempts)) " +
+           "ORDER BY a.id ASC")
+    List<Appointment> findDueForReminder(@Param("date") LocalDate date,
+                                         @Param("status") String status,
+                                         @Param("maxAttempts") int maxAttempts,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
 }
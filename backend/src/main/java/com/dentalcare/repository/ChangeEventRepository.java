@@ -0,0 +1,21 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+    List<ChangeEvent> findByVersionGreaterThanOrderByVersionAsc(Long since, Pageable pageable);
+
+    List<ChangeEvent> findByEntityTypeAndVersionGreaterThanOrderByVersionAsc(String entityType, Long since, Pageable pageable);
+
+    List<ChangeEvent> findByEntityTypeInAndVersionGreaterThanOrderByVersionAsc(Collection<String> entityTypes, Long since, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.version), 0) FROM ChangeEvent e")
+    long findLatestVersion();
+}
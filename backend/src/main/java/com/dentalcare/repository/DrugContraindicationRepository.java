@@ -0,0 +1,7 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.DrugContraindication;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DrugContraindicationRepository extends JpaRepository<DrugContraindication, Long> {
+}
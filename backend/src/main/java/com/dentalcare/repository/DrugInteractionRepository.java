@@ -0,0 +1,7 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.DrugInteraction;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DrugInteractionRepository extends JpaRepository<DrugInteraction, Long> {
+}
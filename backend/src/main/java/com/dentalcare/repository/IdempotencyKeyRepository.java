@@ -0,0 +1,41 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByScopeKey(String scopeKey);
+
+    // Claims the key: inserts it with a short lease, or takes over a row whose lease or TTL has run
+    // out. Returns 0 when the key is live, i.e. the request is a retry.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (scope_key, status, request_hash, created_at, expires_at) " +
+                   "VALUES (:scopeKey, 'in_progress', :requestHash, :now, :expiresAt) " +
+                   "ON CONFLICT (scope_key) DO UPDATE SET status = 'in_progress', request_hash = :requestHash, " +
+                   "response_status = NULL, content_type = NULL, response_body = NULL, created_at = :now, " +
+                   "expires_at = :expiresAt WHERE idempotency_keys.expires_at <= :now", nativeQuery = true)
+    int claim(@Param("scopeKey") String scopeKey, @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = 'completed', k.responseStatus = :status, " +
+           "k.contentType = :contentType, k.responseBody = :body, k.expiresAt = :expiresAt " +
+           "WHERE k.scopeKey = :scopeKey")
+    int complete(@Param("scopeKey") String scopeKey, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.scopeKey = :scopeKey AND k.status = 'in_progress'")
+    int releaseInProgress(@Param("scopeKey") String scopeKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
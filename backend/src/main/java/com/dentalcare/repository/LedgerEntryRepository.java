@@ -0,0 +1,10 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.LedgerEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    Page<LedgerEntry> findByPatientIdOrderByIdDesc(Long patientId, Pageable pageable);
+}
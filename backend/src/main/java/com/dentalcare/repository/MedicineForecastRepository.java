@@ -0,0 +1,7 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.MedicineForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MedicineForecastRepository extends JpaRepository<MedicineForecast, Long> {
+}
@@ -0,0 +1,43 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.MedicineLot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MedicineLotRepository extends JpaRepository<MedicineLot, Long> {
+    List<MedicineLot> findByMedicineIdAndQuantityGreaterThanOrderByDateOfExpiryAscIdAsc(Long medicineId, int quantity);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM MedicineLot l WHERE l.id = :id")
+    Optional<MedicineLot> findByIdForUpdate(@Param("id") Long id);
+
+    // First-expiry-first-out order over unexpired lots; lots without an expiry are used last
+    @Query(value = "SELECT * FROM medicine_lots WHERE medicine_id IN (:medicineIds) AND quantity > 0 " +
+                   "AND (date_of_expiry IS NULL OR date_of_expiry >= current_date) " +
+                   "ORDER BY medicine_id, date_of_expiry NULLS LAST, id FOR UPDATE", nativeQuery = true)
+    List<MedicineLot> lockAvailableLots(@Param("medicineIds") Collection<Long> medicineIds);
+
+    // Lots past their expiry, oldest first, for write-offs
+    @Query(value = "SELECT * FROM medicine_lots WHERE medicine_id = :medicineId AND quantity > 0 " +
+                   "AND date_of_expiry < current_date ORDER BY date_of_expiry, id FOR UPDATE", nativeQuery = true)
+    List<MedicineLot> lockExpiredLots(@Param("medicineId") Long medicineId);
+
+    // Medicine id and units held in lots that are past their expiry
+    @Query(value = "SELECT medicine_id, SUM(quantity) FROM medicine_lots WHERE medicine_id IN (:medicineIds) " +
+                   "AND quantity > 0 AND date_of_expiry < current_date GROUP BY medicine_id", nativeQuery = true)
+    List<Object[]> sumExpiredQuantities(@Param("medicineIds") Collection<Long> medicineIds);
+
+    // Range scan on the partial expiry index: lot id, lot number, quantity, expiry, medicine id, medicine name
+    @Query("SELECT l.id, l.lotNumber, l.quantity, l.dateOfExpiry, m.id, m.name " +
+           "FROM MedicineLot l, Medicine m WHERE m.id = l.medicineId " +
+           "AND l.quantity > 0 AND l.dateOfExpiry <= :threshold ORDER BY l.dateOfExpiry, l.id")
+    List<Object[]> findExpiringLots(@Param("threshold") LocalDate threshold);
+}
@@ -1,22 +1,49 @@
 package com.dentalcare.repository;
 
+import com.dentalcare.dto.MedicineSummary;
 import com.dentalcare.model.Medicine;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
-public interface MedicineRepository extends JpaRepository<Medicine, Long> {
+public interface MedicineRepository extends JpaRepository<Medicine, Long>, MedicineRepositoryCustom {
     
-    @Query("SELECT m FROM Medicine m WHERE " +
+    // Lists carry only the start of the description, enough for the one-line preview
+    String SUMMARY = "SELECT new com.dentalcare.dto.MedicineSummary(m.id, m.name, m.type, SUBSTRING(m.description, 1, 160), " +
+                     "m.manufacturer, m.stock, m.reorderPoint, m.unit, m.price, m.createdAt, m.updatedAt, m.dateOfMfg, " +
+                     "m.dateOfExpiry) FROM Medicine m ";
+    String SEARCH_FILTER = "WHERE " +
            "(:search = '' OR " +
            "LOWER(m.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(m.type) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(m.manufacturer) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Medicine> findMedicinesWithSearch(@Param("search") String search, Pageable pageable);
+           "LOWER(m.manufacturer) LIKE LOWER(CONCAT('%', :search, '%')))";
+
+    @Query(value = SUMMARY + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(m) FROM Medicine m " + SEARCH_FILTER)
+    Page<MedicineSummary> findMedicinesWithSearch(@Param("search") String search, Pageable pageable);
     
-    @Query("SELECT m FROM Medicine m WHERE LOWER(m.name) LIKE LOWER(CONCAT('%', :query, '%')) AND m.stock > 0 ORDER BY m.name")
-    List<Medicine> findByNameContainingIgnoreCaseAndStockGreaterThan(@Param("query") String query);
+    @Query(SUMMARY + "WHERE LOWER(m.name) LIKE LOWER(CONCAT('%', :query, '%')) AND m.stock > 0 ORDER BY m.name")
+    List<MedicineSummary> findByNameContainingIgnoreCaseAndStockGreaterThan(@Param("query") String query);
+
+    @Query("SELECT m.id FROM Medicine m")
+    List<Long> findAllIds();
+
+    // Written as stock - reorder_point so it matches the expression index
+    @Query(value = "SELECT * FROM medicines WHERE stock - reorder_point <= 0 ORDER BY stock", nativeQuery = true)
+    List<Medicine> findAtOrBelowReorderPoint();
+
+    // Taken before touching a medicine's lots so lot changes follow the same lock order as sales
+    @Query(value = "SELECT id FROM medicines WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Medicine m SET m.stock = m.stock + :delta, m.updatedAt = :now " +
+           "WHERE m.id = :id AND m.stock + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
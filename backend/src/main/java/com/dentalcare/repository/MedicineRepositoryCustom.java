@@ -0,0 +1,14 @@
+package com.dentalcare.repository;
+
+import java.util.List;
+import java.util.SortedMap;
+
+public interface MedicineRepositoryCustom {
+    /**
+     * Decrements stock for all given medicines (id to quantity) in a single JDBC batch.
+     * Each row is only updated if it still has enough unexpired stock, so concurrent sales can neither
+     * lose updates nor drive stock negative. Rows are touched in ascending id order, which keeps
+     * row-lock acquisition deterministic across transactions. Returns the ids that were not updated.
+     */
+    List<Long> decrementStock(SortedMap<Long, Integer> quantities);
+}
@@ -0,0 +1,41 @@
+package com.dentalcare.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+class MedicineRepositoryCustomImpl implements MedicineRepositoryCustom {
+    // Units in expired lots still count towards stock but cannot be sold
+    private static final String DECREMENT_SQL =
+        "UPDATE medicines SET stock = stock - ?, updated_at = now() WHERE id = ? AND stock - " +
+        "(SELECT COALESCE(SUM(l.quantity), 0) FROM medicine_lots l WHERE l.medicine_id = medicines.id " +
+        "AND l.quantity > 0 AND l.date_of_expiry < current_date) >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    MedicineRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.size());
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            ids.add(entry.getKey());
+            args.add(new Object[] { entry.getValue(), entry.getKey(), entry.getValue() });
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+        List<Long> notUpdated = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                notUpdated.add(ids.get(i));
+            }
+        }
+        return notUpdated;
+    }
+}
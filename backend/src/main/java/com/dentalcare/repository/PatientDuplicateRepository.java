@@ -0,0 +1,10 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.PatientDuplicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PatientDuplicateRepository extends JpaRepository<PatientDuplicate, Long> {
+    Page<PatientDuplicate> findByStatusOrderByScoreDescIdAsc(String status, Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package com.dentalcare.repository;
 
+import com.dentalcare.dto.PatientSummary;
 import com.dentalcare.model.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
@@ -12,22 +13,36 @@ import java.util.List;
 import java.util.Optional;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
-    List<Patient> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    Optional<Patient> findByPhone(String phone);
-
-    @Query("SELECT p FROM Patient p WHERE " +
+    // List views leave out medical_history, which can be long and is only shown on the detail page
+    String SUMMARY = "SELECT new com.dentalcare.dto.PatientSummary(p.id, p.firstName, p.lastName, p.email, p.phone, " +
+                     "p.dateOfBirth, p.gender, p.address, p.insuranceInfo, p.createdAt, p.lastVisit, p.visitCount, " +
+                     "p.lifetimeSpend, p.outstandingBalance, p.updatedAt) FROM Patient p ";
+    String SEARCH_FILTER = "WHERE " +
+           "(:minVisits IS NULL OR p.visitCount >= :minVisits) AND " +
+           "(CAST(:lastVisitBefore AS LocalDateTime) IS NULL OR p.lastVisit < :lastVisitBefore) AND " +
            "(:search = '' OR " +
            "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(p.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "p.phone LIKE CONCAT('%', :search, '%') OR " +
-           "CAST(p.id AS text) LIKE CONCAT('%', :search, '%'))")
-    Page<Patient> findPatientsWithSearch(@Param("search") String search, Pageable pageable);
+           "p.phoneE164 = :phoneE164 OR " +
+           "CAST(p.id AS text) LIKE CONCAT('%', :search, '%'))";
+
+    List<Patient> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+    // Family members often share a number; the earliest registered patient is returned
+    Optional<Patient> findFirstByPhoneE164OrderByIdAsc(String phoneE164);
+
+    @Query(value = SUMMARY + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(p) FROM Patient p " + SEARCH_FILTER)
+    Page<PatientSummary> findPatientsWithSearch(@Param("search") String search,
+                                         @Param("phoneE164") String phoneE164,
+                                         @Param("minVisits") Integer minVisits,
+                                         @Param("lastVisitBefore") LocalDateTime lastVisitBefore,
+                                         Pageable pageable);
 
-    @Query("SELECT p FROM Patient p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR CAST(p.id AS text) LIKE CONCAT('%', :query, '%')")
-    List<Patient> searchByNameOrId(@Param("query") String query);
+    @Query(SUMMARY + "WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR CAST(p.id AS text) LIKE CONCAT('%', :query, '%')")
+    List<PatientSummary> searchByNameOrId(@Param("query") String query);
 
     // Dashboard specific queries for optimized performance
-    @Query("SELECT p FROM Patient p ORDER BY p.createdAt DESC")
-    List<Patient> findRecentPatients(Pageable pageable);
+    @Query(SUMMARY + "ORDER BY p.createdAt DESC")
+    List<PatientSummary> findRecentPatients(Pageable pageable);
 }
\ No newline at end of file
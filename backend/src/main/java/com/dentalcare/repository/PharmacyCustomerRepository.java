@@ -6,5 +6,5 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface PharmacyCustomerRepository extends JpaRepository<PharmacyCustomer, Long> {
-    Optional<PharmacyCustomer> findByPhone(String phone);
+    Optional<PharmacyCustomer> findByPhoneE164(String phoneE164);
 }
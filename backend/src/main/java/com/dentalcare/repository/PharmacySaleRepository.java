@@ -1,19 +1,38 @@
 
 package com.dentalcare.repository;
 
+import com.dentalcare.dto.PharmacySaleSummary;
 import com.dentalcare.model.PharmacySale;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface PharmacySaleRepository extends JpaRepository<PharmacySale, Long> {
     List<PharmacySale> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    
-    @Query("SELECT i.medicineId, i.medicineName, SUM(i.quantity) as totalQuantity, SUM(i.totalPrice) as totalRevenue " +
-           "FROM PharmacySale s JOIN s.items i " +
-           "WHERE s.createdAt BETWEEN ?1 AND ?2 " +
-           "GROUP BY i.medicineId, i.medicineName " +
-           "ORDER BY totalQuantity DESC")
-    List<Object[]> getTopSellingMedicines(LocalDateTime startDate, LocalDateTime endDate);
+
+    boolean existsByPrescriptionId(Long prescriptionId);
+
+    // The casts give PostgreSQL a type for a null timestamp; a bare ":from IS NULL" cannot be planned
+    String FILTER = "WHERE (CAST(:from AS LocalDateTime) IS NULL OR s.createdAt >= :from) AND (CAST(:to AS LocalDateTime) IS NULL OR s.createdAt < :to) " +
+                    "AND (:customerId IS NULL OR s.customerId = :customerId)";
+
+    @Query(value = "SELECT s.id FROM PharmacySale s " + FILTER,
+           countQuery = "SELECT COUNT(s) FROM PharmacySale s " + FILTER)
+    Page<Long> findIds(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                       @Param("customerId") Long customerId, Pageable pageable);
+
+    @Query(value = "SELECT new com.dentalcare.dto.PharmacySaleSummary(s.id, s.customerId, s.customerName, " +
+                   "s.customerPhone, s.subtotal, s.sgst, s.cgst, s.discount, s.total, s.createdAt, SIZE(s.items)) " +
+                   "FROM PharmacySale s " + FILTER,
+           countQuery = "SELECT COUNT(s) FROM PharmacySale s " + FILTER)
+    Page<PharmacySaleSummary> findSummaries(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                            @Param("customerId") Long customerId, Pageable pageable);
+
+    @Query("SELECT DISTINCT s FROM PharmacySale s LEFT JOIN FETCH s.items WHERE s.id IN :ids")
+    List<PharmacySale> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
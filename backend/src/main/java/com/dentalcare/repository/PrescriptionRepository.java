@@ -1,9 +1,22 @@
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Prescription;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
-    List<Prescription> findByPatientId(Long patientId);
-}
\ No newline at end of file
+    @Query("SELECT DISTINCT p FROM Prescription p LEFT JOIN FETCH p.items WHERE p.patientId = :patientId")
+    List<Prescription> findByPatientId(@Param("patientId") Long patientId);
+
+    @Query(value = "SELECT p.id FROM Prescription p WHERE p.patientId = :patientId",
+           countQuery = "SELECT COUNT(p) FROM Prescription p WHERE p.patientId = :patientId")
+    Page<Long> findIdsByPatientId(@Param("patientId") Long patientId, Pageable pageable);
+
+    @Query("SELECT DISTINCT p FROM Prescription p LEFT JOIN FETCH p.items WHERE p.id IN :ids")
+    List<Prescription> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,20 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    Page<StockMovement> findByMedicineId(Long medicineId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m " +
+           "WHERE m.medicineId = :medicineId AND m.createdAt >= :from AND m.createdAt <= :to")
+    long sumQuantityBetween(@Param("medicineId") Long medicineId,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to);
+}
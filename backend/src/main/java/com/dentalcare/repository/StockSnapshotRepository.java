@@ -0,0 +1,37 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    Optional<StockSnapshot> findFirstByMedicineIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+        Long medicineId, LocalDateTime at);
+
+    // Rolls every medicine's latest snapshot forward to the cutoff in one statement, reading
+    // only the movements created since that snapshot
+    @Modifying
+    @Query(value = """
+        INSERT INTO stock_snapshots (medicine_id, stock, snapshot_at)
+        SELECT m.id,
+               COALESCE(s.stock, 0) + COALESCE((
+                   SELECT SUM(mv.quantity) FROM stock_movements mv
+                   WHERE mv.medicine_id = m.id
+                     AND (s.snapshot_at IS NULL OR mv.created_at >= s.snapshot_at)
+                     AND mv.created_at < :cutoff), 0),
+               :cutoff
+        FROM medicines m
+        LEFT JOIN LATERAL (
+            SELECT ss.stock, ss.snapshot_at FROM stock_snapshots ss
+            WHERE ss.medicine_id = m.id
+            ORDER BY ss.snapshot_at DESC LIMIT 1
+        ) s ON true
+        WHERE s.snapshot_at IS NULL OR s.snapshot_at < :cutoff
+        """, nativeQuery = true)
+    int rollForward(@Param("cutoff") LocalDateTime cutoff);
+}
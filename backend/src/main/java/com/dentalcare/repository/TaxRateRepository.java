@@ -0,0 +1,10 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.TaxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface TaxRateRepository extends JpaRepository<TaxRate, Long> {
+    Optional<TaxRate> findByMedicineType(String medicineType);
+}
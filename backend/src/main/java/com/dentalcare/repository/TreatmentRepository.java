@@ -1,7 +1,11 @@
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Treatment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface TreatmentRepository extends JpaRepository<Treatment, Long> {
@@ -9,4 +13,13 @@ public interface TreatmentRepository extends JpaRepository<Treatment, Long> {
 
     // Custom query to get all treatments for a patient via appointment
     List<Treatment> findByAppointmentIdIn(List<Long> appointmentIds);
+
+    String BY_PATIENT = "FROM Treatment t WHERE EXISTS " +
+                        "(SELECT a.id FROM Appointment a WHERE a.id = t.appointmentId AND a.patientId = :patientId)";
+
+    @Query("SELECT t " + BY_PATIENT + " ORDER BY t.createdAt DESC, t.id DESC")
+    List<Treatment> findByPatientId(@Param("patientId") Long patientId);
+
+    @Query(value = "SELECT t " + BY_PATIENT, countQuery = "SELECT COUNT(t) " + BY_PATIENT)
+    Page<Treatment> findByPatientId(@Param("patientId") Long patientId, Pageable pageable);
 }
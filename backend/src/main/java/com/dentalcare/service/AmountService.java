@@ -1,21 +1,39 @@
 package com.dentalcare.service;
 
 import com.dentalcare.model.Amount;
+import com.dentalcare.model.ChangeEvent;
 import com.dentalcare.repository.AmountRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
 public class AmountService {
     private final AmountRepository amountRepository;
+    private final ChangeFeedService changeFeedService;
+    private final PatientStatsService patientStatsService;
+    private final ReceivablesService receivablesService;
+    private final AnalyticsStore analyticsStore;
 
-    public AmountService(AmountRepository amountRepository) {
+    public AmountService(AmountRepository amountRepository, ChangeFeedService changeFeedService,
+                         PatientStatsService patientStatsService, ReceivablesService receivablesService,
+                         AnalyticsStore analyticsStore) {
         this.amountRepository = amountRepository;
+        this.changeFeedService = changeFeedService;
+        this.patientStatsService = patientStatsService;
+        this.receivablesService = receivablesService;
+        this.analyticsStore = analyticsStore;
     }
 
+    @Transactional
     public Amount createAmount(Amount amount) {
-        return amountRepository.save(amount);
+        Amount saved = amountRepository.save(amount);
+        patientStatsService.paymentRecorded(saved);
+        receivablesService.recordPayment(saved);
+        analyticsStore.paymentRecorded(saved);
+        changeFeedService.record(ChangeEvent.AMOUNT, saved.getId(), ChangeEvent.INSERT);
+        return saved;
     }
 
     public List<Amount> getAmountsByAppointmentId(Long appointmentId) {
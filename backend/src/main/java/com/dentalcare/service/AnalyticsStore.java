@@ -0,0 +1,507 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Amount;
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Payments and pharmacy sales held column-wise for reports. Rows go into one partition per
+ * calendar year of the payment or sale date, and each partition keeps its columns in primitive
+ * arrays: epoch day, cents, and dictionary codes for payment and appointment type. A report is
+ * then a loop over a few arrays, run per partition in parallel, instead of loading entities.
+ *
+ * Writes are appended after their transaction commits. Since ids are not committed in order and
+ * other instances write too, a poll also re-reads the last few ids below MAX(id) of each table;
+ * every row is added once by id, so overlap between appends, polls and scans is harmless. The
+ * whole store is rebuilt from a streaming scan at startup and nightly, which also folds in
+ * appointment changes made elsewhere. Changes arriving while a rebuild scans are replayed onto
+ * the new columns before they are swapped in.
+ */
+@Service
+public class AnalyticsStore {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsStore.class);
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final short NO_CODE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final String PAYMENT_SQL =
+        "SELECT am.id, am.created_at, am.amount, am.payment_type, am.appointment_id, a.type, a.date FROM amounts am " +
+        "LEFT JOIN appointments a ON a.id = am.appointment_id";
+    private static final String SALE_SQL = "SELECT id, created_at, total FROM pharmacy_sales";
+
+    /** Sum and number of rows in a group. */
+    public record Totals(Money amount, long count) {}
+
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Short> codes = new HashMap<>();
+
+        short code(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return (short) (values.size() - 1);
+            });
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    private static final class PaymentPartition {
+        int size;
+        int[] days = new int[INITIAL_CAPACITY];
+        long[] cents = new long[INITIAL_CAPACITY];
+        short[] paymentTypes = new short[INITIAL_CAPACITY];
+        short[] appointmentTypes = new short[INITIAL_CAPACITY];
+        int[] appointmentDays = new int[INITIAL_CAPACITY];
+        // Rows of one appointment form a chain: the latest row, then each row's previous one, -1 ends it
+        final Map<Long, Integer> lastRowByAppointment = new HashMap<>();
+        int[] previousRows = new int[INITIAL_CAPACITY];
+
+        void add(int day, long amount, short paymentType, long appointmentId, short appointmentType, int appointmentDay) {
+            if (size == days.length) {
+                int capacity = size * 2;
+                days = Arrays.copyOf(days, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                paymentTypes = Arrays.copyOf(paymentTypes, capacity);
+                appointmentTypes = Arrays.copyOf(appointmentTypes, capacity);
+                appointmentDays = Arrays.copyOf(appointmentDays, capacity);
+                previousRows = Arrays.copyOf(previousRows, capacity);
+            }
+            days[size] = day;
+            cents[size] = amount;
+            paymentTypes[size] = paymentType;
+            appointmentTypes[size] = appointmentType;
+            appointmentDays[size] = appointmentDay;
+            Integer previous = lastRowByAppointment.put(appointmentId, size);
+            previousRows[size] = previous != null ? previous : -1;
+            size++;
+        }
+
+        void relabel(long appointmentId, short appointmentType, int appointmentDay) {
+            Integer last = lastRowByAppointment.get(appointmentId);
+            for (int i = last != null ? last : -1; i >= 0; i = previousRows[i]) {
+                appointmentTypes[i] = appointmentType;
+                appointmentDays[i] = appointmentDay;
+            }
+        }
+    }
+
+    private static final class SalePartition {
+        int size;
+        int[] days = new int[INITIAL_CAPACITY];
+        long[] cents = new long[INITIAL_CAPACITY];
+
+        void add(int day, long amount) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                cents = Arrays.copyOf(cents, size * 2);
+            }
+            days[size] = day;
+            cents[size] = amount;
+            size++;
+        }
+    }
+
+    private static final class Columns {
+        final SortedMap<Integer, PaymentPartition> payments = new TreeMap<>();
+        final SortedMap<Integer, SalePartition> sales = new TreeMap<>();
+        final Dictionary paymentTypes = new Dictionary();
+        final Dictionary appointmentTypes = new Dictionary();
+        // Ids already added, indexed by id
+        final BitSet paymentIds = new BitSet();
+        final BitSet saleIds = new BitSet();
+
+        void addPayment(long id, LocalDate date, long cents, String paymentType, long appointmentId,
+                        String appointmentType, LocalDate appointmentDate) {
+            if (!markAdded(paymentIds, id)) {
+                return;
+            }
+            payments.computeIfAbsent(date.getYear(), year -> new PaymentPartition()).add((int) date.toEpochDay(),
+                cents, this.paymentTypes.code(paymentType != null ? paymentType.toLowerCase() : null), appointmentId,
+                this.appointmentTypes.code(appointmentType), appointmentDate != null ? (int) appointmentDate.toEpochDay() : NO_DAY);
+        }
+
+        void addSale(long id, LocalDate date, long cents) {
+            if (!markAdded(saleIds, id)) {
+                return;
+            }
+            sales.computeIfAbsent(date.getYear(), year -> new SalePartition()).add((int) date.toEpochDay(), cents);
+        }
+
+        void updateAppointment(long appointmentId, String type, LocalDate date) {
+            short code = appointmentTypes.code(type);
+            int day = date != null ? (int) date.toEpochDay() : NO_DAY;
+            for (PaymentPartition partition : payments.values()) {
+                partition.relabel(appointmentId, code, day);
+            }
+        }
+
+        private static boolean markAdded(BitSet ids, long id) {
+            int index = Math.toIntExact(id);
+            if (ids.get(index)) {
+                return false;
+            }
+            ids.set(index);
+            return true;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final int pollWindow;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private Columns columns = new Columns();
+    // Changes applied while a rebuild scans, replayed onto the rebuilt columns; null otherwise
+    private List<Consumer<Columns>> pending;
+
+    public AnalyticsStore(
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        @Value("${analytics.fetch-size:5000}") int fetchSize,
+        @Value("${analytics.poll-window:1000}") int pollWindow
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fetchSize = fetchSize;
+        this.pollWindow = pollWindow;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentRecorded(Amount amount) {
+        List<Object[]> appointment = jdbcTemplate.query("SELECT type, date FROM appointments WHERE id = ?",
+            (rs, rowNum) -> new Object[] { rs.getString("type"), rs.getDate("date").toLocalDate() },
+            amount.getAppointmentId());
+        String type = appointment.isEmpty() ? null : (String) appointment.get(0)[0];
+        LocalDate date = appointment.isEmpty() ? null : (LocalDate) appointment.get(0)[1];
+        long id = amount.getId();
+        LocalDate day = amount.getCreatedAt().toLocalDate();
+        long cents = amount.getAmount().getCents();
+        String paymentType = amount.getPaymentType();
+        long appointmentId = amount.getAppointmentId();
+        applyAfterCommit(c -> c.addPayment(id, day, cents, paymentType, appointmentId, type, date));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saleRecorded(PharmacySale sale) {
+        long id = sale.getId();
+        LocalDate day = sale.getCreatedAt().toLocalDate();
+        long cents = sale.getTotal().getCents();
+        applyAfterCommit(c -> c.addSale(id, day, cents));
+    }
+
+    /** Re-labels the payments of an appointment after its type or date changed; null when deleted. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appointmentChanged(Long appointmentId, Appointment appointment) {
+        String type = appointment != null ? appointment.getType() : null;
+        LocalDate date = appointment != null ? appointment.getDate() : null;
+        applyAfterCommit(c -> c.updateAppointment(appointmentId, type, date));
+    }
+
+    /** Payments received in the range, by payment date. */
+    public Totals payments(LocalDate from, LocalDate to) {
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        return read(c -> {
+            long[] sums = partitions(c.payments, from, to).parallelStream().map(p -> {
+                long[] r = new long[2];
+                for (int i = 0; i < p.size; i++) {
+                    int day = p.days[i];
+                    if (day >= lo && day <= hi) {
+                        r[0] += p.cents[i];
+                        r[1]++;
+                    }
+                }
+                return r;
+            }).reduce(new long[2], AnalyticsStore::add);
+            return new Totals(Money.ofCents(sums[0]), sums[1]);
+        });
+    }
+
+    /** Payments received in the range grouped by payment type, in lower case. */
+    public Map<String, Totals> paymentsByType(LocalDate from, LocalDate to) {
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        return read(c -> {
+            int types = c.paymentTypes.size();
+            long[] sums = partitions(c.payments, from, to).parallelStream().map(p -> {
+                long[] r = new long[types * 2];
+                for (int i = 0; i < p.size; i++) {
+                    int day = p.days[i];
+                    int type = p.paymentTypes[i];
+                    if (day >= lo && day <= hi && type >= 0) {
+                        r[type * 2] += p.cents[i];
+                        r[type * 2 + 1]++;
+                    }
+                }
+                return r;
+            }).reduce(new long[types * 2], AnalyticsStore::add);
+            Map<String, Totals> result = new HashMap<>();
+            for (int type = 0; type < types; type++) {
+                if (sums[type * 2 + 1] > 0) {
+                    result.put(c.paymentTypes.value(type), new Totals(Money.ofCents(sums[type * 2]), sums[type * 2 + 1]));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Revenue per month of the appointment date, for appointments dated within the range whatever
+     * day they were paid. One entry per month from the month of from to the month of to.
+     */
+    public List<Money> paymentsByAppointmentMonth(LocalDate from, LocalDate to) {
+        int[] monthStarts = monthStarts(from, to);
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        return read(c -> {
+            int months = monthStarts.length - 1;
+            long[] sums = c.payments.values().parallelStream().map(p -> {
+                long[] r = new long[months];
+                for (int i = 0; i < p.size; i++) {
+                    int day = p.appointmentDays[i];
+                    if (day >= lo && day <= hi) {
+                        r[month(monthStarts, day)] += p.cents[i];
+                    }
+                }
+                return r;
+            }).reduce(new long[months], AnalyticsStore::add);
+            return Arrays.stream(sums).mapToObj(Money::ofCents).toList();
+        });
+    }
+
+    /** Revenue per appointment type from payments and appointments both dated within the range. */
+    public Map<String, Money> revenueByAppointmentType(LocalDate from, LocalDate to) {
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        return read(c -> {
+            int types = c.appointmentTypes.size();
+            long[] sums = partitions(c.payments, from, to).parallelStream().map(p -> {
+                long[] r = new long[types];
+                for (int i = 0; i < p.size; i++) {
+                    int day = p.days[i];
+                    int appointmentDay = p.appointmentDays[i];
+                    int type = p.appointmentTypes[i];
+                    if (day >= lo && day <= hi && appointmentDay >= lo && appointmentDay <= hi && type >= 0) {
+                        r[type] += p.cents[i];
+                    }
+                }
+                return r;
+            }).reduce(new long[types], AnalyticsStore::add);
+            Map<String, Money> result = new HashMap<>();
+            for (int type = 0; type < types; type++) {
+                if (sums[type] != 0) {
+                    result.put(c.appointmentTypes.value(type), Money.ofCents(sums[type]));
+                }
+            }
+            return result;
+        });
+    }
+
+    /** Pharmacy sales in the range, by sale date. */
+    public Totals sales(LocalDate from, LocalDate to) {
+        List<Totals> months = salesByMonth(from, to);
+        return new Totals(
+            Money.ofCents(months.stream().mapToLong(t -> t.amount().getCents()).sum()),
+            months.stream().mapToLong(Totals::count).sum());
+    }
+
+    /** Pharmacy sales in the range per month, from the month of from to the month of to. */
+    public List<Totals> salesByMonth(LocalDate from, LocalDate to) {
+        int[] monthStarts = monthStarts(from, to);
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        return read(c -> {
+            int months = monthStarts.length - 1;
+            long[] sums = partitions(c.sales, from, to).parallelStream().map(p -> {
+                long[] r = new long[months * 2];
+                for (int i = 0; i < p.size; i++) {
+                    int day = p.days[i];
+                    if (day >= lo && day <= hi) {
+                        int month = month(monthStarts, day);
+                        r[month * 2] += p.cents[i];
+                        r[month * 2 + 1]++;
+                    }
+                }
+                return r;
+            }).reduce(new long[months * 2], AnalyticsStore::add);
+            List<Totals> result = new ArrayList<>(months);
+            for (int month = 0; month < months; month++) {
+                result.add(new Totals(Money.ofCents(sums[month * 2]), sums[month * 2 + 1]));
+            }
+            return result;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${analytics.rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            withWriteLock(() -> pending = new ArrayList<>());
+            Columns fresh = transactionTemplate.execute(status -> scan());
+            withWriteLock(() -> {
+                pending.forEach(change -> change.accept(fresh));
+                columns = fresh;
+            });
+            log.info("Analytics store loaded {} payments and {} sales",
+                fresh.payments.values().stream().mapToLong(p -> p.size).sum(),
+                fresh.sales.values().stream().mapToLong(p -> p.size).sum());
+        } finally {
+            withWriteLock(() -> pending = null);
+            rebuilding.set(false);
+        }
+    }
+
+    // Picks up rows from other instances and rows whose append was missed, e.g. a lower id committing late
+    @Scheduled(fixedDelayString = "${analytics.poll-ms:30000}")
+    public void pollRecentRows() {
+        List<Consumer<Columns>> rows = new ArrayList<>();
+        jdbcTemplate.query(PAYMENT_SQL + " WHERE am.id > (SELECT COALESCE(MAX(id), 0) FROM amounts) - ?",
+            rs -> { rows.add(paymentRow(rs)); }, pollWindow);
+        jdbcTemplate.query(SALE_SQL + " WHERE id > (SELECT COALESCE(MAX(id), 0) FROM pharmacy_sales) - ?",
+            rs -> { rows.add(saleRow(rs)); }, pollWindow);
+        withWriteLock(() -> rows.forEach(this::apply));
+    }
+
+    private Columns scan() {
+        Columns fresh = new Columns();
+        stream(PAYMENT_SQL + " ORDER BY am.id", rs -> paymentRow(rs).accept(fresh));
+        stream(SALE_SQL + " ORDER BY id", rs -> saleRow(rs).accept(fresh));
+        return fresh;
+    }
+
+    private static Consumer<Columns> paymentRow(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        LocalDate day = rs.getTimestamp("created_at").toLocalDateTime().toLocalDate();
+        long cents = Money.of(rs.getBigDecimal("amount")).getCents();
+        String paymentType = rs.getString("payment_type");
+        long appointmentId = rs.getLong("appointment_id");
+        String type = rs.getString("type");
+        Date appointmentDate = rs.getDate("date");
+        LocalDate date = appointmentDate != null ? appointmentDate.toLocalDate() : null;
+        return c -> c.addPayment(id, day, cents, paymentType, appointmentId, type, date);
+    }
+
+    private static Consumer<Columns> saleRow(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        LocalDate day = rs.getTimestamp("created_at").toLocalDateTime().toLocalDate();
+        long cents = Money.of(rs.getBigDecimal("total")).getCents();
+        return c -> c.addSale(id, day, cents);
+    }
+
+    private void stream(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, handler);
+    }
+
+    private void applyAfterCommit(Consumer<Columns> change) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                withWriteLock(() -> apply(change));
+            }
+        });
+    }
+
+    // Callers hold the write lock
+    private void apply(Consumer<Columns> change) {
+        change.accept(columns);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private <T> T read(Function<Columns, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <P> Collection<P> partitions(SortedMap<Integer, P> partitions, LocalDate from, LocalDate to) {
+        return partitions.subMap(from.getYear(), to.getYear() + 1).values();
+    }
+
+    // Epoch days of the first of each month in the range, plus the first of the month after it
+    private static int[] monthStarts(LocalDate from, LocalDate to) {
+        YearMonth first = YearMonth.from(from);
+        int months = (int) first.until(YearMonth.from(to), ChronoUnit.MONTHS) + 1;
+        int[] starts = new int[months + 1];
+        for (int i = 0; i <= months; i++) {
+            starts[i] = (int) first.plusMonths(i).atDay(1).toEpochDay();
+        }
+        return starts;
+    }
+
+    private static int month(int[] monthStarts, int day) {
+        int index = Arrays.binarySearch(monthStarts, day);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = new long[a.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+}
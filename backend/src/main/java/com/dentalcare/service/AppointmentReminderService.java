@@ -0,0 +1,140 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.AppointmentReminder;
+import com.dentalcare.model.Patient;
+import com.dentalcare.repository.AppointmentReminderRepository;
+import com.dentalcare.repository.AppointmentRepository;
+import com.dentalcare.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class AppointmentReminderService {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EEEE, d MMMM yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentReminderRepository reminderRepository;
+    private final PatientRepository patientRepository;
+    private final MailDispatcher mailDispatcher;
+    private final MailTemplate subjectTemplate;
+    private final MailTemplate bodyTemplate;
+    private final String from;
+    private final String status;
+    private final int pageSize;
+    private final int maxAttempts;
+
+    public AppointmentReminderService(
+        AppointmentRepository appointmentRepository,
+        AppointmentReminderRepository reminderRepository,
+        PatientRepository patientRepository,
+        MailDispatcher mailDispatcher,
+        @Value("${reminders.subject}") String subject,
+        @Value("${reminders.body}") String body,
+        @Value("${spring.mail.from:}") String from,
+        @Value("${reminders.status:confirmed}") String status,
+        @Value("${reminders.page-size:500}") int pageSize,
+        @Value("${reminders.max-attempts:3}") int maxAttempts
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderRepository = reminderRepository;
+        this.patientRepository = patientRepository;
+        this.mailDispatcher = mailDispatcher;
+        this.subjectTemplate = MailTemplate.compile(subject);
+        this.bodyTemplate = MailTemplate.compile(body);
+        this.from = from;
+        this.status = status;
+        this.pageSize = pageSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Runs on the scheduler thread; failed sends stay eligible until max-attempts is reached
+    @Scheduled(fixedDelayString = "${reminders.interval-ms:900000}", initialDelayString = "${reminders.initial-delay-ms:60000}")
+    public void sendScheduledReminders() {
+        sendRemindersFor(LocalDate.now().plusDays(1));
+    }
+
+    public int sendRemindersFor(LocalDate date) {
+        int sent = 0;
+        long afterId = 0;
+        while (true) {
+            List<Appointment> appointments = appointmentRepository.findDueForReminder(
+                date, status, maxAttempts, afterId, PageRequest.of(0, pageSize));
+            if (appointments.isEmpty()) {
+                return sent;
+            }
+            sent += sendPage(appointments);
+            afterId = appointments.get(appointments.size() - 1).getId();
+        }
+    }
+
+    private int sendPage(List<Appointment> appointments) {
+        List<Long> appointmentIds = appointments.stream().map(Appointment::getId).toList();
+        Map<Long, AppointmentReminder> reminders = reminderRepository.findByAppointmentIdIn(appointmentIds).stream()
+            .collect(Collectors.toMap(AppointmentReminder::getAppointmentId, Function.identity()));
+        Set<Long> patientIds = appointments.stream().map(Appointment::getPatientId).collect(Collectors.toSet());
+        Map<Long, Patient> patients = patientRepository.findAllById(patientIds).stream()
+            .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        List<SimpleMailMessage> messages = new ArrayList<>(appointments.size());
+        Map<SimpleMailMessage, AppointmentReminder> reminderByMessage = new IdentityHashMap<>();
+        for (Appointment appointment : appointments) {
+            Patient patient = patients.get(appointment.getPatientId());
+            if (patient == null || patient.getEmail() == null || patient.getEmail().isBlank()) {
+                continue;
+            }
+            AppointmentReminder reminder = reminders.computeIfAbsent(appointment.getId(), id -> {
+                AppointmentReminder created = new AppointmentReminder();
+                created.setAppointmentId(id);
+                return created;
+            });
+            SimpleMailMessage message = buildMessage(appointment, patient);
+            messages.add(message);
+            reminderByMessage.put(message, reminder);
+        }
+
+        Map<SimpleMailMessage, Exception> failed = mailDispatcher.sendAll(messages);
+        LocalDateTime now = LocalDateTime.now();
+        reminderByMessage.forEach((message, reminder) -> {
+            reminder.setAttempts(reminder.getAttempts() + 1);
+            Exception error = failed.get(message);
+            if (error == null) {
+                reminder.setSentAt(now);
+                reminder.setLastError(null);
+            } else {
+                reminder.setLastError(error.getMessage());
+            }
+        });
+        reminderRepository.saveAll(reminderByMessage.values());
+        return messages.size() - failed.size();
+    }
+
+    private SimpleMailMessage buildMessage(Appointment appointment, Patient patient) {
+        Map<String, String> values = new HashMap<>();
+        values.put("patientName", patient.getFirstName() + " " + patient.getLastName());
+        values.put("dentistName", appointment.getDentistName());
+        values.put("type", appointment.getType());
+        values.put("date", appointment.getDate().format(DATE_FORMAT));
+        values.put("time", appointment.getStartTime().format(TIME_FORMAT));
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (!from.isBlank()) {
+            message.setFrom(from);
+        }
+        message.setTo(patient.getEmail());
+        message.setSubject(subjectTemplate.render(values));
+        message.setText(bodyTemplate.render(values));
+        return message;
+    }
+}
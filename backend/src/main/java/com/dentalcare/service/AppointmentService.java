@@ -1,26 +1,43 @@
 package com.dentalcare.service;
 
 import com.dentalcare.model.Appointment;
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.model.LedgerEntry;
+import com.dentalcare.dto.AppointmentSummary;
 import com.dentalcare.dto.PageRequest;
 import com.dentalcare.dto.PageResponse;
 import com.dentalcare.repository.AppointmentRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
+    private final ChangeFeedService changeFeedService;
+    private final PatientStatsService patientStatsService;
+    private final ReceivablesService receivablesService;
+    private final AnalyticsStore analyticsStore;
+    private final TreatmentService treatmentService;
     
-    public AppointmentService(AppointmentRepository appointmentRepository) {
+    public AppointmentService(AppointmentRepository appointmentRepository, ChangeFeedService changeFeedService,
+                              PatientStatsService patientStatsService, ReceivablesService receivablesService,
+                              AnalyticsStore analyticsStore, TreatmentService treatmentService) {
         this.appointmentRepository = appointmentRepository;
+        this.changeFeedService = changeFeedService;
+        this.patientStatsService = patientStatsService;
+        this.receivablesService = receivablesService;
+        this.analyticsStore = analyticsStore;
+        this.treatmentService = treatmentService;
     }
     
-    public PageResponse<Appointment> getAllAppointments(PageRequest pageRequest) {
-        Page<Appointment> page = appointmentRepository.findAppointmentsWithSearch(
+    public PageResponse<AppointmentSummary> getAllAppointments(PageRequest pageRequest) {
+        Page<AppointmentSummary> page = appointmentRepository.findAppointmentsWithSearch(
             pageRequest.getSearch(), 
             pageRequest.toSpringPageRequest()
         );
@@ -55,23 +72,58 @@ public class AppointmentService {
         return appointmentRepository.findById(id);
     }
     
+    @Transactional
     public Appointment createAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.saveAndFlush(appointment);
+        patientStatsService.appointmentChanged(null, null, saved);
+        syncCharge(saved);
+        changeFeedService.record(ChangeEvent.APPOINTMENT, saved.getId(), ChangeEvent.INSERT);
+        return saved;
     }
     
+    @Transactional
     public Optional<Appointment> updateAppointment(Long id, Appointment appointment) {
-        if (appointmentRepository.existsById(id)) {
-            appointment.setId(id);
-            return Optional.of(appointmentRepository.save(appointment));
+        Optional<Appointment> existing = appointmentRepository.findById(id);
+        if (existing.isEmpty()) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        // Read before the merge below overwrites the managed instance
+        Long previousPatientId = existing.get().getPatientId();
+        String previousStatus = existing.get().getStatus();
+        String previousType = existing.get().getType();
+        LocalDate previousDate = existing.get().getDate();
+        appointment.setId(id);
+        Appointment saved = appointmentRepository.saveAndFlush(appointment);
+        patientStatsService.appointmentChanged(previousPatientId, previousStatus, saved);
+        syncCharge(saved);
+        if (!Objects.equals(previousType, saved.getType()) || !Objects.equals(previousDate, saved.getDate())) {
+            analyticsStore.appointmentChanged(id, saved);
+        }
+        changeFeedService.record(ChangeEvent.APPOINTMENT, id, ChangeEvent.UPDATE);
+        return Optional.of(saved);
     }
     
+    @Transactional
     public boolean deleteAppointment(Long id) {
-        if (appointmentRepository.existsById(id)) {
-            appointmentRepository.deleteById(id);
-            return true;
+        Optional<Appointment> existing = appointmentRepository.findById(id);
+        if (existing.isEmpty()) {
+            return false;
         }
-        return false;
+        appointmentRepository.delete(existing.get());
+        appointmentRepository.flush();
+        patientStatsService.appointmentChanged(existing.get().getPatientId(), existing.get().getStatus(), null);
+        receivablesService.syncCharge(null, LedgerEntry.SOURCE_APPOINTMENT, id, null, null);
+        treatmentService.appointmentChanged(id, null);
+        analyticsStore.appointmentChanged(id, null);
+        changeFeedService.record(ChangeEvent.APPOINTMENT, id, ChangeEvent.DELETE);
+        return true;
+    }
+
+    // Only completed appointments are billed, fee and treatments alike; anything else reverses earlier charges
+    private void syncCharge(Appointment appointment) {
+        boolean completed = PatientStatsService.COMPLETED.equals(appointment.getStatus());
+        receivablesService.syncCharge(appointment.getPatientId(), LedgerEntry.SOURCE_APPOINTMENT, appointment.getId(),
+            completed ? appointment.getFee() : null, appointment.getType() + " on " + appointment.getDate());
+        treatmentService.appointmentChanged(appointment.getId(), appointment);
     }
 }
\ No newline at end of file
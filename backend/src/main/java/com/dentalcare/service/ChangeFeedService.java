@@ -0,0 +1,156 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.repository.ChangeEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Versioned change feed. Writers append an event in their own transaction without taking any
+ * lock. Once it commits, a short stamping step gives every committed, unstamped event the next
+ * version. Stamping is serialised by an advisory lock held only for that step, so versions
+ * become visible in order and a consumer polling with ?since= can never skip one. A scheduled
+ * sweep stamps anything an after-commit step missed.
+ *
+ * Out-of-process consumers can LISTEN on the change_events channel for the latest version,
+ * in-process ones register through subscribe() and are called after their event is stamped.
+ */
+@Service
+public class ChangeFeedService {
+    public static final String CHANNEL = "change_events";
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    // Numbers in id order after the current highest version; callers hold the stamping lock
+    private static final String STAMP_SQL =
+        "UPDATE change_events e SET version = n.version FROM (" +
+        "SELECT id, (SELECT COALESCE(MAX(version), 0) FROM change_events) + row_number() OVER (ORDER BY id) AS version " +
+        "FROM change_events WHERE version IS NULL) n WHERE e.id = n.id";
+
+    private final ChangeEventRepository changeEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate stampTransaction;
+    private final List<Consumer<ChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    public ChangeFeedService(
+        ChangeEventRepository changeEventRepository,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.changeEventRepository = changeEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Runs from afterCommit, where the writer's transaction is finished but still bound
+        this.stampTransaction = new TransactionTemplate(transactionManager);
+        this.stampTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ChangeEvent record(String entityType, Long entityId, String operation) {
+        ChangeEvent event = new ChangeEvent();
+        event.setEntityType(entityType);
+        event.setEntityId(entityId);
+        event.setOperation(operation);
+        ChangeEvent saved = changeEventRepository.save(event);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stampVersions();
+                dispatch(saved);
+            }
+        });
+        return saved;
+    }
+
+    /**
+     * Records one event per id returned by idSql, for set-based writes such as bulk imports.
+     * In-process subscribers are not called; consumers pick the events up through
+     * getChangesSince as usual.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordAll(String entityType, String operation, String idSql) {
+        int count = jdbcTemplate.update(
+            "INSERT INTO change_events (entity_type, entity_id, operation, created_at) " +
+            "SELECT ?, ids.id, ?, now() FROM (" + idSql + ") ids ORDER BY ids.id",
+            entityType, operation);
+        if (count > 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stampVersions();
+                }
+            });
+        }
+        return count;
+    }
+
+    /**
+     * Gives committed events without a version the next versions and notifies listeners of the
+     * new latest version. Returns the number stamped.
+     */
+    @Scheduled(fixedDelayString = "${change-feed.stamp-interval-ms:5000}")
+    public int stampVersions() {
+        try {
+            Integer stamped = stampTransaction.execute(status -> {
+                jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> null, CHANNEL);
+                int count = jdbcTemplate.update(STAMP_SQL);
+                if (count > 0) {
+                    // NOTIFY is transactional in Postgres: listeners hear about it once the versions are visible
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL,
+                        "{\"version\":" + changeEventRepository.findLatestVersion() + "}");
+                }
+                return count;
+            });
+            return stamped != null ? stamped : 0;
+        } catch (RuntimeException e) {
+            // The sweep stamps them later; the writer's own transaction has already committed
+            log.warn("Could not stamp change feed versions", e);
+            return 0;
+        }
+    }
+
+    public List<ChangeEvent> getChangesSince(long since, String entityType, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (entityType == null || entityType.isEmpty()) {
+            return changeEventRepository.findByVersionGreaterThanOrderByVersionAsc(since, page);
+        }
+        return changeEventRepository.findByEntityTypeAndVersionGreaterThanOrderByVersionAsc(entityType, since, page);
+    }
+
+    public long getLatestVersion() {
+        return changeEventRepository.findLatestVersion();
+    }
+
+    /** Registers a callback for committed changes. Run the returned handle to unsubscribe. */
+    public Runnable subscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    private void dispatch(ChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        event.setVersion(jdbcTemplate.queryForObject("SELECT version FROM change_events WHERE id = ?", Long.class, event.getId()));
+        for (Consumer<ChangeEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Change feed subscriber failed for event {}", event.getId(), e);
+            }
+        }
+    }
+}
@@ -4,8 +4,8 @@ import com.dentalcare.dto.DashboardStatsResponse;
 import com.dentalcare.dto.DashboardStatsResponse.UpcomingAppointmentDto;
 import com.dentalcare.dto.DashboardStatsResponse.RecentPatientDto;
 import com.dentalcare.dto.DashboardStatsResponse.StatisticDto;
-import com.dentalcare.model.Appointment;
-import com.dentalcare.model.Patient;
+import com.dentalcare.dto.AppointmentSummary;
+import com.dentalcare.dto.PatientSummary;
 import com.dentalcare.repository.AppointmentRepository;
 import com.dentalcare.repository.PatientRepository;
 import com.dentalcare.repository.UserRepository;
@@ -41,7 +41,7 @@ public class DashboardService {
         stats.setTotalUsers(userRepository.count());
 
         // Get upcoming appointments (limit to 5)
-        List<Appointment> upcomingAppointments = appointmentRepository.findUpcomingAppointments(
+        List<AppointmentSummary> upcomingAppointments = appointmentRepository.findUpcomingAppointments(
             today, PageRequest.of(0, 5)
         );
         stats.setUpcomingAppointments(
@@ -51,7 +51,7 @@ public class DashboardService {
         );
 
         // Get recent patients (limit to 5)
-        List<Patient> recentPatients = patientRepository.findRecentPatients(
+        List<PatientSummary> recentPatients = patientRepository.findRecentPatients(
             PageRequest.of(0, 5)
         );
         stats.setRecentPatients(
@@ -68,7 +68,7 @@ public class DashboardService {
         return stats;
     }
 
-    private UpcomingAppointmentDto convertToUpcomingAppointmentDto(Appointment appointment) {
+    private UpcomingAppointmentDto convertToUpcomingAppointmentDto(AppointmentSummary appointment) {
         return new UpcomingAppointmentDto(
             appointment.getId(),
             appointment.getPatientName(),
@@ -83,7 +83,7 @@ public class DashboardService {
         );
     }
 
-    private RecentPatientDto convertToRecentPatientDto(Patient patient) {
+    private RecentPatientDto convertToRecentPatientDto(PatientSummary patient) {
         return new RecentPatientDto(
             patient.getId(),
             patient.getFirstName(),
@@ -1,8 +1,10 @@
 package com.dentalcare.service;
 
 import com.dentalcare.model.*;
+import com.dentalcare.util.Money;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
 import java.time.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -107,7 +109,7 @@ public class DataStore {
         medicine.setManufacturer(manufacturer);
         medicine.setStock(stock);
         medicine.setUnit(unit);
-        medicine.setPrice(price);
+        medicine.setPrice(Money.of(BigDecimal.valueOf(price)));
         medicine.setCreatedAt(LocalDateTime.now().minusMonths(1));
         medicine.setUpdatedAt(LocalDateTime.now());
         medicines.put(medicine.getId(), medicine);
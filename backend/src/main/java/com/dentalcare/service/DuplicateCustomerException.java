@@ -0,0 +1,18 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.PharmacyCustomer;
+
+public class DuplicateCustomerException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final PharmacyCustomer existing;
+
+    public DuplicateCustomerException(PharmacyCustomer existing) {
+        super("A customer with this phone number already exists");
+        this.existing = existing;
+    }
+
+    public PharmacyCustomer getExisting() {
+        return existing;
+    }
+}
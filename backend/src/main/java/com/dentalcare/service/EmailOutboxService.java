@@ -0,0 +1,171 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.EmailOutbox;
+import com.dentalcare.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for outgoing email. Callers enqueue inside their own transaction, so
+ * the message is stored if and only if their data commits. A scheduled poller claims due rows
+ * with a lease, hands them to the mail worker pool in batches and records the outcome.
+ * Delivery is at-least-once: a row is re-sent only if the process dies after the SMTP server
+ * accepted it but before it was marked sent.
+ */
+@Service
+public class EmailOutboxService {
+    private final EmailOutboxRepository outboxRepository;
+    private final MailDispatcher mailDispatcher;
+    private final ThreadPoolTaskExecutor mailWorkerExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final String from;
+    private final int batchSize;
+    private final int workers;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lastSendMillis = new AtomicLong();
+
+    public EmailOutboxService(
+        EmailOutboxRepository outboxRepository,
+        MailDispatcher mailDispatcher,
+        @Qualifier("mailWorkerExecutor") ThreadPoolTaskExecutor mailWorkerExecutor,
+        PlatformTransactionManager transactionManager,
+        @Value("${spring.mail.from:}") String from,
+        @Value("${outbox.batch-size:50}") int batchSize,
+        @Value("${outbox.workers:4}") int workers,
+        @Value("${outbox.max-attempts:8}") int maxAttempts,
+        @Value("${outbox.lease-seconds:300}") long leaseSeconds,
+        @Value("${outbox.backoff-base-seconds:30}") long baseBackoffSeconds,
+        @Value("${outbox.backoff-max-seconds:3600}") long maxBackoffSeconds
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.mailDispatcher = mailDispatcher;
+        this.mailWorkerExecutor = mailWorkerExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.from = from;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmailOutbox enqueue(String recipient, String subject, String body) {
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(recipient);
+        email.setSubject(subject);
+        email.setBody(body);
+        return outboxRepository.save(email);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:2000}")
+    public void drain() {
+        while (true) {
+            List<EmailOutbox> claimed = claim(batchSize * workers);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int start = 0; start < claimed.size(); start += batchSize) {
+                List<EmailOutbox> batch = claimed.subList(start, Math.min(start + batchSize, claimed.size()));
+                batches.add(CompletableFuture.runAsync(() -> send(batch), mailWorkerExecutor));
+            }
+            CompletableFuture.allOf(batches.toArray(CompletableFuture<?>[]::new)).join();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Long> byStatus = new HashMap<>();
+        for (Object[] row : outboxRepository.countByStatus()) {
+            byStatus.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        stats.put("byStatus", byStatus);
+        stats.put("sent", sentCount.get());
+        stats.put("retried", retryCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("lastBatchMillis", lastSendMillis.get());
+        return stats;
+    }
+
+    private List<EmailOutbox> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.lockDue(now, limit);
+            due.forEach(email -> {
+                email.setStatus(EmailOutbox.STATUS_SENDING);
+                email.setNextAttemptAt(now.plus(lease));
+            });
+            return outboxRepository.saveAll(due);
+        });
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        Map<SimpleMailMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        List<SimpleMailMessage> messages = new ArrayList<>(batch.size());
+        for (EmailOutbox email : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            if (!from.isBlank()) {
+                message.setFrom(from);
+            }
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages.add(message);
+            byMessage.put(message, email);
+        }
+
+        long started = System.currentTimeMillis();
+        Map<SimpleMailMessage, Exception> failed = mailDispatcher.sendAll(messages);
+        lastSendMillis.set(System.currentTimeMillis() - started);
+
+        LocalDateTime now = LocalDateTime.now();
+        byMessage.forEach((message, email) -> {
+            email.setAttempts(email.getAttempts() + 1);
+            Exception error = failed.get(message);
+            if (error == null) {
+                email.setStatus(EmailOutbox.STATUS_SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sentCount.incrementAndGet();
+            } else if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutbox.STATUS_FAILED);
+                email.setLastError(error.getMessage());
+                failedCount.incrementAndGet();
+            } else {
+                email.setStatus(EmailOutbox.STATUS_PENDING);
+                email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+                email.setLastError(error.getMessage());
+                retryCount.incrementAndGet();
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,124 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.MedicineForecast;
+import com.dentalcare.repository.MedicineForecastRepository;
+import com.dentalcare.repository.MedicineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sales velocity per medicine as an exponentially weighted moving average of daily units sold,
+ * read from the medicine_daily_sales aggregates. Each run folds in only the complete days since
+ * the previous run, then writes the resulting reorder point onto the medicine so stock alerts
+ * are a single indexed lookup.
+ */
+@Service
+public class ForecastService {
+    private final MedicineForecastRepository forecastRepository;
+    private final MedicineRepository medicineRepository;
+    private final SalesLeaderboardService salesLeaderboardService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final double alpha;
+    private final int coverDays;
+    private final int lookbackDays;
+    private final int minReorderPoint;
+
+    public ForecastService(
+        MedicineForecastRepository forecastRepository,
+        MedicineRepository medicineRepository,
+        SalesLeaderboardService salesLeaderboardService,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        @Value("${forecast.alpha:0.2}") double alpha,
+        @Value("${forecast.lead-time-days:7}") int leadTimeDays,
+        @Value("${forecast.safety-days:3}") int safetyDays,
+        @Value("${forecast.lookback-days:90}") int lookbackDays,
+        @Value("${forecast.min-reorder-point:5}") int minReorderPoint
+    ) {
+        this.forecastRepository = forecastRepository;
+        this.medicineRepository = medicineRepository;
+        this.salesLeaderboardService = salesLeaderboardService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.alpha = alpha;
+        this.coverDays = leadTimeDays + safetyDays;
+        this.lookbackDays = lookbackDays;
+        this.minReorderPoint = minReorderPoint;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(cron = "${forecast.cron:0 15 1 * * *}")
+    public void refresh() {
+        transactionTemplate.executeWithoutResult(status -> refresh(LocalDate.now().minusDays(1)));
+    }
+
+    private void refresh(LocalDate through) {
+        Map<Long, MedicineForecast> forecasts = forecastRepository.findAll().stream()
+            .collect(Collectors.toMap(MedicineForecast::getMedicineId, Function.identity()));
+        LocalDate newStart = through.minusDays(lookbackDays - 1L);
+
+        List<MedicineForecast> changed = new ArrayList<>();
+        LocalDate from = through;
+        for (Long medicineId : medicineRepository.findAllIds()) {
+            MedicineForecast forecast = forecasts.get(medicineId);
+            if (forecast == null) {
+                forecast = new MedicineForecast();
+                forecast.setMedicineId(medicineId);
+                forecast.setDailyVelocity(0.0);
+                forecast.setLastDay(newStart.minusDays(1));
+                forecasts.put(medicineId, forecast);
+            }
+            if (forecast.getLastDay().isBefore(through)) {
+                changed.add(forecast);
+                from = from.isAfter(forecast.getLastDay()) ? forecast.getLastDay().plusDays(1) : from;
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<LocalDate, Long>> sold = salesLeaderboardService.getDailyQuantities(from, through);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> reorderPoints = new ArrayList<>(changed.size());
+        for (MedicineForecast forecast : changed) {
+            Map<LocalDate, Long> days = sold.getOrDefault(forecast.getMedicineId(), Map.of());
+            double velocity = forecast.getDailyVelocity();
+            for (LocalDate day = forecast.getLastDay().plusDays(1); !day.isAfter(through); day = day.plusDays(1)) {
+                velocity = alpha * days.getOrDefault(day, 0L) + (1 - alpha) * velocity;
+            }
+            forecast.setDailyVelocity(velocity);
+            forecast.setLastDay(through);
+            forecast.setUpdatedAt(now);
+            reorderPoints.add(new Object[] { reorderPoint(velocity), forecast.getMedicineId() });
+        }
+        forecastRepository.saveAll(changed);
+        jdbcTemplate.batchUpdate("UPDATE medicines SET reorder_point = ? WHERE id = ?", reorderPoints);
+    }
+
+    // Enough stock to cover the supplier lead time plus a safety margin at the current rate
+    private int reorderPoint(double velocity) {
+        return Math.max(minReorderPoint, (int) Math.ceil(velocity * coverDays));
+    }
+
+    public Map<Long, MedicineForecast> getForecasts(Collection<Long> medicineIds) {
+        return forecastRepository.findAllById(medicineIds).stream()
+            .collect(Collectors.toMap(MedicineForecast::getMedicineId, Function.identity()));
+    }
+}
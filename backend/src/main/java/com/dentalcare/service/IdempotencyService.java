@@ -0,0 +1,97 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.IdempotencyKey;
+import com.dentalcare.repository.IdempotencyKeyRepository;
+import com.dentalcare.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stores the first response for each Idempotency-Key so retries can be answered without running
+ * the request again. The table is the source of truth across restarts; recently completed keys
+ * are also held in memory so a burst of retries costs no database round trip.
+ */
+@Service
+public class IdempotencyService {
+    public record StoredResponse(String requestHash, int status, String contentType, String body) {
+        /** Keys stored before request hashes were recorded match any request. */
+        public boolean matches(String hash) {
+            return requestHash == null || requestHash.equals(hash);
+        }
+    }
+
+    private final IdempotencyKeyRepository repository;
+    private final LruCache<String, StoredResponse> recent;
+    private final long ttlHours;
+    private final long leaseSeconds;
+
+    public IdempotencyService(
+        IdempotencyKeyRepository repository,
+        @Value("${idempotency.ttl-hours:24}") long ttlHours,
+        @Value("${idempotency.lease-seconds:120}") long leaseSeconds,
+        @Value("${idempotency.cache-size:1000}") int cacheSize
+    ) {
+        this.repository = repository;
+        this.ttlHours = ttlHours;
+        this.leaseSeconds = leaseSeconds;
+        this.recent = new LruCache<>(cacheSize, ttlHours * 3_600_000L);
+    }
+
+    public StoredResponse getCachedResponse(String scopeKey) {
+        return recent.get(scopeKey);
+    }
+
+    /**
+     * Returns true if the caller now owns the key and should run the request. The claim is only a
+     * lease: if the process dies mid-request, a retry can take the key over once it lapses.
+     */
+    @Transactional
+    public boolean claim(String scopeKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        return repository.claim(scopeKey, requestHash, now, now.plusSeconds(leaseSeconds)) > 0;
+    }
+
+    /** Whether a live key was claimed by a request with this body; true when the key is gone. */
+    public boolean matchesClaim(String scopeKey, String requestHash) {
+        return repository.findByScopeKey(scopeKey)
+            .map(key -> key.getRequestHash() == null || key.getRequestHash().equals(requestHash))
+            .orElse(true);
+    }
+
+    /** The stored response for a live key, or null while its first request is still running. */
+    public StoredResponse getStoredResponse(String scopeKey) {
+        return repository.findByScopeKey(scopeKey)
+            .filter(key -> IdempotencyKey.COMPLETED.equals(key.getStatus()))
+            .filter(key -> key.getExpiresAt().isAfter(LocalDateTime.now()))
+            .map(key -> {
+                StoredResponse response = new StoredResponse(
+                    key.getRequestHash(), key.getResponseStatus(), key.getContentType(), key.getResponseBody());
+                recent.put(scopeKey, response);
+                return response;
+            })
+            .orElse(null);
+    }
+
+    @Transactional
+    public void complete(String scopeKey, StoredResponse response) {
+        repository.complete(scopeKey, response.status(), response.contentType(), response.body(),
+            LocalDateTime.now().plusHours(ttlHours));
+        recent.put(scopeKey, response);
+    }
+
+    /** Frees a key whose request failed so the client can retry it for real. */
+    @Transactional
+    public void release(String scopeKey) {
+        repository.releaseInProgress(scopeKey);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        repository.deleteExpired(LocalDateTime.now());
+    }
+}
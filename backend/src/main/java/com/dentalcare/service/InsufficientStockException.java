@@ -0,0 +1,23 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.StockShortfall;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class InsufficientStockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<StockShortfall> shortfalls;
+
+    public InsufficientStockException(List<StockShortfall> shortfalls) {
+        super("Insufficient stock for " + shortfalls.stream()
+            .map(StockShortfall::getMedicineName)
+            .collect(Collectors.joining(", ")));
+        this.shortfalls = shortfalls;
+    }
+
+    public List<StockShortfall> getShortfalls() {
+        return shortfalls;
+    }
+}
@@ -0,0 +1,195 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.InteractionWarning;
+import com.dentalcare.model.DrugContraindication;
+import com.dentalcare.model.DrugInteraction;
+import com.dentalcare.repository.DrugContraindicationRepository;
+import com.dentalcare.repository.DrugInteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Interaction and contraindication rules held in memory for checking prescriptions. Medicine
+ * pairs are packed into a sorted long array (lower id in the high 32 bits) and looked up by
+ * binary search; contraindication keywords are grouped by medicine. The rules are rebuilt into a
+ * new immutable table and swapped in whenever the underlying tables change, so checks never
+ * lock and never see a half-loaded table.
+ */
+@Service
+public class InteractionService {
+    private static final Logger log = LoggerFactory.getLogger(InteractionService.class);
+    private static final List<String> SEVERITIES =
+        List.of(DrugInteraction.MINOR, DrugInteraction.MODERATE, DrugInteraction.MAJOR);
+
+    private static final String SIGNATURE_SQL =
+        "SELECT (SELECT COUNT(*) FROM drug_interactions) || ':' || " +
+        "COALESCE(CAST((SELECT MAX(updated_at) FROM drug_interactions) AS VARCHAR), '') || ':' || " +
+        "(SELECT COUNT(*) FROM drug_contraindications) || ':' || " +
+        "COALESCE(CAST((SELECT MAX(updated_at) FROM drug_contraindications) AS VARCHAR), '')";
+
+    private record Rules(long[] pairs, DrugInteraction[] interactions,
+                         Map<Long, List<DrugContraindication>> contraindications, String signature) {}
+
+    private final DrugInteractionRepository interactionRepository;
+    private final DrugContraindicationRepository contraindicationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Rules rules = new Rules(new long[0], new DrugInteraction[0], Map.of(), "");
+
+    public InteractionService(
+        DrugInteractionRepository interactionRepository,
+        DrugContraindicationRepository contraindicationRepository,
+        JdbcTemplate jdbcTemplate
+    ) {
+        this.interactionRepository = interactionRepository;
+        this.contraindicationRepository = contraindicationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Warnings for every interacting pair among the medicines and every keyword found in the history. */
+    public List<InteractionWarning> check(Collection<Long> medicineIds, String medicalHistory) {
+        Rules current = rules;
+        long[] ids = medicineIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).distinct().sorted().toArray();
+        List<InteractionWarning> warnings = new ArrayList<>();
+
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                int index = Arrays.binarySearch(current.pairs(), pairKey(ids[i], ids[j]));
+                if (index >= 0) {
+                    DrugInteraction interaction = current.interactions()[index];
+                    warnings.add(new InteractionWarning(InteractionWarning.INTERACTION, interaction.getSeverity(),
+                        List.of(ids[i], ids[j]), null, interaction.getDescription()));
+                }
+            }
+        }
+
+        if (medicalHistory != null && !medicalHistory.isBlank()) {
+            String history = medicalHistory.toLowerCase();
+            for (long id : ids) {
+                for (DrugContraindication rule : current.contraindications().getOrDefault(id, List.of())) {
+                    if (history.contains(rule.getKeyword())) {
+                        warnings.add(new InteractionWarning(InteractionWarning.CONTRAINDICATION, rule.getSeverity(),
+                            List.of(id), rule.getKeyword(), rule.getDescription()));
+                    }
+                }
+            }
+        }
+        return warnings;
+    }
+
+    public static boolean isMajor(InteractionWarning warning) {
+        return DrugInteraction.MAJOR.equals(warning.getSeverity());
+    }
+
+    public List<DrugInteraction> getInteractions() {
+        return interactionRepository.findAll();
+    }
+
+    public List<DrugContraindication> getContraindications() {
+        return contraindicationRepository.findAll();
+    }
+
+    @Transactional
+    public DrugInteraction saveInteraction(DrugInteraction interaction) {
+        requireSeverity(interaction.getSeverity());
+        if (Objects.equals(interaction.getMedicineAId(), interaction.getMedicineBId())) {
+            throw new IllegalArgumentException("An interaction needs two different medicines");
+        }
+        DrugInteraction saved = interactionRepository.save(interaction);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    @Transactional
+    public DrugContraindication saveContraindication(DrugContraindication contraindication) {
+        requireSeverity(contraindication.getSeverity());
+        if (contraindication.getKeyword() == null || contraindication.getKeyword().isBlank()) {
+            throw new IllegalArgumentException("Keyword is required");
+        }
+        DrugContraindication saved = contraindicationRepository.save(contraindication);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    @Transactional
+    public boolean deleteInteraction(Long id) {
+        if (!interactionRepository.existsById(id)) {
+            return false;
+        }
+        interactionRepository.deleteById(id);
+        reloadAfterCommit();
+        return true;
+    }
+
+    @Transactional
+    public boolean deleteContraindication(Long id) {
+        if (!contraindicationRepository.existsById(id)) {
+            return false;
+        }
+        contraindicationRepository.deleteById(id);
+        reloadAfterCommit();
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reloadIfChanged();
+    }
+
+    // Picks up edits made directly in the database or by another instance
+    @Scheduled(fixedDelayString = "${interactions.reload-check-ms:30000}")
+    public void reloadIfChanged() {
+        String signature = jdbcTemplate.queryForObject(SIGNATURE_SQL, String.class);
+        if (!Objects.equals(signature, rules.signature())) {
+            reload(signature);
+        }
+    }
+
+    private synchronized void reload(String signature) {
+        List<DrugInteraction> interactions = new ArrayList<>(interactionRepository.findAll());
+        interactions.sort(Comparator.comparingLong(i -> pairKey(i.getMedicineAId(), i.getMedicineBId())));
+        long[] pairs = new long[interactions.size()];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = pairKey(interactions.get(i).getMedicineAId(), interactions.get(i).getMedicineBId());
+        }
+
+        Map<Long, List<DrugContraindication>> contraindications = new HashMap<>();
+        for (DrugContraindication rule : contraindicationRepository.findAll()) {
+            contraindications.computeIfAbsent(rule.getMedicineId(), id -> new ArrayList<>()).add(rule);
+        }
+
+        rules = new Rules(pairs, interactions.toArray(new DrugInteraction[0]), contraindications, signature);
+        log.info("Loaded {} drug interactions and contraindications for {} medicines",
+            pairs.length, contraindications.size());
+    }
+
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadIfChanged();
+            }
+        });
+    }
+
+    private void requireSeverity(String severity) {
+        if (!SEVERITIES.contains(severity)) {
+            throw new IllegalArgumentException("Severity must be one of " + SEVERITIES);
+        }
+    }
+
+    private static long pairKey(long a, long b) {
+        long low = Math.min(a, b);
+        long high = Math.max(a, b);
+        return (low << 32) | (high & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,82 @@
+package com.dentalcare.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends mail in batches. JavaMailSender opens one SMTP connection per send(...) call,
+ * so each batch shares a single connection instead of paying a handshake per message.
+ * Throughput is paced to mail.dispatch.max-per-minute across all callers.
+ */
+@Component
+public class MailDispatcher {
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final long nanosPerMessage;
+    private long nextFreeSlot = System.nanoTime();
+
+    public MailDispatcher(
+        JavaMailSender mailSender,
+        @Value("${mail.dispatch.batch-size:50}") int batchSize,
+        @Value("${mail.dispatch.max-per-minute:3000}") int maxPerMinute
+    ) {
+        this.mailSender = mailSender;
+        this.batchSize = Math.max(1, batchSize);
+        this.nanosPerMessage = TimeUnit.MINUTES.toNanos(1) / Math.max(1, maxPerMinute);
+    }
+
+    /**
+     * Sends all messages and returns the ones that failed, keyed by message, with the cause.
+     * An empty map means everything was handed to the SMTP server.
+     */
+    public Map<SimpleMailMessage, Exception> sendAll(List<SimpleMailMessage> messages) {
+        if (messages.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<SimpleMailMessage, Exception> failed = new IdentityHashMap<>();
+        for (int from = 0; from < messages.size(); from += batchSize) {
+            List<SimpleMailMessage> batch = messages.subList(from, Math.min(from + batchSize, messages.size()));
+            awaitSlots(batch.size());
+            try {
+                mailSender.send(batch.toArray(new SimpleMailMessage[0]));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    batch.forEach(message -> failed.put(message, e));
+                } else {
+                    e.getFailedMessages().forEach((message, cause) -> failed.put((SimpleMailMessage) message, cause));
+                }
+            } catch (MailException e) {
+                // Authentication or connection setup failed before any message was sent
+                batch.forEach(message -> failed.put(message, e));
+            }
+        }
+        return failed;
+    }
+
+    private void awaitSlots(int count) {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeSlot);
+            nextFreeSlot = start + count * nanosPerMessage;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
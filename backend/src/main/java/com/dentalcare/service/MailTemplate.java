@@ -0,0 +1,55 @@
+package com.dentalcare.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mail template parsed once into literal and placeholder segments, so rendering is a
+ * single pass over a StringBuilder. Placeholders look like {patientName}.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class MailTemplate {
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int estimatedLength;
+
+    private MailTemplate(String[] literals, String[] placeholders, int estimatedLength) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.estimatedLength = estimatedLength;
+    }
+
+    public static MailTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = template.indexOf('{', pos);
+            int close = open < 0 ? -1 : template.indexOf('}', open);
+            if (close < 0) {
+                literals.add(template.substring(pos));
+                break;
+            }
+            literals.add(template.substring(pos, open));
+            placeholders.add(template.substring(open + 1, close));
+            pos = close + 1;
+        }
+        return new MailTemplate(
+            literals.toArray(new String[0]),
+            placeholders.toArray(new String[0]),
+            template.length() + placeholders.size() * 16
+        );
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder sb = new StringBuilder(estimatedLength);
+        for (int i = 0; i < placeholders.length; i++) {
+            sb.append(literals[i]);
+            String value = values.get(placeholders[i]);
+            sb.append(value != null ? value : "");
+        }
+        sb.append(literals[literals.length - 1]);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.model.MedicineLot;
+import com.dentalcare.repository.MedicineLotRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Per-lot quantities and expiries beneath Medicine.stock. Stock stays the sellable total; lots
+ * say which units to hand out first. Stock received before lots existed, or added by a plain
+ * adjustment, is not attached to a lot and is drawn only once every lot is empty.
+ */
+@Service
+public class MedicineLotService {
+    static final String OPENING_LOT = "OPENING";
+
+    private final MedicineLotRepository lotRepository;
+
+    public MedicineLotService(MedicineLotRepository lotRepository) {
+        this.lotRepository = lotRepository;
+    }
+
+    /** Units taken from one lot, or from untracked stock when lotId is null. */
+    public record Allocation(Long medicineId, Long lotId, int quantity) {}
+
+    public record Emptied(int quantity, boolean expired) {}
+
+    public List<MedicineLot> getAvailableLots(Long medicineId) {
+        return lotRepository.findByMedicineIdAndQuantityGreaterThanOrderByDateOfExpiryAscIdAsc(medicineId, 0);
+    }
+
+    /** Units per medicine held in expired lots; medicines without any are absent. */
+    public Map<Long, Integer> getExpiredQuantities(Collection<Long> medicineIds) {
+        Map<Long, Integer> expired = new HashMap<>();
+        for (Object[] row : lotRepository.sumExpiredQuantities(medicineIds)) {
+            expired.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return expired;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public MedicineLot addLot(Long medicineId, MedicineLot lot) {
+        lot.setId(null);
+        lot.setMedicineId(medicineId);
+        lot.setCreatedAt(null);
+        return lotRepository.save(lot);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public MedicineLot addOpeningLot(Medicine medicine) {
+        MedicineLot lot = new MedicineLot();
+        lot.setLotNumber(OPENING_LOT);
+        lot.setQuantity(medicine.getStock());
+        lot.setDateOfMfg(medicine.getDateOfMfg());
+        lot.setDateOfExpiry(medicine.getDateOfExpiry());
+        return addLot(medicine.getId(), lot);
+    }
+
+    /**
+     * Takes the requested units from each medicine's unexpired lots, soonest expiry first. The
+     * caller must already have decremented Medicine.stock, which serialises concurrent sales of the
+     * same medicine; the lots are locked in medicine/expiry order in a single query.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Allocation> allocate(SortedMap<Long, Integer> quantities) {
+        Map<Long, Integer> remaining = new HashMap<>(quantities);
+        List<Allocation> allocations = new ArrayList<>();
+        for (MedicineLot lot : lotRepository.lockAvailableLots(quantities.keySet())) {
+            int wanted = remaining.get(lot.getMedicineId());
+            if (wanted == 0) {
+                continue;
+            }
+            int taken = Math.min(wanted, lot.getQuantity());
+            lot.setQuantity(lot.getQuantity() - taken);
+            remaining.put(lot.getMedicineId(), wanted - taken);
+            allocations.add(new Allocation(lot.getMedicineId(), lot.getId(), taken));
+        }
+        remaining.forEach((medicineId, left) -> {
+            if (left > 0) {
+                allocations.add(new Allocation(medicineId, null, left));
+            }
+        });
+        return allocations;
+    }
+
+    /** Takes up to quantity units from the medicine's expired lots, oldest expiry first. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Allocation> allocateExpired(Long medicineId, int quantity) {
+        List<Allocation> allocations = new ArrayList<>();
+        int remaining = quantity;
+        for (MedicineLot lot : lotRepository.lockExpiredLots(medicineId)) {
+            if (remaining == 0) {
+                break;
+            }
+            int taken = Math.min(remaining, lot.getQuantity());
+            lot.setQuantity(lot.getQuantity() - taken);
+            remaining -= taken;
+            allocations.add(new Allocation(medicineId, lot.getId(), taken));
+        }
+        return allocations;
+    }
+
+    /** Empties a lot and returns how many units it held and whether they had expired. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Emptied empty(Long medicineId, Long lotId) {
+        MedicineLot lot = lotRepository.findByIdForUpdate(lotId)
+            .filter(l -> l.getMedicineId().equals(medicineId))
+            .orElseThrow(() -> new RuntimeException("Lot not found"));
+        int quantity = lot.getQuantity();
+        lot.setQuantity(0);
+        return new Emptied(quantity, isExpired(lot));
+    }
+
+    static boolean isExpired(MedicineLot lot) {
+        return lot.getDateOfExpiry() != null && lot.getDateOfExpiry().isBefore(LocalDate.now());
+    }
+}
@@ -1,11 +1,15 @@
 package com.dentalcare.service;
 
+import com.dentalcare.model.ChangeEvent;
 import com.dentalcare.model.Medicine;
+import com.dentalcare.model.StockMovement;
+import com.dentalcare.dto.MedicineSummary;
 import com.dentalcare.dto.PageRequest;
 import com.dentalcare.dto.PageResponse;
 import com.dentalcare.repository.MedicineRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.time.LocalDateTime;
@@ -13,13 +17,25 @@ import java.time.LocalDateTime;
 @Service
 public class MedicineService {
     private final MedicineRepository medicineRepository;
+    private final StockReservationService stockReservationService;
+    private final StockLedgerService stockLedgerService;
+    private final PricingService pricingService;
+    private final ChangeFeedService changeFeedService;
     
-    public MedicineService(MedicineRepository medicineRepository) {
+    public MedicineService(MedicineRepository medicineRepository,
+                           StockReservationService stockReservationService,
+                           StockLedgerService stockLedgerService,
+                           PricingService pricingService,
+                           ChangeFeedService changeFeedService) {
         this.medicineRepository = medicineRepository;
+        this.stockReservationService = stockReservationService;
+        this.stockLedgerService = stockLedgerService;
+        this.pricingService = pricingService;
+        this.changeFeedService = changeFeedService;
     }
     
-    public PageResponse<Medicine> getAllMedicines(PageRequest pageRequest) {
-        Page<Medicine> page = medicineRepository.findMedicinesWithSearch(
+    public PageResponse<MedicineSummary> getAllMedicines(PageRequest pageRequest) {
+        Page<MedicineSummary> page = medicineRepository.findMedicinesWithSearch(
             pageRequest.getSearch(), 
             pageRequest.toSpringPageRequest()
         );
@@ -30,7 +46,7 @@ public class MedicineService {
         return medicineRepository.findAll();
     }
     
-    public List<Medicine> searchMedicines(String query) {
+    public List<MedicineSummary> searchMedicines(String query) {
         if (query == null || query.trim().isEmpty()) {
             return List.of(); // Return empty list for empty queries
         }
@@ -41,26 +57,46 @@ public class MedicineService {
         return medicineRepository.findById(id);
     }
     
+    @Transactional
     public Medicine createMedicine(Medicine medicine) {
         LocalDateTime now = LocalDateTime.now();
         medicine.setCreatedAt(now);
         medicine.setUpdatedAt(now);
-        return medicineRepository.save(medicine);
+        Medicine saved = medicineRepository.save(medicine);
+        stockLedgerService.recordOpeningStock(saved);
+        pricingService.medicinesChanged();
+        changeFeedService.record(ChangeEvent.MEDICINE, saved.getId(), ChangeEvent.INSERT);
+        return saved;
     }
     
+    // A changed stock figure becomes an adjustment movement applied as a delta, so an edit
+    // made while sales are running cannot overwrite their decrements
+    @Transactional
     public Optional<Medicine> updateMedicine(Long id, Medicine medicine) {
-        if (medicineRepository.existsById(id)) {
+        return medicineRepository.findById(id).map(existing -> {
+            int currentStock = existing.getStock();
+            int delta = medicine.getStock() != null ? medicine.getStock() - currentStock : 0;
             medicine.setId(id);
             medicine.setUpdatedAt(LocalDateTime.now());
             // Optionally, keep the original createdAt if needed
-            return Optional.of(medicineRepository.save(medicine));
-        }
-        return Optional.empty();
+            Medicine saved = medicineRepository.save(medicine);
+            if (delta != 0) {
+                stockLedgerService.applyMovement(id, StockMovement.ADJUSTMENT, delta, "Medicine edit");
+            }
+            saved.setStock(currentStock + delta);
+            pricingService.medicinesChanged();
+            changeFeedService.record(ChangeEvent.MEDICINE, id, ChangeEvent.UPDATE);
+            return saved;
+        });
     }
     
+    @Transactional
     public boolean deleteMedicine(Long id) {
         if (medicineRepository.existsById(id)) {
             medicineRepository.deleteById(id);
+            changeFeedService.record(ChangeEvent.MEDICINE, id, ChangeEvent.DELETE);
+            stockReservationService.evict(id);
+            pricingService.medicinesChanged();
             return true;
         }
         return false;
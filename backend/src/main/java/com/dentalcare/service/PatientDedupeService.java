@@ -0,0 +1,368 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.model.Patient;
+import com.dentalcare.model.PatientDuplicate;
+import com.dentalcare.repository.PatientDuplicateRepository;
+import com.dentalcare.util.Soundex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds likely duplicate patients, e.g. the same person registered at two branches. Patients
+ * are grouped into blocks, first by blocking key (Soundex of the last name plus date of birth)
+ * and then by E.164 phone, and only pairs inside a block are compared, so a full scan is one
+ * sorted pass over the table instead of comparing every pair. New and edited patients are
+ * checked against their own blocks as they are saved.
+ *
+ * Pairs are scored on matching fields and stored for review; nothing is merged automatically.
+ * Merging moves appointments, payments and prescriptions to the surviving patient with
+ * set-based updates; treatments hang off appointments and follow them.
+ */
+@Service
+public class PatientDedupeService {
+    private static final Logger log = LoggerFactory.getLogger(PatientDedupeService.class);
+
+    private static final String PATIENT_COLUMNS = "id, first_name, last_name, email, phone_e164, date_of_birth";
+    private static final String INSERT_CANDIDATE_SQL =
+        "INSERT INTO patient_duplicates (patient_id, duplicate_id, score, reasons, status, created_at) " +
+        "VALUES (?, ?, ?, ?, '" + PatientDuplicate.PENDING + "', now()) ON CONFLICT (patient_id, duplicate_id) DO NOTHING";
+    // Tables whose rows belong to a patient, with the change feed type for each and the
+    // assignment that re-points a row at the survivor k, including any copy of its name
+    private static final String[][] PATIENT_TABLES = {
+        { "appointments", ChangeEvent.APPOINTMENT, "patient_id = k.id, patient_name = k.first_name || ' ' || k.last_name" },
+        { "amounts", ChangeEvent.AMOUNT, "patient_id = k.id" },
+        { "prescriptions", ChangeEvent.PRESCRIPTION, "patient_id = k.id, patient_name = k.first_name || ' ' || k.last_name" },
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientDuplicateRepository duplicateRepository;
+    private final ChangeFeedService changeFeedService;
+    private final int minScore;
+    private final int maxBlockSize;
+    private final int batchSize;
+    private final AtomicBoolean scanning = new AtomicBoolean();
+
+    public PatientDedupeService(
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        PatientDuplicateRepository duplicateRepository,
+        ChangeFeedService changeFeedService,
+        @Value("${dedupe.min-score:7}") int minScore,
+        @Value("${dedupe.max-block-size:50}") int maxBlockSize,
+        @Value("${dedupe.batch-size:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.duplicateRepository = duplicateRepository;
+        this.changeFeedService = changeFeedService;
+        this.minScore = minScore;
+        this.maxBlockSize = maxBlockSize;
+        this.batchSize = batchSize;
+    }
+
+    public static String blockingKey(String lastName, LocalDate dateOfBirth) {
+        String code = Soundex.encode(lastName);
+        return code.isEmpty() || dateOfBirth == null ? null : code + ":" + dateOfBirth;
+    }
+
+    public Page<PatientDuplicate> getCandidates(String status, int page, int size) {
+        return duplicateRepository.findByStatusOrderByScoreDescIdAsc(status, PageRequest.of(page, size));
+    }
+
+    /** Compares a just-saved patient with the rest of its blocks. Runs in the caller's transaction. */
+    public int checkPatient(Patient patient) {
+        if (patient.getBlockingKey() == null && patient.getPhoneE164() == null) {
+            return 0;
+        }
+        Candidate self = new Candidate(patient.getId(), patient.getFirstName(), patient.getLastName(),
+            patient.getEmail(), patient.getPhoneE164(), patient.getDateOfBirth());
+        List<Candidate> others = jdbcTemplate.query(
+            "SELECT " + PATIENT_COLUMNS + " FROM patients WHERE (blocking_key = ? OR phone_e164 = ?) AND id <> ? LIMIT ?",
+            (rs, rowNum) -> candidate(rs), patient.getBlockingKey(), patient.getPhoneE164(), patient.getId(), maxBlockSize);
+        List<Object[]> pairs = new ArrayList<>();
+        for (Candidate other : others) {
+            compare(self, other, pairs);
+        }
+        return insertPairs(pairs);
+    }
+
+    @Scheduled(cron = "${dedupe.scan-cron:0 30 2 * * *}")
+    public void scheduledScan() {
+        try {
+            scanAll();
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled duplicate scan: {}", e.getMessage());
+        }
+    }
+
+    /** Full scan over every block. Returns the number of new candidate pairs. */
+    public int scanAll() {
+        if (!scanning.compareAndSet(false, true)) {
+            throw new IllegalStateException("A duplicate scan is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int found = transactionTemplate.execute(status ->
+                scanBlocks("blocking_key", "blocking_key IS NOT NULL") + scanBlocks("phone_e164", "phone_e164 IS NOT NULL"));
+            log.info("Duplicate scan found {} new candidate pairs in {} ms", found, System.currentTimeMillis() - started);
+            return found;
+        } finally {
+            scanning.set(false);
+        }
+    }
+
+    /**
+     * Scans only the blocks containing the patients returned by idSql, e.g. after a bulk
+     * import. Runs in the caller's transaction.
+     */
+    public int scanBlocksOf(String idSql) {
+        return scanBlocks("blocking_key", "blocking_key IN (SELECT blocking_key FROM patients WHERE id IN (" + idSql + "))")
+            + scanBlocks("phone_e164", "phone_e164 IN (SELECT phone_e164 FROM patients WHERE id IN (" + idSql + "))");
+    }
+
+    // One pass over the patients in the filter, sorted by the block column, comparing pairs within each block
+    private int scanBlocks(String column, String filterSql) {
+        String sql = "SELECT " + column + " AS block_key, " + PATIENT_COLUMNS + " FROM patients WHERE " + filterSql +
+            " ORDER BY " + column + ", id";
+        List<Object[]> pairs = new ArrayList<>();
+        int[] found = new int[2];
+        List<Candidate> block = new ArrayList<>();
+        String[] currentKey = new String[1];
+        Runnable closeBlock = () -> {
+            if (block.size() > maxBlockSize) {
+                // A clinic or agency number shared by many patients says nothing about identity
+                found[1]++;
+            } else {
+                for (int i = 0; i < block.size(); i++) {
+                    for (int j = i + 1; j < block.size(); j++) {
+                        compare(block.get(i), block.get(j), pairs);
+                    }
+                }
+            }
+            block.clear();
+            if (pairs.size() >= batchSize) {
+                found[0] += insertPairs(pairs);
+                pairs.clear();
+            }
+        };
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(sql);
+            statement.setFetchSize(batchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            String key = rs.getString("block_key");
+            if (!key.equals(currentKey[0])) {
+                closeBlock.run();
+                currentKey[0] = key;
+            }
+            block.add(candidate(rs));
+        });
+        closeBlock.run();
+        found[0] += insertPairs(pairs);
+        if (found[1] > 0) {
+            log.info("Skipped {} {} blocks larger than {} patients", found[1], column, maxBlockSize);
+        }
+        return found[0];
+    }
+
+    // Adds the pair to pairs when its score reaches the threshold
+    private void compare(Candidate a, Candidate b, List<Object[]> pairs) {
+        int score = 0;
+        List<String> reasons = new ArrayList<>(5);
+        if (a.email != null && a.email.equals(b.email)) {
+            score += 4;
+            reasons.add("email");
+        }
+        if (a.firstNameCode.length() > 0 && a.firstNameCode.equals(b.firstNameCode)) {
+            score += 3;
+            reasons.add("first_name");
+        }
+        if (a.lastNameCode.length() > 0 && a.lastNameCode.equals(b.lastNameCode)) {
+            score += 2;
+            reasons.add("last_name");
+        }
+        if (a.dateOfBirth != null && a.dateOfBirth.equals(b.dateOfBirth)) {
+            score += 2;
+            reasons.add("date_of_birth");
+        }
+        if (a.phoneE164 != null && a.phoneE164.equals(b.phoneE164)) {
+            score += 2;
+            reasons.add("phone");
+        }
+        if (score >= minScore) {
+            pairs.add(new Object[] { Math.min(a.id, b.id), Math.max(a.id, b.id), score, String.join(",", reasons) });
+        }
+    }
+
+    private int insertPairs(List<Object[]> pairs) {
+        if (pairs.isEmpty()) {
+            return 0;
+        }
+        int inserted = 0;
+        for (int count : jdbcTemplate.batchUpdate(INSERT_CANDIDATE_SQL, pairs)) {
+            inserted += Math.max(count, 0);
+        }
+        return inserted;
+    }
+
+    /**
+     * Merges the candidate pair into survivorId, which defaults to the earlier registration.
+     * Returns the number of rows moved per table, or empty if the candidate does not exist.
+     */
+    @Transactional
+    public Optional<Map<String, Object>> merge(Long candidateId, Long survivorId) {
+        Optional<PatientDuplicate> found = duplicateRepository.findById(candidateId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        PatientDuplicate candidate = found.get();
+        if (!PatientDuplicate.PENDING.equals(candidate.getStatus())) {
+            throw new IllegalStateException("Candidate is already " + candidate.getStatus());
+        }
+        long keep = survivorId != null ? survivorId : candidate.getPatientId();
+        if (keep != candidate.getPatientId() && keep != candidate.getDuplicateId()) {
+            throw new IllegalArgumentException("Survivor must be one of the two patients");
+        }
+        long drop = keep == candidate.getPatientId() ? candidate.getDuplicateId() : candidate.getPatientId();
+
+        // Lock both patients in id order so concurrent merges cannot deadlock
+        List<Long> locked = jdbcTemplate.queryForList(
+            "SELECT id FROM patients WHERE id IN (?, ?) ORDER BY id FOR UPDATE", Long.class, keep, drop);
+        if (locked.size() < 2) {
+            throw new IllegalStateException("One of the patients no longer exists");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("survivorId", keep);
+        result.put("mergedId", drop);
+        for (String[] table : PATIENT_TABLES) {
+            changeFeedService.recordAll(table[1], ChangeEvent.UPDATE,
+                "SELECT id FROM " + table[0] + " WHERE patient_id = " + drop);
+            result.put(table[0], jdbcTemplate.update(
+                "UPDATE " + table[0] + " t SET " + table[2] + " FROM patients k WHERE k.id = ? AND t.patient_id = ?", keep, drop));
+        }
+
+        // Ledger entries move as they are; balance_after on them stays as it was when posted
+        result.put("ledgerEntries", jdbcTemplate.update("UPDATE patient_ledger SET patient_id = ? WHERE patient_id = ?", keep, drop));
+
+        // Keep whatever the survivor is missing from the other record
+        jdbcTemplate.update(
+            "UPDATE patients k SET medical_history = COALESCE(k.medical_history, d.medical_history), " +
+            "insurance_info = COALESCE(k.insurance_info, d.insurance_info), " +
+            "last_visit = GREATEST(k.last_visit, d.last_visit), visit_count = k.visit_count + d.visit_count, " +
+            "lifetime_spend = k.lifetime_spend + d.lifetime_spend, " +
+            "outstanding_balance = k.outstanding_balance + d.outstanding_balance, created_at = LEAST(k.created_at, d.created_at), " +
+            "updated_at = now() FROM patients d WHERE k.id = ? AND d.id = ?", keep, drop);
+        jdbcTemplate.update("DELETE FROM patients WHERE id = ?", drop);
+
+        // Other open pairs with the removed patient are found again against the survivor on the next scan
+        jdbcTemplate.update(
+            "DELETE FROM patient_duplicates WHERE status = ? AND id <> ? AND (patient_id = ? OR duplicate_id = ?)",
+            PatientDuplicate.PENDING, candidateId, drop, drop);
+        candidate.setStatus(PatientDuplicate.MERGED);
+        candidate.setResolvedAt(LocalDateTime.now());
+        duplicateRepository.save(candidate);
+
+        changeFeedService.record(ChangeEvent.PATIENT, keep, ChangeEvent.UPDATE);
+        changeFeedService.record(ChangeEvent.PATIENT, drop, ChangeEvent.DELETE);
+        return Optional.of(result);
+    }
+
+    @Transactional
+    public Optional<PatientDuplicate> dismiss(Long candidateId) {
+        return duplicateRepository.findById(candidateId).map(candidate -> {
+            if (!PatientDuplicate.PENDING.equals(candidate.getStatus())) {
+                throw new IllegalStateException("Candidate is already " + candidate.getStatus());
+            }
+            candidate.setStatus(PatientDuplicate.DISMISSED);
+            candidate.setResolvedAt(LocalDateTime.now());
+            return duplicateRepository.save(candidate);
+        });
+    }
+
+    /** Fills blocking_key for patients saved before the column existed, in keyset batches. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillBlockingKeys() {
+        long afterId = 0;
+        int updated = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                "SELECT id, last_name, date_of_birth FROM patients WHERE blocking_key IS NULL AND id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[] { rs.getLong("id"), rs.getString("last_name"),
+                    rs.getObject("date_of_birth", LocalDate.class) },
+                afterId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                String key = blockingKey((String) row[1], (LocalDate) row[2]);
+                if (key != null) {
+                    args.add(new Object[] { key, row[0] });
+                }
+            }
+            jdbcTemplate.batchUpdate("UPDATE patients SET blocking_key = ? WHERE id = ?", args);
+            updated += args.size();
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        if (updated > 0) {
+            log.info("Backfilled blocking_key on {} patients", updated);
+        }
+    }
+
+    private static Candidate candidate(ResultSet rs) throws SQLException {
+        return new Candidate(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"),
+            rs.getString("email"), rs.getString("phone_e164"), rs.getObject("date_of_birth", LocalDate.class));
+    }
+
+    // Comparison fields, normalised once per row
+    private static final class Candidate {
+        final long id;
+        final String firstNameCode;
+        final String lastNameCode;
+        final String email;
+        final String phoneE164;
+        final LocalDate dateOfBirth;
+
+        Candidate(long id, String firstName, String lastName, String email, String phoneE164, LocalDate dateOfBirth) {
+            this.id = id;
+            this.firstNameCode = Soundex.encode(firstName);
+            this.lastNameCode = Soundex.encode(lastName);
+            this.email = normalizeEmail(email);
+            this.phoneE164 = phoneE164;
+            this.dateOfBirth = dateOfBirth;
+        }
+
+        // Case and "+tag" suffixes do not change the mailbox
+        private static String normalizeEmail(String email) {
+            if (email == null) {
+                return null;
+            }
+            String lower = email.trim().toLowerCase();
+            int at = lower.indexOf('@');
+            int plus = lower.indexOf('+');
+            return plus > 0 && plus < at ? lower.substring(0, plus) + lower.substring(at) : lower;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.PatientImportJob;
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.util.CsvReader;
+import com.dentalcare.util.LruCache;
+import com.dentalcare.util.PhoneNumbers;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Bulk patient import from CSV. The file is parsed as a stream and every valid row is sent
+ * straight into a temporary staging table with COPY. Duplicates within the file and against
+ * existing patients are then removed with set-based SQL, and the remainder is inserted with a
+ * single INSERT ... SELECT. The whole load runs in one transaction, so a failed import leaves
+ * nothing behind. Rejected rows go to a downloadable error CSV.
+ *
+ * A row is a duplicate when its email matches, or when its E.164 phone and full name both
+ * match; families often share one phone number, so the phone alone is not enough.
+ * Imported patients do not get the welcome email. Near-duplicates that pass these exact checks
+ * are left to the duplicate scan, which runs over the imported patients' blocks at the end.
+ */
+@Service
+public class PatientImportService {
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+
+    // Columns in staging/COPY order; header names are matched ignoring case, spaces and underscores
+    private static final List<String> COLUMNS = List.of(
+        "first_name", "last_name", "email", "phone", "date_of_birth", "gender",
+        "address", "medical_history", "insurance_info");
+
+    private static final String CREATE_STAGING_SQL =
+        "CREATE TEMP TABLE patient_import_staging (" +
+        "line_no INTEGER PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255), email VARCHAR(255), " +
+        "phone VARCHAR(255), date_of_birth DATE, gender VARCHAR(255), address VARCHAR(255), " +
+        "medical_history TEXT, insurance_info VARCHAR(255), phone_e164 VARCHAR(255), blocking_key VARCHAR(255), patient_id BIGINT" +
+        ") ON COMMIT DROP";
+
+    private static final String COPY_SQL =
+        "COPY patient_import_staging (line_no, " + String.join(", ", COLUMNS) + ", phone_e164, blocking_key) " +
+        "FROM STDIN WITH (FORMAT csv)";
+
+    // Each statement deletes one class of duplicate and returns the rows for the error file
+    private static final String[][] DEDUPE_STEPS = {
+        { "Duplicate email in file",
+          "DELETE FROM patient_import_staging s USING (SELECT line_no, row_number() OVER " +
+          "(PARTITION BY email ORDER BY line_no) AS rn FROM patient_import_staging) d " +
+          "WHERE s.line_no = d.line_no AND d.rn > 1 RETURNING s.*" },
+        { "Duplicate phone and name in file",
+          "DELETE FROM patient_import_staging s USING (SELECT line_no, row_number() OVER " +
+          "(PARTITION BY phone_e164, lower(first_name), lower(last_name) ORDER BY line_no) AS rn " +
+          "FROM patient_import_staging) d WHERE s.line_no = d.line_no AND d.rn > 1 RETURNING s.*" },
+        { "Email already registered",
+          "DELETE FROM patient_import_staging s WHERE EXISTS " +
+          "(SELECT 1 FROM patients p WHERE lower(p.email) = s.email) RETURNING s.*" },
+        { "Patient with this phone and name already exists",
+          "DELETE FROM patient_import_staging s WHERE EXISTS (SELECT 1 FROM patients p " +
+          "WHERE p.phone_e164 = s.phone_e164 " +
+          "AND lower(p.first_name) = lower(s.first_name) AND lower(p.last_name) = lower(s.last_name)) RETURNING s.*" },
+    };
+
+    // ON CONFLICT covers a patient registered through the API while the import was running
+    private static final String INSERT_SQL =
+        "WITH inserted AS (" +
+        "INSERT INTO patients (first_name, last_name, email, phone, phone_e164, blocking_key, date_of_birth, gender, address, " +
+        "medical_history, insurance_info, created_at, updated_at) " +
+        "SELECT first_name, last_name, email, phone, phone_e164, blocking_key, date_of_birth, gender, address, " +
+        "medical_history, insurance_info, now(), now() FROM patient_import_staging ORDER BY line_no " +
+        "ON CONFLICT (email) DO NOTHING RETURNING id, email) " +
+        "UPDATE patient_import_staging s SET patient_id = inserted.id FROM inserted WHERE s.email = inserted.email";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeedService changeFeedService;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final PhoneNumbers phoneNumbers;
+    private final PatientDedupeService patientDedupeService;
+    // A job's error file lives as long as its entry
+    private final LruCache<String, PatientImportJob> jobs =
+        new LruCache<>(100, 24 * 3_600_000L, job -> deleteQuietly(job.getErrorFile()));
+
+    public PatientImportService(
+        JdbcTemplate jdbcTemplate,
+        DataSource dataSource,
+        TransactionTemplate transactionTemplate,
+        ChangeFeedService changeFeedService,
+        @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor,
+        PhoneNumbers phoneNumbers,
+        PatientDedupeService patientDedupeService
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+        this.changeFeedService = changeFeedService;
+        this.importExecutor = importExecutor;
+        this.phoneNumbers = phoneNumbers;
+        this.patientDedupeService = patientDedupeService;
+    }
+
+    public PatientImportJob start(MultipartFile file) throws IOException {
+        // The upload's temp file is removed when the request ends, so keep our own copy
+        Path input = Files.createTempFile("patient-import-", ".csv");
+        file.transferTo(input);
+        PatientImportJob job = new PatientImportJob(
+            UUID.randomUUID().toString(), file.getOriginalFilename(), Files.createTempFile("patient-import-errors-", ".csv"));
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, input));
+        } catch (TaskRejectedException e) {
+            // Too many imports queued; nothing has been read yet, so drop the job entirely
+            jobs.remove(job.getId());
+            deleteQuietly(input);
+            deleteQuietly(job.getErrorFile());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<PatientImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Scheduled(fixedDelayString = "${patient-import.purge-interval-ms:3600000}")
+    public void purgeExpiredJobs() {
+        jobs.removeExpired();
+    }
+
+    private void run(PatientImportJob job, Path input) {
+        try {
+            // The error file is closed, and so complete, before the job reports that it finished
+            try (BufferedWriter errors = Files.newBufferedWriter(job.getErrorFile(), StandardCharsets.UTF_8)) {
+                errors.write("line,reason,first_name,last_name,email,phone\n");
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        load(job, input, errors);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+            job.complete();
+        } catch (RuntimeException | IOException e) {
+            log.warn("Patient import {} failed", job.getId(), e);
+            job.fail(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } finally {
+            deleteQuietly(input);
+        }
+    }
+
+    private void load(PatientImportJob job, Path input, BufferedWriter errors) throws IOException, SQLException {
+        job.setStatus(PatientImportJob.LOADING);
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        // Same transaction-bound connection the JdbcTemplate statements use
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(input, StandardCharsets.UTF_8))) {
+            int[] positions = mapHeader(reader.next());
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                job.rowRead();
+                String[] values = new String[COLUMNS.size()];
+                for (int i = 0; i < values.length; i++) {
+                    String value = positions[i] >= 0 && positions[i] < record.size() ? record.get(positions[i]).trim() : "";
+                    values[i] = value.isEmpty() ? null : value;
+                }
+                String rejection = normalize(values);
+                if (rejection != null) {
+                    job.rowRejected();
+                    writeError(errors, reader.getRecordLine(), rejection, values[0], values[1], values[2], values[3]);
+                    continue;
+                }
+                appendCopyRow(buffer, reader.getRecordLine(), values);
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    flush(copy, buffer);
+                }
+            }
+            flush(copy, buffer);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+
+        job.setStatus(PatientImportJob.DEDUPLICATING);
+        for (String[] step : DEDUPE_STEPS) {
+            jdbcTemplate.query(step[1], rs -> {
+                job.rowDuplicate();
+                try {
+                    writeError(errors, rs.getInt("line_no"), step[0], rs.getString("first_name"),
+                        rs.getString("last_name"), rs.getString("email"), rs.getString("phone"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        job.setStatus(PatientImportJob.INSERTING);
+        jdbcTemplate.update(INSERT_SQL);
+        jdbcTemplate.query("SELECT * FROM patient_import_staging WHERE patient_id IS NULL", rs -> {
+            job.rowDuplicate();
+            try {
+                writeError(errors, rs.getInt("line_no"), "Email already registered", rs.getString("first_name"),
+                    rs.getString("last_name"), rs.getString("email"), rs.getString("phone"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        job.setRowsInserted(changeFeedService.recordAll(ChangeEvent.PATIENT, ChangeEvent.INSERT,
+            "SELECT patient_id AS id FROM patient_import_staging WHERE patient_id IS NOT NULL"));
+        patientDedupeService.scanBlocksOf("SELECT patient_id FROM patient_import_staging WHERE patient_id IS NOT NULL");
+    }
+
+    private int[] mapHeader(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        int[] positions = new int[COLUMNS.size()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase().replace("_", "").replace(" ", "");
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                if (COLUMNS.get(c).replace("_", "").equals(name)) {
+                    positions[c] = i;
+                }
+            }
+        }
+        for (int c = 0; c < 6; c++) {
+            if (positions[c] < 0) {
+                throw new IllegalArgumentException("Missing column: " + COLUMNS.get(c));
+            }
+        }
+        return positions;
+    }
+
+    // Validates and normalises the row in place; returns the rejection reason or null
+    private String normalize(String[] values) {
+        for (int c = 0; c < 6; c++) {
+            if (values[c] == null) {
+                return "Missing " + COLUMNS.get(c);
+            }
+        }
+        String email = values[2].toLowerCase();
+        if (email.length() > 255 || !email.matches("[^@\\s]+@[^@\\s]+\\.[^@\\s]+")) {
+            return "Invalid email";
+        }
+        values[2] = email;
+
+        if (phoneNumbers.toE164(values[3]) == null) {
+            return "Invalid phone";
+        }
+
+        LocalDate dateOfBirth = parseDate(values[4]);
+        if (dateOfBirth == null || dateOfBirth.isAfter(LocalDate.now())) {
+            return "Invalid date_of_birth";
+        }
+        values[4] = dateOfBirth.toString();
+
+        String gender = values[5].toLowerCase();
+        values[5] = switch (gender) {
+            case "m", "male" -> "male";
+            case "f", "female" -> "female";
+            default -> "other";
+        };
+        if (values[6] == null) {
+            values[6] = "";
+        }
+        for (int c = 0; c < values.length; c++) {
+            if (c != 7 && values[c] != null && values[c].length() > 255) {
+                return COLUMNS.get(c) + " is too long";
+            }
+        }
+        return null;
+    }
+
+    private LocalDate parseDate(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    private void appendCopyRow(StringBuilder buffer, int line, String[] values) {
+        buffer.append(line);
+        for (String value : values) {
+            buffer.append(',');
+            appendCsv(buffer, value);
+        }
+        buffer.append(',');
+        appendCsv(buffer, phoneNumbers.toE164(values[3]));
+        buffer.append(',');
+        appendCsv(buffer, PatientDedupeService.blockingKey(values[1], LocalDate.parse(values[4])));
+        buffer.append('\n');
+    }
+
+    private void flush(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (!buffer.isEmpty()) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private void writeError(BufferedWriter errors, int line, String reason, String... fields) throws IOException {
+        StringBuilder row = new StringBuilder().append(line).append(',');
+        appendCsv(row, reason);
+        for (String field : fields) {
+            row.append(',');
+            appendCsv(row, field);
+        }
+        errors.write(row.append('\n').toString());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    // Quoted values are never NULL for COPY csv, so an empty string stays empty and null stays NULL
+    private static void appendCsv(StringBuilder buffer, String value) {
+        if (value != null) {
+            buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+}
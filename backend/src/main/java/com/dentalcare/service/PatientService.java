@@ -1,30 +1,46 @@
 package com.dentalcare.service;
 
+import com.dentalcare.model.ChangeEvent;
 import com.dentalcare.model.Patient;
 import com.dentalcare.dto.PageRequest;
 import com.dentalcare.dto.PageResponse;
+import com.dentalcare.dto.PatientSummary;
 import com.dentalcare.repository.PatientRepository;
+import com.dentalcare.util.PhoneNumbers;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class PatientService {
     private final PatientRepository patientRepository;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
+    private final ChangeFeedService changeFeedService;
+    private final PhoneNumbers phoneNumbers;
+    private final PatientDedupeService patientDedupeService;
 
-    public PatientService(PatientRepository patientRepository, JavaMailSender mailSender) {
+    public PatientService(PatientRepository patientRepository,
+                          EmailOutboxService emailOutboxService,
+                          ChangeFeedService changeFeedService,
+                          PhoneNumbers phoneNumbers,
+                          PatientDedupeService patientDedupeService) {
         this.patientRepository = patientRepository;
-        this.mailSender = mailSender;
+        this.emailOutboxService = emailOutboxService;
+        this.changeFeedService = changeFeedService;
+        this.phoneNumbers = phoneNumbers;
+        this.patientDedupeService = patientDedupeService;
     }
 
-    public PageResponse<Patient> getAllPatients(PageRequest pageRequest) {
-        Page<Patient> page = patientRepository.findPatientsWithSearch(
+    public PageResponse<PatientSummary> getAllPatients(PageRequest pageRequest, Integer minVisits, LocalDate lastVisitBefore) {
+        Page<PatientSummary> page = patientRepository.findPatientsWithSearch(
             pageRequest.getSearch(), 
+            phoneNumbers.toE164(pageRequest.getSearch()),
+            minVisits,
+            lastVisitBefore != null ? lastVisitBefore.atStartOfDay() : null,
             pageRequest.toSpringPageRequest()
         );
         return new PageResponse<>(page);
@@ -39,40 +55,58 @@ public class PatientService {
     }
 
     public Optional<Patient> getPatientByPhone(String phone) {
-        return patientRepository.findByPhone(phone);
+        String phoneE164 = phoneNumbers.toE164(phone);
+        return phoneE164 == null ? Optional.empty() : patientRepository.findFirstByPhoneE164OrderByIdAsc(phoneE164);
     }
 
+    @Transactional
     public Patient createPatient(Patient patient) {
+        normalize(patient);
         Patient savedPatient = patientRepository.save(patient);
-        sendWelcomeEmail(savedPatient);
+        patientDedupeService.checkPatient(savedPatient);
+        queueWelcomeEmail(savedPatient);
+        changeFeedService.record(ChangeEvent.PATIENT, savedPatient.getId(), ChangeEvent.INSERT);
         return savedPatient;
     }
 
-    private void sendWelcomeEmail(Patient patient) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(patient.getEmail());
-        message.setSubject("Welcome to Dental Care");
-        message.setText("Welcome to Dental Care! Your Patient ID is " + patient.getId() + ".");
-        mailSender.send(message);
+    private void normalize(Patient patient) {
+        patient.setPhoneE164(phoneNumbers.toE164(patient.getPhone()));
+        patient.setBlockingKey(PatientDedupeService.blockingKey(patient.getLastName(), patient.getDateOfBirth()));
     }
 
+    // Delivered by the outbox worker after commit, so SMTP never sits on the request path
+    private void queueWelcomeEmail(Patient patient) {
+        emailOutboxService.enqueue(
+            patient.getEmail(),
+            "Welcome to Dental Care",
+            "Welcome to Dental Care! Your Patient ID is " + patient.getId() + "."
+        );
+    }
+
+    @Transactional
     public Optional<Patient> updatePatient(Long id, Patient patient) {
         if (patientRepository.existsById(id)) {
             patient.setId(id);
-            return Optional.of(patientRepository.save(patient));
+            normalize(patient);
+            Patient saved = patientRepository.save(patient);
+            patientDedupeService.checkPatient(saved);
+            changeFeedService.record(ChangeEvent.PATIENT, id, ChangeEvent.UPDATE);
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
 
+    @Transactional
     public boolean deletePatient(Long id) {
         if (patientRepository.existsById(id)) {
             patientRepository.deleteById(id);
+            changeFeedService.record(ChangeEvent.PATIENT, id, ChangeEvent.DELETE);
             return true;
         }
         return false;
     }
 
-    public List<Patient> searchPatients(String query) {
+    public List<PatientSummary> searchPatients(String query) {
         return patientRepository.searchByNameOrId(query);
     }
 }
\ No newline at end of file
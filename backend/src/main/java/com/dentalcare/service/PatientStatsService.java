@@ -0,0 +1,69 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Amount;
+import com.dentalcare.model.Appointment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the per-patient visit aggregates on the patients row (last_visit, visit_count,
+ * lifetime_spend) current as appointments and payments are written, so patient lists can sort
+ * and filter on them through an index. Each change is a single-row delta update in the
+ * writer's transaction; only un-completing a visit re-reads the patient's completed
+ * appointments, to find the new last visit.
+ */
+@Service
+public class PatientStatsService {
+    public static final String COMPLETED = "completed";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientStatsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies an appointment write. The previous patient and status are null for a new
+     * appointment, and saved is null for a deletion. The appointment change must already be
+     * flushed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appointmentChanged(Long previousPatientId, String previousStatus, Appointment saved) {
+        boolean wasCompleted = COMPLETED.equals(previousStatus);
+        boolean isCompleted = saved != null && COMPLETED.equals(saved.getStatus());
+        boolean samePatient = saved != null && saved.getPatientId().equals(previousPatientId);
+        if (wasCompleted && isCompleted && samePatient) {
+            // A completed visit moved in time can only move last_visit by recomputing it
+            recomputeLastVisit(previousPatientId);
+            return;
+        }
+        if (wasCompleted) {
+            jdbcTemplate.update("UPDATE patients SET visit_count = GREATEST(visit_count - 1, 0) WHERE id = ?",
+                previousPatientId);
+            recomputeLastVisit(previousPatientId);
+        }
+        if (isCompleted) {
+            jdbcTemplate.update(
+                "UPDATE patients SET visit_count = visit_count + 1, " +
+                "last_visit = GREATEST(last_visit, ?) WHERE id = ?",
+                LocalDateTime.of(saved.getDate(), saved.getStartTime()), saved.getPatientId());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentRecorded(Amount amount) {
+        jdbcTemplate.update("UPDATE patients SET lifetime_spend = lifetime_spend + ? WHERE id = ?",
+            amount.getAmount().toDecimal(), amount.getPatientId());
+    }
+
+    private void recomputeLastVisit(Long patientId) {
+        jdbcTemplate.update(
+            "UPDATE patients SET last_visit = (SELECT max(a.date + a.start_time) FROM appointments a " +
+            "WHERE a.patient_id = ? AND a.status = ?) WHERE id = ?",
+            patientId, COMPLETED, patientId);
+    }
+}
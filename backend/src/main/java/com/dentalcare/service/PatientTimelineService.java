@@ -0,0 +1,128 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.PageResponse;
+import com.dentalcare.dto.TimelineEntry;
+import com.dentalcare.model.Prescription;
+import com.dentalcare.repository.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A patient's appointments, treatments, prescriptions and payments as one newest-first stream.
+ * The four sources are queried in parallel, each already sorted and limited to what the
+ * requested page can need, then merged. Prescriptions come with their items in one fetch join.
+ * Only the newest MAX_DEPTH entries can be paged through, which bounds what any one source is
+ * asked for; later pages are clamped to the last reachable one.
+ */
+@Service
+public class PatientTimelineService {
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+        .comparing(TimelineEntry::getOccurredAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(TimelineEntry::getType)
+        .thenComparing(TimelineEntry::getId, Comparator.reverseOrder());
+    private static final int MAX_DEPTH = 1_000;
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final TreatmentRepository treatmentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final AmountRepository amountRepository;
+    private final ThreadPoolTaskExecutor queryExecutor;
+
+    public PatientTimelineService(
+        PatientRepository patientRepository,
+        AppointmentRepository appointmentRepository,
+        TreatmentRepository treatmentRepository,
+        PrescriptionRepository prescriptionRepository,
+        AmountRepository amountRepository,
+        @Qualifier("queryExecutor") ThreadPoolTaskExecutor queryExecutor
+    ) {
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.treatmentRepository = treatmentRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.amountRepository = amountRepository;
+        this.queryExecutor = queryExecutor;
+    }
+
+    public Optional<PageResponse<TimelineEntry>> getTimeline(Long patientId, int page, int size) {
+        if (!patientRepository.existsById(patientId)) {
+            return Optional.empty();
+        }
+        int safeSize = Math.min(Math.max(1, size), 100);
+        int maxPage = MAX_DEPTH / safeSize - 1;
+        int safePage = Math.min(Math.max(0, page), maxPage);
+        // Any entry on the requested page is among the first (page + 1) * size of its own source
+        int depth = (safePage + 1) * safeSize;
+
+        CompletableFuture<Page<TimelineEntry>> appointments = async(() -> appointmentRepository
+            .findByPatientId(patientId, newestFirst(depth, "date", "startTime", "id"))
+            .map(a -> new TimelineEntry(TimelineEntry.APPOINTMENT, a.getId(), a.getDate().atTime(a.getStartTime()), a)));
+        CompletableFuture<Page<TimelineEntry>> treatments = async(() -> treatmentRepository
+            .findByPatientId(patientId, newestFirst(depth, "createdAt", "id"))
+            .map(t -> new TimelineEntry(TimelineEntry.TREATMENT, t.getId(), t.getCreatedAt(), t)));
+        CompletableFuture<Page<TimelineEntry>> prescriptions = async(() -> prescriptionsWithItems(patientId, depth));
+        CompletableFuture<Page<TimelineEntry>> payments = async(() -> amountRepository
+            .findByPatientId(patientId, newestFirst(depth, "createdAt", "id"))
+            .map(a -> new TimelineEntry(TimelineEntry.PAYMENT, a.getId(), a.getCreatedAt(), a)));
+
+        List<Page<TimelineEntry>> sources;
+        try {
+            sources = Stream.of(appointments, treatments, prescriptions, payments).map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        long total = sources.stream().mapToLong(Page::getTotalElements).sum();
+        List<TimelineEntry> content = sources.stream()
+            .flatMap(source -> source.getContent().stream())
+            .sorted(NEWEST_FIRST)
+            .skip((long) safePage * safeSize)
+            .limit(safeSize)
+            .toList();
+
+        PageResponse<TimelineEntry> response = new PageResponse<>();
+        int totalPages = (int) Math.min((total + safeSize - 1) / safeSize, maxPage + 1);
+        response.setContent(content);
+        response.setPage(safePage);
+        response.setSize(safeSize);
+        response.setTotalElements(total);
+        response.setTotalPages(totalPages);
+        response.setFirst(safePage == 0);
+        response.setLast(safePage >= totalPages - 1);
+        response.setEmpty(content.isEmpty());
+        return Optional.of(response);
+    }
+
+    private Page<TimelineEntry> prescriptionsWithItems(Long patientId, int depth) {
+        Page<Long> ids = prescriptionRepository.findIdsByPatientId(patientId, newestFirst(depth, "createdAt", "id"));
+        Map<Long, Prescription> byId = ids.isEmpty() ? Map.of()
+            : prescriptionRepository.findWithItemsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Prescription::getId, Function.identity()));
+        return ids.map(id -> {
+            Prescription p = byId.get(id);
+            return new TimelineEntry(TimelineEntry.PRESCRIPTION, id, p.getCreatedAt(), p);
+        });
+    }
+
+    private static Pageable newestFirst(int depth, String... properties) {
+        return PageRequest.of(0, depth, Sort.by(Sort.Direction.DESC, properties));
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, queryExecutor);
+    }
+}
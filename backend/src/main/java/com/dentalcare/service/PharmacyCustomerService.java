@@ -1,24 +1,65 @@
-
 package com.dentalcare.service;
 
 import com.dentalcare.model.PharmacyCustomer;
 import com.dentalcare.repository.PharmacyCustomerRepository;
+import com.dentalcare.util.LruCache;
+import com.dentalcare.util.PhoneNumbers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
 
 @Service
 public class PharmacyCustomerService {
     private final PharmacyCustomerRepository pharmacyCustomerRepository;
+    private final PhoneNumbers phoneNumbers;
+    // Regulars come back to the counter many times a day; checkout looks the customer up again too
+    private final LruCache<String, PharmacyCustomer> byPhone;
     
-    public PharmacyCustomerService(PharmacyCustomerRepository pharmacyCustomerRepository) {
+    public PharmacyCustomerService(
+        PharmacyCustomerRepository pharmacyCustomerRepository,
+        PhoneNumbers phoneNumbers,
+        @Value("${pharmacy-customers.cache-size:500}") int cacheSize,
+        @Value("${pharmacy-customers.cache-ttl-seconds:600}") long cacheTtlSeconds
+    ) {
         this.pharmacyCustomerRepository = pharmacyCustomerRepository;
+        this.phoneNumbers = phoneNumbers;
+        this.byPhone = new LruCache<>(cacheSize, cacheTtlSeconds * 1000);
     }
     
     public Optional<PharmacyCustomer> getByPhone(String phone) {
-        return pharmacyCustomerRepository.findByPhone(phone);
+        String phoneE164 = phoneNumbers.toE164(phone);
+        if (phoneE164 == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byPhone.computeIfAbsent(phoneE164,
+            key -> pharmacyCustomerRepository.findByPhoneE164(key).orElse(null)));
     }
     
+    // phone_e164 is unique, so a number already on file is reported with its customer; the catch
+    // covers a second counter registering the same number between the lookup and the insert
     public PharmacyCustomer createCustomer(PharmacyCustomer customer) {
-        return pharmacyCustomerRepository.save(customer);
+        String phoneE164 = phoneNumbers.toE164(customer.getPhone());
+        customer.setPhoneE164(phoneE164);
+        if (phoneE164 != null) {
+            pharmacyCustomerRepository.findByPhoneE164(phoneE164).ifPresent(existing -> {
+                throw new DuplicateCustomerException(existing);
+            });
+        }
+        PharmacyCustomer saved;
+        try {
+            saved = pharmacyCustomerRepository.save(customer);
+        } catch (DataIntegrityViolationException e) {
+            if (phoneE164 == null) {
+                throw e;
+            }
+            throw pharmacyCustomerRepository.findByPhoneE164(phoneE164)
+                .map(DuplicateCustomerException::new)
+                .orElseThrow(() -> e);
+        }
+        if (saved.getPhoneE164() != null) {
+            byPhone.put(saved.getPhoneE164(), saved);
+        }
+        return saved;
     }
 }
@@ -1,32 +1,100 @@
 package com.dentalcare.service;
 
+import com.dentalcare.dto.PageRequest;
+import com.dentalcare.dto.PageResponse;
+import com.dentalcare.dto.PharmacySaleSummary;
+import com.dentalcare.dto.StockShortfall;
+import com.dentalcare.model.ChangeEvent;
 import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
 import com.dentalcare.model.Medicine;
 import com.dentalcare.repository.PharmacySaleRepository;
 import com.dentalcare.repository.MedicineRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PharmacySaleService {
     private final PharmacySaleRepository pharmacySaleRepository;
     private final MedicineRepository medicineRepository;
     private final PharmacyCustomerService pharmacyCustomerService;
+    private final ChangeFeedService changeFeedService;
+    private final StockReservationService stockReservationService;
+    private final StockLedgerService stockLedgerService;
+    private final MedicineLotService medicineLotService;
+    private final SalesLeaderboardService salesLeaderboardService;
+    private final PricingService pricingService;
+    private final AnalyticsStore analyticsStore;
     
     public PharmacySaleService(
         PharmacySaleRepository pharmacySaleRepository, 
         MedicineRepository medicineRepository,
-        PharmacyCustomerService pharmacyCustomerService
+        PharmacyCustomerService pharmacyCustomerService,
+        ChangeFeedService changeFeedService,
+        StockReservationService stockReservationService,
+        StockLedgerService stockLedgerService,
+        MedicineLotService medicineLotService,
+        SalesLeaderboardService salesLeaderboardService,
+        PricingService pricingService,
+        AnalyticsStore analyticsStore
     ) {
         this.pharmacySaleRepository = pharmacySaleRepository;
         this.medicineRepository = medicineRepository;
         this.pharmacyCustomerService = pharmacyCustomerService;
+        this.changeFeedService = changeFeedService;
+        this.stockReservationService = stockReservationService;
+        this.stockLedgerService = stockLedgerService;
+        this.medicineLotService = medicineLotService;
+        this.salesLeaderboardService = salesLeaderboardService;
+        this.pricingService = pricingService;
+        this.analyticsStore = analyticsStore;
     }
     
-    public List<PharmacySale> getAllSales() {
-        return pharmacySaleRepository.findAll();
+    // Newest first; the id tie-break keeps pages stable when several sales share a timestamp
+    private static final Sort SALE_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    public PageResponse<PharmacySaleSummary> getSaleSummaries(
+            LocalDate from, LocalDate to, Long customerId, int page, int size) {
+        return new PageResponse<>(pharmacySaleRepository.findSummaries(
+            startOf(from), startOf(to != null ? to.plusDays(1) : null), customerId, pageOf(page, size)));
+    }
+
+    // Pages over ids first, then loads that page's sales with their items in one fetch join,
+    // which avoids both the per-sale item queries and in-memory paging of a collection fetch
+    public PageResponse<PharmacySale> getSales(LocalDate from, LocalDate to, Long customerId, int page, int size) {
+        Page<Long> ids = pharmacySaleRepository.findIds(
+            startOf(from), startOf(to != null ? to.plusDays(1) : null), customerId, pageOf(page, size));
+        Map<Long, PharmacySale> byId = ids.isEmpty() ? Map.of()
+            : pharmacySaleRepository.findWithItemsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(PharmacySale::getId, Function.identity()));
+        List<PharmacySale> sales = ids.getContent().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageResponse<>(new PageImpl<>(sales, ids.getPageable(), ids.getTotalElements()));
+    }
+
+    private org.springframework.data.domain.PageRequest pageOf(int page, int size) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setSize(size);
+        return org.springframework.data.domain.PageRequest.of(pageRequest.getPage(), pageRequest.getSize(), SALE_ORDER);
+    }
+
+    private LocalDateTime startOf(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
     }
     
     public Optional<PharmacySale> getSaleById(Long id) {
@@ -35,42 +103,81 @@ public class PharmacySaleService {
     
     @Transactional
     public PharmacySale createSale(PharmacySale sale) {
+        return createSale(sale, null);
+    }
+    
+    @Transactional
+    public PharmacySale createSale(PharmacySale sale, String reservationId) {
         // Verify customer exists
         pharmacyCustomerService.getByPhone(sale.getCustomerPhone())
             .orElseThrow(() -> new RuntimeException("Customer not found"));
         
-        // Update medicine stock
-        sale.getItems().forEach(item -> {
-            Medicine medicine = medicineRepository.findById(item.getMedicineId())
-                .orElseThrow(() -> new RuntimeException("Medicine not found"));
-            
-            if (medicine.getStock() < item.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for " + medicine.getName());
-            }
-            
-            medicine.setStock(medicine.getStock() - item.getQuantity());
-            medicineRepository.save(medicine);
-        });
+        SortedMap<Long, Integer> quantities = toQuantities(sale.getItems());
+        holdReservation(reservationId, quantities);
+        decrementStock(quantities);
+        List<MedicineLotService.Allocation> allocations = medicineLotService.allocate(quantities);
         
-        // Round sale-level fields
-        sale.setSubtotal(roundTo2Decimals(sale.getSubtotal()));
-        sale.setSgst(roundTo2Decimals(sale.getSgst()));
-        sale.setCgst(roundTo2Decimals(sale.getCgst()));
-        sale.setDiscount(roundTo2Decimals(sale.getDiscount()));
-        sale.setTotal(roundTo2Decimals(sale.getTotal()));
+        // Prices, tax and totals come from the server's price table; client-sent values are ignored
+        pricingService.priceSale(sale);
 
-        // Round each item price fields
-        if (sale.getItems() != null) {
-            sale.getItems().forEach(item -> {
-                item.setUnitPrice(roundTo2Decimals(item.getUnitPrice()));
-                item.setTotalPrice(roundTo2Decimals(item.getTotalPrice()));
-            });
+        PharmacySale saved = pharmacySaleRepository.save(sale);
+        stockLedgerService.recordSale(saved.getId(), allocations);
+        salesLeaderboardService.recordSale(saved);
+        analyticsStore.saleRecorded(saved);
+        changeFeedService.record(ChangeEvent.PHARMACY_SALE, saved.getId(), ChangeEvent.INSERT);
+        return saved;
+    }
+    
+    private SortedMap<Long, Integer> toQuantities(List<PharmacySaleItem> items) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (PharmacySaleItem item : items) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for " + item.getMedicineName());
+            }
+            quantities.merge(item.getMedicineId(), item.getQuantity(), Integer::sum);
         }
-
-        return pharmacySaleRepository.save(sale);
+        return quantities;
     }
     
-    private double roundTo2Decimals(double value) {
-        return Math.round(value * 100.0) / 100.0;
+    // Holds the units in memory first so a sale cannot take stock held by another open cart.
+    // On commit the hold turns into an on-hand decrement; on rollback an ad hoc hold is released
+    // while a cart's own reservation is kept for the retry.
+    private void holdReservation(String reservationId, SortedMap<Long, Integer> quantities) {
+        String holdId = stockReservationService.holdForSale(reservationId, quantities);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    stockReservationService.saleCommitted(holdId, quantities);
+                } else if (!holdId.equals(reservationId)) {
+                    stockReservationService.release(holdId);
+                }
+            }
+        });
+    }
+    
+    // One conditional UPDATE per distinct medicine, sent as a single batch in id order.
+    // Any shortfall throws, rolling back the whole sale including the rows already decremented.
+    private void decrementStock(SortedMap<Long, Integer> quantities) {
+        List<Long> failedIds = medicineRepository.decrementStock(quantities);
+        if (failedIds.isEmpty()) {
+            quantities.keySet().forEach(id -> changeFeedService.record(ChangeEvent.MEDICINE, id, ChangeEvent.UPDATE));
+            return;
+        }
+
+        Map<Long, Medicine> medicines = medicineRepository.findAllById(failedIds).stream()
+            .collect(Collectors.toMap(Medicine::getId, Function.identity()));
+        Map<Long, Integer> expired = medicineLotService.getExpiredQuantities(failedIds);
+        List<StockShortfall> shortfalls = failedIds.stream()
+            .map(id -> {
+                Medicine medicine = medicines.get(id);
+                if (medicine == null) {
+                    throw new RuntimeException("Medicine not found: " + id);
+                }
+                return new StockShortfall(id, medicine.getName(), quantities.get(id),
+                    medicine.getStock() - expired.getOrDefault(id, 0));
+            })
+            .toList();
+        throw new InsufficientStockException(shortfalls);
     }
 }
\ No newline at end of file
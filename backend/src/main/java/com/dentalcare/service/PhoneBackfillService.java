@@ -0,0 +1,82 @@
+package com.dentalcare.service;
+
+import com.dentalcare.util.PhoneNumbers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills phone_e164 for rows written before the column existed, or by tools that bypass the
+ * services. Runs at startup in keyset-paged batches, each its own statement batch, so it never
+ * holds long locks. Pharmacy customers whose canonical number is already taken are left blank
+ * and logged, since that column is unique.
+ */
+@Service
+public class PhoneBackfillService {
+    private static final Logger log = LoggerFactory.getLogger(PhoneBackfillService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PhoneNumbers phoneNumbers;
+    private final int batchSize;
+
+    public PhoneBackfillService(
+        JdbcTemplate jdbcTemplate,
+        PhoneNumbers phoneNumbers,
+        @Value("${phone.backfill-batch-size:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.phoneNumbers = phoneNumbers;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfill("patients", "UPDATE patients SET phone_e164 = ? WHERE id = ?", false);
+        backfill("pharmacy_customers", "UPDATE pharmacy_customers SET phone_e164 = ? WHERE id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM pharmacy_customers c WHERE c.phone_e164 = ?)", true);
+    }
+
+    // unique: updateSql guards the unique column and takes the number a second time to check it is free
+    private void backfill(String table, String updateSql, boolean unique) {
+        long afterId = 0;
+        int updated = 0;
+        int skipped = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                "SELECT id, phone FROM " + table + " WHERE phone_e164 IS NULL AND id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[] { rs.getLong("id"), rs.getString("phone") },
+                afterId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                String phoneE164 = phoneNumbers.toE164((String) row[1]);
+                if (phoneE164 == null) {
+                    skipped++;
+                } else {
+                    args.add(unique ? new Object[] { phoneE164, row[0], phoneE164 } : new Object[] { phoneE164, row[0] });
+                }
+            }
+            for (int count : jdbcTemplate.batchUpdate(updateSql, args)) {
+                if (count > 0) {
+                    updated++;
+                } else {
+                    skipped++;
+                }
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        if (updated > 0 || skipped > 0) {
+            log.info("Backfilled phone_e164 on {} {} rows; {} left blank (invalid or duplicate number)",
+                updated, table, skipped);
+        }
+    }
+}
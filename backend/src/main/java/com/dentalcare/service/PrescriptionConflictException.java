@@ -0,0 +1,20 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.InteractionWarning;
+
+import java.util.List;
+
+public class PrescriptionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<InteractionWarning> warnings;
+
+    public PrescriptionConflictException(List<InteractionWarning> warnings) {
+        super("Prescription has major interactions or contraindications");
+        this.warnings = warnings;
+    }
+
+    public List<InteractionWarning> getWarnings() {
+        return warnings;
+    }
+}
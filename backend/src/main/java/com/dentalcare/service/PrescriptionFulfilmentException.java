@@ -0,0 +1,23 @@
+package com.dentalcare.service;
+
+/** A prescription that cannot be dispensed as asked; see {@link Reason}. */
+public class PrescriptionFulfilmentException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        ALREADY_FULFILLED,
+        NOTHING_TO_DISPENSE,
+        CUSTOMER_PHONE_REQUIRED
+    }
+
+    private final Reason reason;
+
+    public PrescriptionFulfilmentException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,163 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.PrescriptionFulfilmentRequest;
+import com.dentalcare.dto.StockShortfall;
+import com.dentalcare.model.*;
+import com.dentalcare.repository.MedicineRepository;
+import com.dentalcare.repository.PatientRepository;
+import com.dentalcare.repository.PharmacySaleRepository;
+import com.dentalcare.repository.PrescriptionRepository;
+import com.dentalcare.service.PrescriptionFulfilmentException.Reason;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a prescription into a pharmacy sale in one request. Prices and stock for every line come
+ * from a single medicine lookup, and the sale then goes through the normal checkout path, so the
+ * stock decrement, ledger and change feed behave exactly as for a counter sale.
+ */
+@Service
+public class PrescriptionFulfilmentService {
+    // V9's partial unique index allowing one sale per prescription
+    private static final String PRESCRIPTION_SALE_INDEX = "uk_pharmacy_sales_prescription_id";
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final PatientRepository patientRepository;
+    private final MedicineRepository medicineRepository;
+    private final PharmacySaleRepository pharmacySaleRepository;
+    private final PharmacyCustomerService pharmacyCustomerService;
+    private final PharmacySaleService pharmacySaleService;
+    private final MedicineLotService medicineLotService;
+
+    public PrescriptionFulfilmentService(
+        PrescriptionRepository prescriptionRepository,
+        PatientRepository patientRepository,
+        MedicineRepository medicineRepository,
+        PharmacySaleRepository pharmacySaleRepository,
+        PharmacyCustomerService pharmacyCustomerService,
+        PharmacySaleService pharmacySaleService,
+        MedicineLotService medicineLotService
+    ) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.patientRepository = patientRepository;
+        this.medicineRepository = medicineRepository;
+        this.pharmacySaleRepository = pharmacySaleRepository;
+        this.pharmacyCustomerService = pharmacyCustomerService;
+        this.pharmacySaleService = pharmacySaleService;
+        this.medicineLotService = medicineLotService;
+    }
+
+    @Transactional
+    public Optional<PharmacySale> fulfil(Long prescriptionId, PrescriptionFulfilmentRequest request) {
+        Optional<Prescription> found = prescriptionRepository.findById(prescriptionId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Prescription prescription = found.get();
+        if (pharmacySaleRepository.existsByPrescriptionId(prescriptionId)) {
+            throw alreadyFulfilled();
+        }
+
+        Map<Long, Integer> quantities = request.getQuantities() != null ? request.getQuantities() : Map.of();
+        List<PrescriptionItem> lines = prescription.getItems().stream()
+            .filter(item -> quantities.getOrDefault(item.getId(), 0) > 0)
+            .toList();
+        if (lines.isEmpty()) {
+            throw new PrescriptionFulfilmentException(Reason.NOTHING_TO_DISPENSE, "Nothing to dispense");
+        }
+
+        Map<Long, Medicine> medicines = medicineRepository.findAllById(
+                lines.stream().map(PrescriptionItem::getMedicineId).collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Medicine::getId, Function.identity()));
+        checkStock(lines, quantities, medicines);
+
+        PharmacySale sale = new PharmacySale();
+        PharmacyCustomer customer = resolveCustomer(prescription, request.getCustomerPhone());
+        sale.setCustomerId(customer.getId());
+        sale.setCustomerName(customer.getName());
+        sale.setCustomerPhone(customer.getPhone());
+        sale.setPrescriptionId(prescriptionId);
+
+        // createSale prices the lines and computes tax and the sale total
+        List<PharmacySaleItem> items = new ArrayList<>(lines.size());
+        for (PrescriptionItem line : lines) {
+            Medicine medicine = medicines.get(line.getMedicineId());
+            int quantity = quantities.get(line.getId());
+            PharmacySaleItem item = new PharmacySaleItem();
+            item.setMedicineId(medicine.getId());
+            item.setMedicineName(medicine.getName());
+            item.setQuantity(quantity);
+            items.add(item);
+        }
+        sale.setItems(items);
+        sale.setDiscount(request.getDiscount());
+
+        try {
+            return Optional.of(pharmacySaleService.createSale(sale, request.getReservationId()));
+        } catch (DataIntegrityViolationException e) {
+            // Another fulfil of the same prescription committed after the check above
+            if (String.valueOf(e.getMostSpecificCause().getMessage()).contains(PRESCRIPTION_SALE_INDEX)) {
+                throw alreadyFulfilled();
+            }
+            throw e;
+        }
+    }
+
+    private static PrescriptionFulfilmentException alreadyFulfilled() {
+        return new PrescriptionFulfilmentException(Reason.ALREADY_FULFILLED, "Prescription has already been fulfilled");
+    }
+
+    // Reports every missing medicine and shortfall at once; the conditional decrement in
+    // createSale still guards against stock sold between this check and the sale
+    private void checkStock(List<PrescriptionItem> lines, Map<Long, Integer> quantities, Map<Long, Medicine> medicines) {
+        Map<Long, Integer> requested = new TreeMap<>();
+        for (PrescriptionItem line : lines) {
+            if (!medicines.containsKey(line.getMedicineId())) {
+                throw new RuntimeException("Medicine not found: " + line.getMedicineName());
+            }
+            requested.merge(line.getMedicineId(), quantities.get(line.getId()), Integer::sum);
+        }
+        // Units in expired lots are not sellable
+        Map<Long, Integer> expired = medicineLotService.getExpiredQuantities(requested.keySet());
+        List<StockShortfall> shortfalls = requested.entrySet().stream()
+            .filter(e -> sellable(medicines.get(e.getKey()), expired) < e.getValue())
+            .map(e -> {
+                Medicine medicine = medicines.get(e.getKey());
+                return new StockShortfall(medicine.getId(), medicine.getName(), e.getValue(),
+                    sellable(medicine, expired));
+            })
+            .toList();
+        if (!shortfalls.isEmpty()) {
+            throw new InsufficientStockException(shortfalls);
+        }
+    }
+
+    private static int sellable(Medicine medicine, Map<Long, Integer> expired) {
+        return medicine.getStock() - expired.getOrDefault(medicine.getId(), 0);
+    }
+
+    private PharmacyCustomer resolveCustomer(Prescription prescription, String phone) {
+        Patient patient = patientRepository.findById(prescription.getPatientId()).orElse(null);
+        String customerPhone = phone != null && !phone.isBlank() ? phone
+            : patient != null ? patient.getPhone() : null;
+        if (customerPhone == null) {
+            throw new PrescriptionFulfilmentException(Reason.CUSTOMER_PHONE_REQUIRED, "Customer phone is required");
+        }
+        return pharmacyCustomerService.getByPhone(customerPhone).orElseGet(() -> {
+            PharmacyCustomer customer = new PharmacyCustomer();
+            customer.setName(prescription.getPatientName());
+            customer.setPhone(customerPhone);
+            if (patient != null) {
+                customer.setEmail(patient.getEmail());
+                customer.setAddress(patient.getAddress());
+            }
+            return pharmacyCustomerService.createCustomer(customer);
+        });
+    }
+}
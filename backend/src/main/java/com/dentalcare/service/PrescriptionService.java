@@ -1,17 +1,30 @@
 package com.dentalcare.service;
 
+import com.dentalcare.dto.InteractionWarning;
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.model.Patient;
 import com.dentalcare.model.Prescription;
+import com.dentalcare.model.PrescriptionItem;
+import com.dentalcare.repository.PatientRepository;
 import com.dentalcare.repository.PrescriptionRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class PrescriptionService {
     private final PrescriptionRepository prescriptionRepository;
+    private final ChangeFeedService changeFeedService;
+    private final InteractionService interactionService;
+    private final PatientRepository patientRepository;
     
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository, ChangeFeedService changeFeedService,
+                               InteractionService interactionService, PatientRepository patientRepository) {
         this.prescriptionRepository = prescriptionRepository;
+        this.changeFeedService = changeFeedService;
+        this.interactionService = interactionService;
+        this.patientRepository = patientRepository;
     }
     
     public List<Prescription> getAllPrescriptions() {
@@ -26,21 +39,50 @@ public class PrescriptionService {
         return prescriptionRepository.findById(id);
     }
     
-    public Prescription createPrescription(Prescription prescription) {
-        return prescriptionRepository.save(prescription);
+    public List<InteractionWarning> checkPrescription(Prescription prescription) {
+        List<Long> medicineIds = prescription.getItems() == null ? List.of()
+            : prescription.getItems().stream().map(PrescriptionItem::getMedicineId).toList();
+        String medicalHistory = prescription.getPatientId() == null ? null
+            : patientRepository.findById(prescription.getPatientId()).map(Patient::getMedicalHistory).orElse(null);
+        return interactionService.check(medicineIds, medicalHistory);
     }
     
-    public Optional<Prescription> updatePrescription(Long id, Prescription prescription) {
+    // Major findings block the save unless the prescriber explicitly overrides them
+    private void requireNoMajorWarnings(Prescription prescription, boolean override) {
+        if (override) {
+            return;
+        }
+        List<InteractionWarning> warnings = checkPrescription(prescription);
+        if (warnings.stream().anyMatch(InteractionService::isMajor)) {
+            throw new PrescriptionConflictException(warnings);
+        }
+    }
+    
+    @Transactional
+    public Prescription createPrescription(Prescription prescription, boolean override) {
+        requireNoMajorWarnings(prescription, override);
+        Prescription saved = prescriptionRepository.save(prescription);
+        changeFeedService.record(ChangeEvent.PRESCRIPTION, saved.getId(), ChangeEvent.INSERT);
+        return saved;
+    }
+    
+    @Transactional
+    public Optional<Prescription> updatePrescription(Long id, Prescription prescription, boolean override) {
         if (prescriptionRepository.existsById(id)) {
+            requireNoMajorWarnings(prescription, override);
             prescription.setId(id);
-            return Optional.of(prescriptionRepository.save(prescription));
+            Prescription saved = prescriptionRepository.save(prescription);
+            changeFeedService.record(ChangeEvent.PRESCRIPTION, id, ChangeEvent.UPDATE);
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
     
+    @Transactional
     public boolean deletePrescription(Long id) {
         if (prescriptionRepository.existsById(id)) {
             prescriptionRepository.deleteById(id);
+            changeFeedService.record(ChangeEvent.PRESCRIPTION, id, ChangeEvent.DELETE);
             return true;
         }
         return false;
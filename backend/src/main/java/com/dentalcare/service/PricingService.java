@@ -0,0 +1,201 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.model.TaxRate;
+import com.dentalcare.repository.TaxRateRepository;
+import com.dentalcare.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Prices pharmacy sales from an in-memory table of unit prices and GST rates. Medicine ids are
+ * held in a sorted long array with parallel arrays for the price in cents and the SGST and CGST
+ * rates already resolved from the medicine's type, so pricing a sale is one binary search and a
+ * few multiplications per line. Like the interaction rules, the table is rebuilt and swapped in
+ * whenever medicines or tax rates change.
+ */
+@Service
+public class PricingService {
+    private static final Logger log = LoggerFactory.getLogger(PricingService.class);
+
+    // Only the columns pricing reads: updated_at on medicines also moves with every stock change
+    private static final String SIGNATURE_SQL =
+        "SELECT COALESCE((SELECT md5(string_agg(id || ':' || type || ':' || price, ',' ORDER BY id)) " +
+        "FROM medicines), '') || ':' || " +
+        "(SELECT COUNT(*) FROM tax_rates) || ':' || " +
+        "COALESCE(CAST((SELECT MAX(updated_at) FROM tax_rates) AS VARCHAR), '')";
+
+    private record PriceTable(long[] ids, long[] unitCents, int[] sgstBasisPoints, int[] cgstBasisPoints,
+                              String signature) {}
+
+    private final TaxRateRepository taxRateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile PriceTable table = new PriceTable(new long[0], new long[0], new int[0], new int[0], "");
+
+    public PricingService(TaxRateRepository taxRateRepository, JdbcTemplate jdbcTemplate) {
+        this.taxRateRepository = taxRateRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets every line's unit and total price and the sale's subtotal, taxes and total. Only the
+     * medicine ids, quantities and discount are taken from the caller.
+     */
+    public void priceSale(PharmacySale sale) {
+        PriceTable current = table;
+        if (!covers(current, sale.getItems())) {
+            // A medicine added by another instance since the last check
+            reloadIfChanged();
+            current = table;
+        }
+
+        long subtotal = 0;
+        long sgst = 0;
+        long cgst = 0;
+        for (PharmacySaleItem item : sale.getItems()) {
+            int index = item.getMedicineId() != null ? Arrays.binarySearch(current.ids(), item.getMedicineId()) : -1;
+            if (index < 0) {
+                throw new RuntimeException("Medicine not found: " + item.getMedicineId());
+            }
+            long line = Math.multiplyExact(current.unitCents()[index], item.getQuantity());
+            item.setUnitPrice(Money.ofCents(current.unitCents()[index]));
+            item.setTotalPrice(Money.ofCents(line));
+            subtotal = Math.addExact(subtotal, line);
+            sgst = Math.addExact(sgst, Math.multiplyExact(line, current.sgstBasisPoints()[index]));
+            cgst = Math.addExact(cgst, Math.multiplyExact(line, current.cgstBasisPoints()[index]));
+        }
+
+        Money sgstAmount = Money.ofBasisPointCents(sgst);
+        Money cgstAmount = Money.ofBasisPointCents(cgst);
+        Money gross = Money.ofCents(subtotal).plus(sgstAmount).plus(cgstAmount);
+        Money discount = Money.orZero(sale.getDiscount());
+        if (discount.isNegative() || discount.compareTo(gross) > 0) {
+            throw new IllegalArgumentException("Discount must be between 0 and " + gross);
+        }
+        sale.setSubtotal(Money.ofCents(subtotal));
+        sale.setSgst(sgstAmount);
+        sale.setCgst(cgstAmount);
+        sale.setDiscount(discount);
+        sale.setTotal(gross.minus(discount));
+    }
+
+    public List<TaxRate> getTaxRates() {
+        return taxRateRepository.findAll();
+    }
+
+    /** Creates or replaces the rates for a medicine type; "*" is the fallback for all other types. */
+    @Transactional
+    public TaxRate saveTaxRate(TaxRate taxRate) {
+        if (taxRate.getMedicineType() == null || taxRate.getMedicineType().isBlank()) {
+            throw new IllegalArgumentException("Medicine type is required");
+        }
+        requireBasisPoints(taxRate.getSgstBasisPoints());
+        requireBasisPoints(taxRate.getCgstBasisPoints());
+        TaxRate target = taxRateRepository.findByMedicineType(taxRate.getMedicineType().trim()).orElseGet(TaxRate::new);
+        target.setMedicineType(taxRate.getMedicineType().trim());
+        target.setSgstBasisPoints(taxRate.getSgstBasisPoints());
+        target.setCgstBasisPoints(taxRate.getCgstBasisPoints());
+        TaxRate saved = taxRateRepository.save(target);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    @Transactional
+    public boolean deleteTaxRate(Long id) {
+        Optional<TaxRate> existing = taxRateRepository.findById(id);
+        if (existing.isEmpty()) {
+            return false;
+        }
+        if (TaxRate.DEFAULT_TYPE.equals(existing.get().getMedicineType())) {
+            throw new IllegalStateException("The default tax rate cannot be deleted");
+        }
+        taxRateRepository.delete(existing.get());
+        reloadAfterCommit();
+        return true;
+    }
+
+    /** Called by medicine writes so a new price or type is used by the next sale. */
+    public void medicinesChanged() {
+        reloadAfterCommit();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reloadIfChanged();
+    }
+
+    // Picks up edits made directly in the database or by another instance
+    @Scheduled(fixedDelayString = "${pricing.reload-check-ms:30000}")
+    public void reloadIfChanged() {
+        String signature = jdbcTemplate.queryForObject(SIGNATURE_SQL, String.class);
+        if (!Objects.equals(signature, table.signature())) {
+            reload(signature);
+        }
+    }
+
+    private synchronized void reload(String signature) {
+        Map<String, TaxRate> rates = new HashMap<>();
+        for (TaxRate rate : taxRateRepository.findAll()) {
+            rates.put(rate.getMedicineType(), rate);
+        }
+        TaxRate fallback = rates.get(TaxRate.DEFAULT_TYPE);
+
+        List<Object[]> rows = jdbcTemplate.query("SELECT id, type, price FROM medicines ORDER BY id",
+            (rs, rowNum) -> new Object[] { rs.getLong("id"), rs.getString("type"), rs.getBigDecimal("price") });
+        long[] ids = new long[rows.size()];
+        long[] unitCents = new long[rows.size()];
+        int[] sgst = new int[rows.size()];
+        int[] cgst = new int[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Object[] row = rows.get(i);
+            TaxRate rate = rates.getOrDefault((String) row[1], fallback);
+            ids[i] = (Long) row[0];
+            unitCents[i] = Money.of((BigDecimal) row[2]).getCents();
+            sgst[i] = rate != null ? rate.getSgstBasisPoints() : 0;
+            cgst[i] = rate != null ? rate.getCgstBasisPoints() : 0;
+        }
+
+        table = new PriceTable(ids, unitCents, sgst, cgst, signature);
+        log.info("Loaded prices for {} medicines with {} tax rates", ids.length, rates.size());
+    }
+
+    private void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadIfChanged();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadIfChanged();
+            }
+        });
+    }
+
+    private static boolean covers(PriceTable current, List<PharmacySaleItem> items) {
+        for (PharmacySaleItem item : items) {
+            if (item.getMedicineId() == null || Arrays.binarySearch(current.ids(), item.getMedicineId()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void requireBasisPoints(Integer basisPoints) {
+        if (basisPoints == null || basisPoints < 0 || basisPoints > 10_000) {
+            throw new IllegalArgumentException("Tax rates must be between 0 and 10000 basis points");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Amount;
+import com.dentalcare.model.LedgerEntry;
+import com.dentalcare.repository.LedgerEntryRepository;
+import com.dentalcare.util.Money;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-patient receivables ledger. Completed appointments and treatments post charges, payments
+ * from Amount post credits, and patients.outstanding_balance holds the running balance. Every
+ * posting locks the patient rows it touches before any ledger row, so postings for one patient
+ * are serialised and concurrent postings cannot deadlock.
+ *
+ * Payments settle the oldest open charges first by reducing their open_amount. Aging therefore
+ * only has to read charges that are still open, which a partial index keeps small, instead of
+ * replaying the ledger.
+ */
+@Service
+public class ReceivablesService {
+    private static final String AGING_SQL =
+        "SELECT COALESCE(SUM(open_amount) FILTER (WHERE posted_at >= ?), 0) AS days_0_30, " +
+        "COALESCE(SUM(open_amount) FILTER (WHERE posted_at < ? AND posted_at >= ?), 0) AS days_31_60, " +
+        "COALESCE(SUM(open_amount) FILTER (WHERE posted_at < ? AND posted_at >= ?), 0) AS days_61_90, " +
+        "COALESCE(SUM(open_amount) FILTER (WHERE posted_at < ?), 0) AS days_90_plus";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    public ReceivablesService(JdbcTemplate jdbcTemplate, LedgerEntryRepository ledgerEntryRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+    }
+
+    /**
+     * Makes the ledger agree with what a source should currently charge: nothing when amount is
+     * null or zero, otherwise amount to patientId. A changed amount or patient reverses the
+     * previous charge and posts a new one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void syncCharge(Long patientId, String sourceType, Long sourceId, Money amount, String description) {
+        Money wanted = amount != null && amount.isPositive() ? amount : Money.ZERO;
+        // The new patient and the patients of any charge about to be reversed, in id order
+        jdbcTemplate.query(
+            "SELECT id FROM patients WHERE id = ? OR id IN (SELECT patient_id FROM patient_ledger " +
+            "WHERE source_type = ? AND source_id = ? AND entry_type = ? AND reversed_at IS NULL) ORDER BY id FOR UPDATE",
+            rs -> null, patientId, sourceType, sourceId, LedgerEntry.CHARGE);
+        List<LedgerEntry> charges = jdbcTemplate.query(
+            "SELECT id, patient_id, amount, open_amount FROM patient_ledger WHERE source_type = ? AND source_id = ? " +
+            "AND entry_type = ? AND reversed_at IS NULL FOR UPDATE",
+            (rs, rowNum) -> {
+                LedgerEntry entry = new LedgerEntry();
+                entry.setId(rs.getLong("id"));
+                entry.setPatientId(rs.getLong("patient_id"));
+                entry.setAmount(Money.of(rs.getBigDecimal("amount")));
+                entry.setOpenAmount(Money.of(rs.getBigDecimal("open_amount")));
+                return entry;
+            },
+            sourceType, sourceId, LedgerEntry.CHARGE);
+        for (LedgerEntry charge : charges) {
+            if (charge.getPatientId().equals(patientId) && charge.getAmount().equals(wanted)) {
+                return;
+            }
+            reverse(charge, sourceType, sourceId);
+        }
+        if (wanted.isPositive()) {
+            Money balance = addToBalance(patientId, wanted);
+            // Credit left over from earlier overpayments settles the new charge straight away
+            Money credit = Money.max(Money.ZERO, wanted.minus(balance));
+            insert(patientId, LedgerEntry.CHARGE, sourceType, sourceId, wanted, balance,
+                Money.max(Money.ZERO, wanted.minus(credit)), description);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(Amount amount) {
+        Money paid = amount.getAmount();
+        Money balance = addToBalance(amount.getPatientId(), paid.negate());
+        settleOldest(amount.getPatientId(), paid);
+        insert(amount.getPatientId(), LedgerEntry.PAYMENT, LedgerEntry.SOURCE_AMOUNT, amount.getId(), paid.negate(),
+            balance, Money.ZERO, amount.getPaymentType());
+    }
+
+    public Page<LedgerEntry> getLedger(Long patientId, int page, int size) {
+        return ledgerEntryRepository.findByPatientIdOrderByIdDesc(patientId, PageRequest.of(page, size));
+    }
+
+    /** Open charges by age bucket for the whole practice, as of the given day. */
+    public Map<String, Object> getAging(LocalDate asOf) {
+        Object[] cutoffs = agingCutoffs(asOf);
+        Map<String, Object> aging = new LinkedHashMap<>(jdbcTemplate.queryForMap(
+            AGING_SQL + ", COUNT(DISTINCT patient_id) AS patients FROM patient_ledger WHERE open_amount > 0", cutoffs));
+        aging.put("total", jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(outstanding_balance), 0) FROM patients WHERE outstanding_balance > 0", BigDecimal.class));
+        aging.put("asOf", asOf);
+        return aging;
+    }
+
+    /** Patients who owe money, largest balance first, with their open charges by age bucket. */
+    public List<Map<String, Object>> getAgingByPatient(LocalDate asOf, int page, int size) {
+        List<Object> args = new ArrayList<>();
+        args.add(size);
+        args.add((long) page * size);
+        args.addAll(Arrays.asList(agingCutoffs(asOf)));
+        return jdbcTemplate.queryForList(
+            "WITH debtors AS (SELECT id, first_name, last_name, phone, outstanding_balance FROM patients " +
+            "WHERE outstanding_balance > 0 ORDER BY outstanding_balance DESC, id LIMIT ? OFFSET ?) " +
+            "SELECT d.id AS patient_id, d.first_name, d.last_name, d.phone, d.outstanding_balance, a.* FROM debtors d " +
+            "CROSS JOIN LATERAL (" + AGING_SQL + " FROM patient_ledger l WHERE l.patient_id = d.id AND l.open_amount > 0) a " +
+            "ORDER BY d.outstanding_balance DESC, d.id",
+            args.toArray());
+    }
+
+    private static Object[] agingCutoffs(LocalDate asOf) {
+        LocalDateTime d30 = asOf.minusDays(30).atStartOfDay();
+        LocalDateTime d60 = asOf.minusDays(60).atStartOfDay();
+        LocalDateTime d90 = asOf.minusDays(90).atStartOfDay();
+        return new Object[] { d30, d30, d60, d60, d90, d90 };
+    }
+
+    private void reverse(LedgerEntry charge, String sourceType, Long sourceId) {
+        Money balance = addToBalance(charge.getPatientId(), charge.getAmount().negate());
+        jdbcTemplate.update("UPDATE patient_ledger SET open_amount = 0, reversed_at = now() WHERE id = ?", charge.getId());
+        // Whatever was already paid towards the reversed charge becomes credit for the others
+        settleOldest(charge.getPatientId(), charge.getAmount().minus(charge.getOpenAmount()));
+        insert(charge.getPatientId(), LedgerEntry.REVERSAL, sourceType, sourceId, charge.getAmount().negate(), balance,
+            Money.ZERO, "Reverses entry " + charge.getId());
+    }
+
+    // Reduces open charges oldest first; anything left over stays as credit in the balance
+    private void settleOldest(Long patientId, Money amount) {
+        if (!amount.isPositive()) {
+            return;
+        }
+        List<Object[]> open = jdbcTemplate.query(
+            "SELECT id, open_amount FROM patient_ledger WHERE patient_id = ? AND open_amount > 0 ORDER BY posted_at, id",
+            (rs, rowNum) -> new Object[] { rs.getLong("id"), Money.of(rs.getBigDecimal("open_amount")) }, patientId);
+        List<Object[]> updates = new ArrayList<>();
+        Money remaining = amount;
+        for (Object[] charge : open) {
+            if (!remaining.isPositive()) {
+                break;
+            }
+            Money settled = Money.min(remaining, (Money) charge[1]);
+            remaining = remaining.minus(settled);
+            updates.add(new Object[] { ((Money) charge[1]).minus(settled).toDecimal(), charge[0] });
+        }
+        jdbcTemplate.batchUpdate("UPDATE patient_ledger SET open_amount = ? WHERE id = ?", updates);
+    }
+
+    private Money addToBalance(Long patientId, Money delta) {
+        List<Money> balance = jdbcTemplate.query(
+            "UPDATE patients SET outstanding_balance = outstanding_balance + ? WHERE id = ? RETURNING outstanding_balance",
+            (rs, rowNum) -> Money.of(rs.getBigDecimal(1)), delta.toDecimal(), patientId);
+        if (balance.isEmpty()) {
+            throw new RuntimeException("Patient not found");
+        }
+        return balance.get(0);
+    }
+
+    private void insert(Long patientId, String entryType, String sourceType, Long sourceId, Money amount,
+                        Money balanceAfter, Money openAmount, String description) {
+        jdbcTemplate.update(
+            "INSERT INTO patient_ledger (patient_id, entry_type, source_type, source_id, amount, balance_after, " +
+            "open_amount, description, posted_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, now())",
+            patientId, entryType, sourceType, sourceId, amount.toDecimal(), balanceAfter.toDecimal(),
+            openAmount.toDecimal(), description);
+    }
+}
@@ -2,6 +2,8 @@ package com.dentalcare.service;
 
 import com.dentalcare.model.*;
 import com.dentalcare.repository.*;
+import com.dentalcare.util.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
@@ -13,22 +15,31 @@ import java.util.stream.Collectors;
 public class ReportService {
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
-    private final PharmacySaleRepository pharmacySaleRepository;
     private final MedicineRepository medicineRepository;
-    private final AmountRepository amountRepository; // Add this
+    private final MedicineLotRepository medicineLotRepository;
+    private final SalesLeaderboardService salesLeaderboardService;
+    private final ForecastService forecastService;
+    private final AnalyticsStore analyticsStore;
+    private final int topMedicinesLimit;
 
     public ReportService(
         PatientRepository patientRepository,
         AppointmentRepository appointmentRepository,
-        PharmacySaleRepository pharmacySaleRepository,
         MedicineRepository medicineRepository,
-        AmountRepository amountRepository // Add this
+        MedicineLotRepository medicineLotRepository,
+        SalesLeaderboardService salesLeaderboardService,
+        ForecastService forecastService,
+        AnalyticsStore analyticsStore,
+        @Value("${reports.top-medicines-limit:10}") int topMedicinesLimit
     ) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
-        this.pharmacySaleRepository = pharmacySaleRepository;
         this.medicineRepository = medicineRepository;
-        this.amountRepository = amountRepository; // Add this
+        this.medicineLotRepository = medicineLotRepository;
+        this.salesLeaderboardService = salesLeaderboardService;
+        this.forecastService = forecastService;
+        this.analyticsStore = analyticsStore;
+        this.topMedicinesLimit = topMedicinesLimit;
     }
     
     public Map<String, Object> getPatientStatistics(String period, LocalDate startDate, LocalDate endDate) {
@@ -117,52 +128,31 @@ public class ReportService {
     public Map<String, Object> getFinancialStatistics(String period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> stats = new HashMap<>();
 
-        // Fetch all amounts by their createdAt (payment date)
-        List<Amount> amounts = amountRepository.findByCreatedAtBetween(
-            startDate.atStartOfDay(), endDate.atTime(23, 59, 59)
-        );
+        // Payments by their createdAt (payment date) and sales by sale date, from the analytics store
+        AnalyticsStore.Totals payments = analyticsStore.payments(startDate, endDate);
+        AnalyticsStore.Totals pharmacySales = analyticsStore.sales(startDate, endDate);
+        Money appointmentRevenue = payments.amount();
+        Money pharmacyRevenue = pharmacySales.amount();
 
-        double appointmentRevenue = amounts.stream()
-            .mapToDouble(Amount::getAmount)
-            .sum();
-
-        List<PharmacySale> pharmacySales = pharmacySaleRepository.findByCreatedAtBetween(
-                startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-
-        double pharmacyRevenue = pharmacySales.stream()
-                .mapToDouble(PharmacySale::getTotal)
-                .sum();
-
-        stats.put("totalRevenue", appointmentRevenue + pharmacyRevenue);
+        stats.put("totalRevenue", appointmentRevenue.plus(pharmacyRevenue));
         stats.put("appointmentRevenue", appointmentRevenue);
         stats.put("pharmacyRevenue", pharmacyRevenue);
 
         // Calculate average values
-        stats.put("averageAppointmentValue", amounts.isEmpty() ? 0 : appointmentRevenue / amounts.size());
-        stats.put("averagePharmacySale", pharmacySales.isEmpty() ? 0 : pharmacyRevenue / pharmacySales.size());
+        stats.put("averageAppointmentValue", payments.count() == 0 ? Money.ZERO : appointmentRevenue.dividedBy(payments.count()));
+        stats.put("averagePharmacySale", pharmacySales.count() == 0 ? Money.ZERO : pharmacyRevenue.dividedBy(pharmacySales.count()));
 
         // Calculate monthly trends
         List<Map<String, Object>> monthlyTrends = calculateFinancialTrends(startDate, endDate);
         stats.put("monthlyTrends", monthlyTrends);
 
         // Calculate top procedures
-        // If you want to keep this, you need to fetch appointments for the period as before:
-        List<Appointment> appointments = appointmentRepository.findByDateBetween(startDate, endDate);
-        stats.put("topProcedures", calculateTopProcedures(appointments, amounts));
+        stats.put("topProcedures", calculateTopProcedures(startDate, endDate));
 
         // Calculate online and cash amounts
-        double onlineAmount = amounts.stream()
-            .filter(a -> "online".equalsIgnoreCase(a.getPaymentType()))
-            .mapToDouble(Amount::getAmount)
-            .sum();
-
-        double cashAmount = amounts.stream()
-            .filter(a -> "cash".equalsIgnoreCase(a.getPaymentType()))
-            .mapToDouble(Amount::getAmount)
-            .sum();
-
-        stats.put("onlineAmount", onlineAmount);
-        stats.put("cashAmount", cashAmount);
+        Map<String, AnalyticsStore.Totals> paymentMix = analyticsStore.paymentsByType(startDate, endDate);
+        stats.put("onlineAmount", amountOf(paymentMix.get("online")));
+        stats.put("cashAmount", amountOf(paymentMix.get("cash")));
 
         return stats;
     }
@@ -170,90 +160,77 @@ public class ReportService {
     public Map<String, Object> getPharmacyStatistics(String period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> stats = new HashMap<>();
         
-        // Get all pharmacy sales within the date range
-        List<PharmacySale> sales = pharmacySaleRepository.findByCreatedAtBetween(
-                startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+        // Sales within the date range per month, from the analytics store
+        List<AnalyticsStore.Totals> monthlySales = analyticsStore.salesByMonth(startDate, endDate);
         
         // Calculate basic stats
-        stats.put("totalSales", sales.size());
-        double totalRevenue = sales.stream().mapToDouble(PharmacySale::getTotal).sum();
+        long totalSales = monthlySales.stream().mapToLong(AnalyticsStore.Totals::count).sum();
+        Money totalRevenue = Money.ofCents(monthlySales.stream().mapToLong(t -> t.amount().getCents()).sum());
+        stats.put("totalSales", totalSales);
         stats.put("totalRevenue", totalRevenue);
-        stats.put("averageSaleValue", sales.isEmpty() ? 0 : totalRevenue / sales.size());
-        
-        // Calculate top selling medicines
-        List<Object[]> topMedicines = pharmacySaleRepository.getTopSellingMedicines(
-                startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        
-        List<Map<String, Object>> topSellingMedicines = topMedicines.stream()
-                .map(row -> {
-                    Map<String, Object> medicine = new HashMap<>();
-                    medicine.put("medicineId", row[0]);
-                    medicine.put("medicineName", row[1]);
-                    medicine.put("quantity", row[2]);
-                    medicine.put("revenue", row[3]);
-                    return medicine;
-                })
-                .collect(Collectors.toList());
+        stats.put("averageSaleValue", totalSales == 0 ? Money.ZERO : totalRevenue.dividedBy(totalSales));
         
-        stats.put("topSellingMedicines", topSellingMedicines);
+        // Calculate top selling medicines from the daily aggregates
+        stats.put("topSellingMedicines", getTopMedicines(startDate, endDate, topMedicinesLimit));
         
         // Calculate monthly trends
         List<Map<String, Object>> monthlyTrends = new ArrayList<>();
         YearMonth start = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
-        
-        while (!start.isAfter(end)) {
-            LocalDateTime monthStart = start.atDay(1).atStartOfDay();
-            LocalDateTime monthEnd = start.atEndOfMonth().atTime(23, 59, 59);
-            
-            List<PharmacySale> monthlySales = sales.stream()
-                    .filter(sale -> !sale.getCreatedAt().isBefore(monthStart) && !sale.getCreatedAt().isAfter(monthEnd))
-                    .collect(Collectors.toList());
-            
+        for (AnalyticsStore.Totals month : monthlySales) {
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("date", start.toString());
-            monthData.put("sales", monthlySales.size());
-            monthData.put("revenue", monthlySales.stream().mapToDouble(PharmacySale::getTotal).sum());
+            monthData.put("sales", month.count());
+            monthData.put("revenue", month.amount());
             monthlyTrends.add(monthData);
-            
             start = start.plusMonths(1);
         }
         stats.put("monthlyTrends", monthlyTrends);
         
         // Get stock alerts
-        List<Medicine> medicines = medicineRepository.findAll();
-        List<Map<String, Object>> stockAlerts = medicines.stream()
-                .filter(m -> m.getStock() <= 20) // Alert threshold
+        List<Medicine> lowStock = medicineRepository.findAtOrBelowReorderPoint();
+        Map<Long, MedicineForecast> forecasts = forecastService.getForecasts(
+                lowStock.stream().map(Medicine::getId).toList());
+        List<Map<String, Object>> stockAlerts = lowStock.stream()
                 .map(m -> {
                     Map<String, Object> alert = new HashMap<>();
                     alert.put("medicineId", m.getId());
                     alert.put("medicineName", m.getName());
                     alert.put("currentStock", m.getStock());
-                    alert.put("reorderPoint", 20); // Reorder threshold
+                    alert.put("reorderPoint", m.getReorderPoint());
+                    MedicineForecast forecast = forecasts.get(m.getId());
+                    double velocity = forecast != null ? forecast.getDailyVelocity() : 0;
+                    alert.put("dailyVelocity", velocity);
+                    alert.put("daysOfCover", velocity > 0 ? m.getStock() / velocity : null);
                     return alert;
                 })
                 .collect(Collectors.toList());
 
                 stats.put("stockAlerts", stockAlerts != null ? stockAlerts : new ArrayList<>());
 
-        // --- Add expiry alerts ---
+        // --- Add expiry alerts (per lot still holding stock) ---
         LocalDate today = LocalDate.now();
         LocalDate expiryThreshold = today.plusMonths(3); // e.g., alert for expiry within 3 months
-        List<Map<String, Object>> expiryAlerts = medicines.stream()
-    .filter(m -> m.getDateOfExpiry() != null && !m.getDateOfExpiry().isAfter(expiryThreshold))
-    .map(m -> {
-        Map<String, Object> alert = new HashMap<>();
-        alert.put("medicineId", m.getId());
-        alert.put("medicineName", m.getName());
-        alert.put("expiryDate", m.getDateOfExpiry());
-        return alert;
-    })
-    .collect(Collectors.toList());
+        List<Map<String, Object>> expiryAlerts = medicineLotRepository.findExpiringLots(expiryThreshold).stream()
+                .map(row -> {
+                    Map<String, Object> alert = new HashMap<>();
+                    alert.put("lotId", row[0]);
+                    alert.put("lotNumber", row[1]);
+                    alert.put("quantity", row[2]);
+                    alert.put("expiryDate", row[3]);
+                    alert.put("medicineId", row[4]);
+                    alert.put("medicineName", row[5]);
+                    return alert;
+                })
+                .collect(Collectors.toList());
         stats.put("expiryAlerts", expiryAlerts);
 
         return stats;
     }
     
+    public List<Map<String, Object>> getTopMedicines(LocalDate startDate, LocalDate endDate, int limit) {
+        return salesLeaderboardService.getTopMedicines(startDate, endDate, Math.min(Math.max(1, limit), 100));
+    }
+    
     public List<Map<String, Object>> calculateMonthlyTrends(LocalDate startDate, LocalDate endDate) {
         List<Map<String, Object>> trends = new ArrayList<>();
         LocalDate current = startDate.withDayOfMonth(1);
@@ -318,32 +295,19 @@ public class ReportService {
     private List<Map<String, Object>> calculateFinancialTrends(LocalDate startDate, LocalDate endDate) {
         List<Map<String, Object>> trends = new ArrayList<>();
         YearMonth start = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
-        
-        while (!start.isAfter(end)) {
-            LocalDate monthStart = start.atDay(1);
-            LocalDate monthEnd = start.atEndOfMonth();
-            LocalDateTime monthStartTime = monthStart.atStartOfDay();
-            LocalDateTime monthEndTime = monthEnd.atTime(23, 59, 59);
-
-            List<Appointment> appointments = appointmentRepository.findByDateBetween(monthStart, monthEnd);
-            List<Long> appointmentIds = appointments.stream().map(Appointment::getId).toList();
-            List<Amount> amounts = appointmentIds.isEmpty() ? List.of() : amountRepository.findByAppointmentIdIn(appointmentIds);
+        LocalDate firstDay = start.atDay(1);
+        LocalDate lastDay = YearMonth.from(endDate).atEndOfMonth();
 
-            double appointmentRevenue = amounts.stream()
-                    .mapToDouble(Amount::getAmount)
-                    .sum();
-
-            List<PharmacySale> sales = pharmacySaleRepository.findByCreatedAtBetween(monthStartTime, monthEndTime);
-            double pharmacyRevenue = sales.stream()
-                    .mapToDouble(PharmacySale::getTotal)
-                    .sum();
+        // Appointment revenue follows the appointment's month, pharmacy revenue the sale's month
+        List<Money> appointmentRevenue = analyticsStore.paymentsByAppointmentMonth(firstDay, lastDay);
+        List<AnalyticsStore.Totals> pharmacyRevenue = analyticsStore.salesByMonth(firstDay, lastDay);
 
+        for (int i = 0; i < appointmentRevenue.size(); i++) {
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("date", start.toString());
-            monthData.put("totalRevenue", appointmentRevenue + pharmacyRevenue);
-            monthData.put("appointmentRevenue", appointmentRevenue);
-            monthData.put("pharmacyRevenue", pharmacyRevenue);
+            monthData.put("totalRevenue", appointmentRevenue.get(i).plus(pharmacyRevenue.get(i).amount()));
+            monthData.put("appointmentRevenue", appointmentRevenue.get(i));
+            monthData.put("pharmacyRevenue", pharmacyRevenue.get(i).amount());
 
             trends.add(monthData);
             start = start.plusMonths(1);
@@ -352,34 +316,23 @@ public class ReportService {
         return trends;
     }
     
-    private List<Map<String, Object>> calculateTopProcedures(List<Appointment> appointments, List<Amount> amounts) {
-        // Map appointmentId to total amount (sum of all payments for that appointment)
-        Map<Long, Double> appointmentAmountMap = amounts.stream()
-            .collect(Collectors.groupingBy(
-                Amount::getAppointmentId,
-                Collectors.summingDouble(Amount::getAmount)
-            ));
-
-        return appointments.stream()
-                .collect(Collectors.groupingBy(
-                        Appointment::getType,
-                        Collectors.collectingAndThen(
-                                Collectors.toList(),
-                                list -> {
-                                    Map<String, Object> stats = new HashMap<>();
-                                    stats.put("type", list.get(0).getType());
-                                    stats.put("count", list.size());
-                                    double revenue = list.stream()
-                                            .mapToDouble(a -> appointmentAmountMap.getOrDefault(a.getId(), 0.0))
-                                            .sum();
-                                    stats.put("revenue", revenue);
-                                    return stats;
-                                }
-                        )
-                ))
-                .values()
-                .stream()
-                .sorted((a, b) -> Double.compare((Double) b.get("revenue"), (Double) a.get("revenue")))
+    // Appointments dated in the range by type, with the payments made for them within the range
+    private List<Map<String, Object>> calculateTopProcedures(LocalDate startDate, LocalDate endDate) {
+        Map<String, Money> revenueByType = analyticsStore.revenueByAppointmentType(startDate, endDate);
+
+        return appointmentRepository.countByTypeBetween(startDate, endDate).stream()
+                .map(row -> {
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("type", row[0]);
+                    stats.put("count", ((Number) row[1]).intValue());
+                    stats.put("revenue", revenueByType.getOrDefault((String) row[0], Money.ZERO));
+                    return stats;
+                })
+                .sorted((a, b) -> ((Money) b.get("revenue")).compareTo((Money) a.get("revenue")))
                 .collect(Collectors.toList());
     }
+
+    private static Money amountOf(AnalyticsStore.Totals totals) {
+        return totals != null ? totals.amount() : Money.ZERO;
+    }
 }
@@ -0,0 +1,84 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.util.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Per-day, per-medicine sales totals kept in medicine_daily_sales. Each sale adds its lines in
+ * the same transaction, so the totals always match committed sales. A top-K query for any date
+ * range sums at most one row per medicine per day instead of joining every sale item.
+ */
+@Service
+public class SalesLeaderboardService {
+    private static final String UPSERT_SQL =
+        "INSERT INTO medicine_daily_sales (sale_date, medicine_id, medicine_name, quantity, revenue) " +
+        "VALUES (?, ?, ?, ?, ?) " +
+        "ON CONFLICT (sale_date, medicine_id) DO UPDATE SET " +
+        "quantity = medicine_daily_sales.quantity + EXCLUDED.quantity, " +
+        "revenue = medicine_daily_sales.revenue + EXCLUDED.revenue, " +
+        "medicine_name = EXCLUDED.medicine_name";
+
+    // Latest name wins so a renamed medicine is listed under its current name
+    private static final String TOP_SQL =
+        "SELECT medicine_id, (array_agg(medicine_name ORDER BY sale_date DESC))[1] AS medicine_name, " +
+        "SUM(quantity) AS quantity, SUM(revenue) AS revenue " +
+        "FROM medicine_daily_sales WHERE sale_date BETWEEN ? AND ? " +
+        "GROUP BY medicine_id ORDER BY quantity DESC, medicine_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesLeaderboardService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(PharmacySale sale) {
+        Date saleDate = Date.valueOf(sale.getCreatedAt().toLocalDate());
+        // Grouped and applied in medicine id order, matching the stock decrement, so concurrent
+        // sales lock the same aggregate rows in the same order
+        SortedMap<Long, Object[]> rows = new TreeMap<>();
+        for (PharmacySaleItem item : sale.getItems()) {
+            Object[] row = rows.computeIfAbsent(item.getMedicineId(),
+                id -> new Object[] { saleDate, id, item.getMedicineName(), 0L, Money.ZERO });
+            row[3] = (Long) row[3] + item.getQuantity();
+            row[4] = ((Money) row[4]).plus(item.getTotalPrice());
+        }
+        for (Object[] row : rows.values()) {
+            row[4] = ((Money) row[4]).toDecimal();
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(rows.values()));
+    }
+
+    /** Units sold per medicine per day in the range; days without sales are absent. */
+    public Map<Long, Map<LocalDate, Long>> getDailyQuantities(LocalDate startDate, LocalDate endDate) {
+        Map<Long, Map<LocalDate, Long>> result = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT medicine_id, sale_date, quantity FROM medicine_daily_sales WHERE sale_date BETWEEN ? AND ?",
+            rs -> {
+                result.computeIfAbsent(rs.getLong("medicine_id"), id -> new HashMap<>())
+                    .put(rs.getDate("sale_date").toLocalDate(), rs.getLong("quantity"));
+            },
+            Date.valueOf(startDate), Date.valueOf(endDate));
+        return result;
+    }
+
+    public List<Map<String, Object>> getTopMedicines(LocalDate startDate, LocalDate endDate, int limit) {
+        return jdbcTemplate.query(TOP_SQL, (rs, rowNum) -> {
+            Map<String, Object> medicine = new HashMap<>();
+            medicine.put("medicineId", rs.getLong("medicine_id"));
+            medicine.put("medicineName", rs.getString("medicine_name"));
+            medicine.put("quantity", rs.getLong("quantity"));
+            medicine.put("revenue", Money.of(rs.getBigDecimal("revenue")));
+            return medicine;
+        }, Date.valueOf(startDate), Date.valueOf(endDate), limit);
+    }
+}
@@ -0,0 +1,205 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.PageRequest;
+import com.dentalcare.dto.PageResponse;
+import com.dentalcare.dto.StockShortfall;
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.model.Medicine;
+import com.dentalcare.model.MedicineLot;
+import com.dentalcare.model.StockMovement;
+import com.dentalcare.model.StockSnapshot;
+import com.dentalcare.repository.MedicineRepository;
+import com.dentalcare.repository.StockMovementRepository;
+import com.dentalcare.repository.StockSnapshotRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Append-only stock ledger. Medicine.stock stays the live counter used at checkout; every change
+ * to it is also written here as a signed movement. Historical stock is the latest daily snapshot
+ * at or before the requested time plus the movements since, so a lookup reads at most one day of
+ * movements however large the ledger grows.
+ */
+@Service
+public class StockLedgerService {
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final MedicineRepository medicineRepository;
+    private final StockReservationService stockReservationService;
+    private final MedicineLotService medicineLotService;
+    private final ChangeFeedService changeFeedService;
+
+    public StockLedgerService(
+        StockMovementRepository movementRepository,
+        StockSnapshotRepository snapshotRepository,
+        MedicineRepository medicineRepository,
+        StockReservationService stockReservationService,
+        MedicineLotService medicineLotService,
+        ChangeFeedService changeFeedService
+    ) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.medicineRepository = medicineRepository;
+        this.stockReservationService = stockReservationService;
+        this.medicineLotService = medicineLotService;
+        this.changeFeedService = changeFeedService;
+    }
+
+    /** Records sale movements, one per lot drawn from, for stock the sale already decremented. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(Long saleId, List<MedicineLotService.Allocation> allocations) {
+        List<StockMovement> movements = new ArrayList<>(allocations.size());
+        for (MedicineLotService.Allocation allocation : allocations) {
+            movements.add(newMovement(allocation.medicineId(), StockMovement.SALE,
+                -allocation.quantity(), allocation.lotId(), saleId, null));
+        }
+        movementRepository.saveAll(movements);
+    }
+
+    /** Records the opening stock of a newly created medicine as its first lot. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOpeningStock(Medicine medicine) {
+        if (medicine.getStock() != null && medicine.getStock() > 0) {
+            MedicineLot lot = medicineLotService.addOpeningLot(medicine);
+            movementRepository.save(newMovement(
+                medicine.getId(), StockMovement.RECEIPT, medicine.getStock(), lot.getId(), null, "Opening stock"));
+        }
+    }
+
+    /**
+     * Changes Medicine.stock atomically by the movement's signed quantity and records it.
+     * Receipts must be positive, write-offs are given as a positive count and stored negative,
+     * adjustments may be either. Expiry write-offs take units from expired lots first; any other
+     * removal, and the rest of a write-off, comes out of sellable stock like a sale, from lots
+     * soonest expiry first. Additions here are not attached to a lot, use {@link #receiveLot}
+     * for that. Stock can never go below zero, nor sellable stock below what is removed from it.
+     */
+    @Transactional
+    public List<StockMovement> applyMovement(Long medicineId, String movementType, int quantity, String note) {
+        int delta = switch (movementType) {
+            case StockMovement.RECEIPT -> requirePositive(quantity);
+            case StockMovement.EXPIRY_WRITE_OFF -> -requirePositive(quantity);
+            case StockMovement.ADJUSTMENT -> quantity;
+            default -> throw new IllegalArgumentException("Unsupported movement type: " + movementType);
+        };
+
+        if (delta > 0) {
+            changeStock(medicineId, delta, delta);
+            return List.of(movementRepository.save(newMovement(medicineId, movementType, delta, null, null, note)));
+        }
+
+        // Locked so the expired and sellable split cannot change under us
+        medicineRepository.lockById(medicineId)
+            .orElseThrow(() -> new RuntimeException("Medicine not found: " + medicineId));
+        Medicine medicine = medicineRepository.findById(medicineId).orElseThrow();
+        int removed = -delta;
+        int expired = medicineLotService.getExpiredQuantities(List.of(medicineId)).getOrDefault(medicineId, 0);
+        int fromExpired = StockMovement.EXPIRY_WRITE_OFF.equals(movementType) ? Math.min(removed, expired) : 0;
+        int sellable = medicine.getStock() - expired;
+        if (removed - fromExpired > sellable) {
+            throw new InsufficientStockException(List.of(
+                new StockShortfall(medicineId, medicine.getName(), removed - fromExpired, Math.max(0, sellable))));
+        }
+
+        changeStock(medicineId, delta, -(removed - fromExpired));
+        List<MedicineLotService.Allocation> allocations = new ArrayList<>(medicineLotService.allocateExpired(medicineId, fromExpired));
+        if (removed > fromExpired) {
+            allocations.addAll(medicineLotService.allocate(new TreeMap<>(Map.of(medicineId, removed - fromExpired))));
+        }
+        List<StockMovement> movements = new ArrayList<>();
+        for (MedicineLotService.Allocation allocation : allocations) {
+            movements.add(newMovement(medicineId, movementType, -allocation.quantity(), allocation.lotId(), null, note));
+        }
+        return movementRepository.saveAll(movements);
+    }
+
+    @Transactional
+    public MedicineLot receiveLot(Long medicineId, MedicineLot lot) {
+        int quantity = requirePositive(lot.getQuantity() != null ? lot.getQuantity() : 0);
+        MedicineLot saved = medicineLotService.addLot(medicineId, lot);
+        changeStock(medicineId, quantity, MedicineLotService.isExpired(saved) ? 0 : quantity);
+        movementRepository.save(newMovement(
+            medicineId, StockMovement.RECEIPT, quantity, saved.getId(), null, "Lot " + saved.getLotNumber()));
+        return saved;
+    }
+
+    /** Writes off whatever is left of a lot, typically once it has expired. */
+    @Transactional
+    public StockMovement writeOffLot(Long medicineId, Long lotId) {
+        medicineRepository.lockById(medicineId)
+            .orElseThrow(() -> new RuntimeException("Medicine not found: " + medicineId));
+        MedicineLotService.Emptied emptied = medicineLotService.empty(medicineId, lotId);
+        int quantity = emptied.quantity();
+        if (quantity == 0) {
+            throw new IllegalArgumentException("Lot is already empty");
+        }
+        changeStock(medicineId, -quantity, emptied.expired() ? 0 : -quantity);
+        return movementRepository.save(newMovement(
+            medicineId, StockMovement.EXPIRY_WRITE_OFF, -quantity, lotId, null, null));
+    }
+
+    // sellableDelta is the part of delta that moves unexpired stock, which is all reservations see
+    private void changeStock(Long medicineId, int delta, int sellableDelta) {
+        if (medicineRepository.adjustStock(medicineId, delta, LocalDateTime.now()) == 0) {
+            Medicine medicine = medicineRepository.findById(medicineId)
+                .orElseThrow(() -> new RuntimeException("Medicine not found: " + medicineId));
+            throw new InsufficientStockException(List.of(
+                new StockShortfall(medicineId, medicine.getName(), -delta, medicine.getStock())));
+        }
+        changeFeedService.record(ChangeEvent.MEDICINE, medicineId, ChangeEvent.UPDATE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (sellableDelta != 0) {
+                    stockReservationService.adjustOnHand(medicineId, sellableDelta);
+                }
+            }
+        });
+    }
+
+    public PageResponse<StockMovement> getMovements(Long medicineId, PageRequest pageRequest) {
+        return new PageResponse<>(movementRepository.findByMedicineId(medicineId, pageRequest.toSpringPageRequest()));
+    }
+
+    public long getStockAsOf(Long medicineId, LocalDateTime at) {
+        Optional<StockSnapshot> snapshot = snapshotRepository
+            .findFirstByMedicineIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(medicineId, at);
+        long base = snapshot.map(StockSnapshot::getStock).orElse(0);
+        LocalDateTime from = snapshot.map(StockSnapshot::getSnapshotAt).orElse(LocalDateTime.of(1970, 1, 1, 0, 0));
+        return base + movementRepository.sumQuantityBetween(medicineId, from, at);
+    }
+
+    // Snapshots cover movements created before midnight; running shortly after it leaves
+    // in-flight transactions time to commit before their movements are folded in
+    @Scheduled(cron = "${stock.snapshot-cron:0 30 0 * * *}")
+    @Transactional
+    public void takeDailySnapshots() {
+        snapshotRepository.rollForward(LocalDate.now().atStartOfDay());
+    }
+
+    private StockMovement newMovement(Long medicineId, String type, int quantity, Long lotId, Long referenceId, String note) {
+        StockMovement movement = new StockMovement();
+        movement.setMedicineId(medicineId);
+        movement.setMovementType(type);
+        movement.setQuantity(quantity);
+        movement.setLotId(lotId);
+        movement.setReferenceId(referenceId);
+        movement.setNote(note);
+        return movement;
+    }
+
+    private int requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,282 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.StockReservationDto;
+import com.dentalcare.dto.StockShortfall;
+import com.dentalcare.model.Medicine;
+import com.dentalcare.repository.MedicineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds cart quantities for a short TTL while a bill is prepared. Each medicine has an in-memory
+ * counter of on-hand and reserved units, guarded by one of a fixed set of striped locks, so
+ * counters for different medicines never contend and no DB row lock is held while a cart is open.
+ * On-hand is loaded from Medicine.stock less expired-lot units the first time a medicine is
+ * reserved and kept in step by sale commits and medicine edits. The conditional DB decrement at
+ * checkout remains the final guard. A reservation's own monitor is taken before any stripe, so
+ * replacing, releasing and committing it never interleave.
+ */
+@Service
+public class StockReservationService {
+    private static final int STRIPES = 64;
+
+    private final MedicineRepository medicineRepository;
+    private final MedicineLotService medicineLotService;
+    private final Duration ttl;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public StockReservationService(
+        MedicineRepository medicineRepository,
+        MedicineLotService medicineLotService,
+        @Value("${reservations.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.medicineRepository = medicineRepository;
+        this.medicineLotService = medicineLotService;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public StockReservationDto reserve(Map<Long, Integer> quantities) {
+        return toDto(reserve(null, quantities));
+    }
+
+    /** Replaces the quantities held by a reservation and restarts its TTL. */
+    public Optional<StockReservationDto> update(String reservationId, Map<Long, Integer> quantities) {
+        Reservation existing = reservations.get(reservationId);
+        if (existing == null) {
+            return Optional.empty();
+        }
+        return Optional.of(toDto(reserve(existing, quantities)));
+    }
+
+    public Optional<StockReservationDto> getReservation(String reservationId) {
+        return Optional.ofNullable(reservations.get(reservationId)).map(this::toDto);
+    }
+
+    public boolean release(String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        synchronized (reservation) {
+            if (reservation.closed) {
+                return false;
+            }
+            withLocks(reservation.quantities.keySet(), () -> close(reservation));
+        }
+        return true;
+    }
+
+    /**
+     * Holds stock for a checkout. Reuses the cart's reservation when one is given (topping it up or
+     * trimming it to the sold quantities), otherwise reserves on the spot, so a sale can never take
+     * units another open cart is holding. Returns the id of the reservation now covering the sale.
+     */
+    String holdForSale(String reservationId, SortedMap<Long, Integer> quantities) {
+        Reservation existing = reservationId != null ? reservations.get(reservationId) : null;
+        return reserve(existing, quantities).id;
+    }
+
+    /** Applies a committed sale: the units leave on-hand and the covering reservation is dropped. */
+    void saleCommitted(String reservationId, SortedMap<Long, Integer> quantities) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            withLocks(quantities.keySet(), () -> takeOnHand(quantities));
+            return;
+        }
+        synchronized (reservation) {
+            Set<Long> ids = new HashSet<>(quantities.keySet());
+            ids.addAll(reservation.quantities.keySet());
+            withLocks(ids, () -> {
+                if (!reservation.closed) {
+                    close(reservation);
+                }
+                takeOnHand(quantities);
+            });
+        }
+    }
+
+    /** Applies a committed stock change made outside the sale path, e.g. a receipt or write-off. */
+    public void adjustOnHand(Long medicineId, int delta) {
+        withLocks(Set.of(medicineId), () -> {
+            Counter counter = counters.get(medicineId);
+            if (counter != null) {
+                counter.onHand += delta;
+            }
+        });
+    }
+
+    public void evict(Long medicineId) {
+        withLocks(Set.of(medicineId), () -> counters.remove(medicineId));
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.sweep-interval-ms:5000}")
+    public void expireReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        reservations.values().stream()
+            .filter(reservation -> reservation.expiresAt.isBefore(now))
+            .map(reservation -> reservation.id)
+            .toList()
+            .forEach(this::release);
+    }
+
+    private Reservation reserve(Reservation replacing, Map<Long, Integer> requested) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        requested.forEach((id, qty) -> {
+            if (qty == null || qty <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for medicine " + id);
+            }
+            quantities.merge(id, qty, Integer::sum);
+        });
+        loadMissingCounters(quantities.keySet());
+
+        if (replacing == null) {
+            return reserveLocked(null, quantities);
+        }
+        synchronized (replacing) {
+            return reserveLocked(replacing, quantities);
+        }
+    }
+
+    private Reservation reserveLocked(Reservation replacing, SortedMap<Long, Integer> quantities) {
+        Set<Long> ids = new HashSet<>(quantities.keySet());
+        if (replacing != null) {
+            ids.addAll(replacing.quantities.keySet());
+        }
+        Reservation[] result = new Reservation[1];
+        withLocks(ids, () -> {
+            // A reservation released or expired concurrently no longer holds anything
+            Reservation current = replacing != null && !replacing.closed ? replacing : null;
+            List<StockShortfall> shortfalls = new ArrayList<>();
+            quantities.forEach((id, qty) -> {
+                Counter counter = counters.get(id);
+                if (counter == null) {
+                    throw new RuntimeException("Medicine not found: " + id);
+                }
+                int alreadyHeld = current != null ? current.quantities.getOrDefault(id, 0) : 0;
+                int available = counter.onHand - counter.reserved + alreadyHeld;
+                if (available < qty) {
+                    shortfalls.add(new StockShortfall(id, counter.name, qty, Math.max(available, 0)));
+                }
+            });
+            if (!shortfalls.isEmpty()) {
+                throw new InsufficientStockException(shortfalls);
+            }
+            if (current != null) {
+                current.quantities.forEach((id, qty) -> adjustReserved(id, -qty));
+            }
+            quantities.forEach((id, qty) -> adjustReserved(id, qty));
+            Reservation target = current != null ? current : new Reservation(UUID.randomUUID().toString());
+            target.quantities = quantities;
+            target.expiresAt = LocalDateTime.now().plus(ttl);
+            reservations.put(target.id, target);
+            result[0] = target;
+        });
+        return result[0];
+    }
+
+    // Caller holds the reservation's monitor and the stripes of everything it holds
+    private void close(Reservation reservation) {
+        reservation.closed = true;
+        reservations.remove(reservation.id, reservation);
+        reservation.quantities.forEach((id, qty) -> adjustReserved(id, -qty));
+    }
+
+    private void takeOnHand(SortedMap<Long, Integer> quantities) {
+        quantities.forEach((id, qty) -> {
+            Counter counter = counters.get(id);
+            if (counter != null) {
+                counter.onHand -= qty;
+            }
+        });
+    }
+
+    private void adjustReserved(Long medicineId, int delta) {
+        Counter counter = counters.get(medicineId);
+        if (counter != null) {
+            counter.reserved += delta;
+        }
+    }
+
+    // DB reads happen before any stripe is locked; a concurrent loader losing the race is discarded
+    private void loadMissingCounters(Set<Long> ids) {
+        List<Long> missing = ids.stream().filter(id -> !counters.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, Medicine> medicines = medicineRepository.findAllById(missing).stream()
+            .collect(Collectors.toMap(Medicine::getId, Function.identity()));
+        // Expired-lot units are still in Medicine.stock but can never be sold
+        Map<Long, Integer> expired = medicineLotService.getExpiredQuantities(missing);
+        for (Long id : missing) {
+            Medicine medicine = medicines.get(id);
+            if (medicine == null) {
+                throw new RuntimeException("Medicine not found: " + id);
+            }
+            int sellable = medicine.getStock() - expired.getOrDefault(id, 0);
+            counters.putIfAbsent(id, new Counter(medicine.getName(), Math.max(sellable, 0)));
+        }
+    }
+
+    // Stripes are always taken in ascending index order so multi-medicine carts cannot deadlock
+    private void withLocks(Collection<Long> medicineIds, Runnable action) {
+        int[] stripes = medicineIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeOf(Long medicineId) {
+        return (Long.hashCode(medicineId) & 0x7fffffff) % STRIPES;
+    }
+
+    private StockReservationDto toDto(Reservation reservation) {
+        return new StockReservationDto(reservation.id, reservation.quantities, reservation.expiresAt);
+    }
+
+    // Fields are only read or written while holding the medicine's stripe lock
+    private static final class Counter {
+        final String name;
+        int onHand;
+        int reserved;
+
+        Counter(String name, int onHand) {
+            this.name = name;
+            this.onHand = onHand;
+        }
+    }
+
+    private static final class Reservation {
+        final String id;
+        volatile SortedMap<Long, Integer> quantities = new TreeMap<>();
+        volatile LocalDateTime expiresAt;
+        // Set once, under the reservation's monitor; a closed reservation is never reused
+        volatile boolean closed;
+
+        Reservation(String id) {
+            this.id = id;
+        }
+    }
+}
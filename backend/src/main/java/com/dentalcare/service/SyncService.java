@@ -0,0 +1,96 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.repository.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Delta sync for the front end. A client keeps the version from its last sync and receives
+ * only the rows inserted or updated since then, plus tombstones (ids) for deleted rows.
+ * Each changed row is loaded once no matter how many events touched it.
+ */
+@Service
+public class SyncService {
+    private final ChangeFeedService changeFeedService;
+    private final ChangeEventRepository changeEventRepository;
+    private final Map<String, JpaRepository<?, Long>> repositories = new LinkedHashMap<>();
+
+    public SyncService(
+        ChangeFeedService changeFeedService,
+        ChangeEventRepository changeEventRepository,
+        AppointmentRepository appointmentRepository,
+        AmountRepository amountRepository,
+        MedicineRepository medicineRepository,
+        PatientRepository patientRepository,
+        PharmacySaleRepository pharmacySaleRepository,
+        PrescriptionRepository prescriptionRepository,
+        TreatmentRepository treatmentRepository
+    ) {
+        this.changeFeedService = changeFeedService;
+        this.changeEventRepository = changeEventRepository;
+        repositories.put(ChangeEvent.APPOINTMENT, appointmentRepository);
+        repositories.put(ChangeEvent.AMOUNT, amountRepository);
+        repositories.put(ChangeEvent.MEDICINE, medicineRepository);
+        repositories.put(ChangeEvent.PATIENT, patientRepository);
+        repositories.put(ChangeEvent.PHARMACY_SALE, pharmacySaleRepository);
+        repositories.put(ChangeEvent.PRESCRIPTION, prescriptionRepository);
+        repositories.put(ChangeEvent.TREATMENT, treatmentRepository);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> sync(long since, Collection<String> entityTypes, int limit) {
+        Map<String, Object> response = new HashMap<>();
+        // Rows written before the feed existed have no events, so a client without a
+        // version must do one full load and then sync from the version returned here.
+        // While the feed is still empty there is nothing to reset to, so version 0 is current.
+        if (since <= 0) {
+            long latest = changeFeedService.getLatestVersion();
+            response.put("version", latest);
+            response.put("reset", since < 0 || latest > 0);
+            response.put("hasMore", false);
+            response.put("changes", Map.of());
+            return response;
+        }
+
+        Set<String> types = new LinkedHashSet<>();
+        for (String type : entityTypes == null || entityTypes.isEmpty() ? repositories.keySet() : entityTypes) {
+            if (!repositories.containsKey(type)) {
+                throw new IllegalArgumentException("Unknown entity type: " + type);
+            }
+            types.add(type);
+        }
+
+        List<ChangeEvent> events = changeEventRepository.findByEntityTypeInAndVersionGreaterThanOrderByVersionAsc(
+            types, since, PageRequest.of(0, limit));
+
+        // Last operation per row wins; later events overwrite earlier ones
+        Map<String, Map<Long, String>> lastOperation = new HashMap<>();
+        for (ChangeEvent event : events) {
+            lastOperation.computeIfAbsent(event.getEntityType(), t -> new LinkedHashMap<>())
+                .put(event.getEntityId(), event.getOperation());
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        lastOperation.forEach((type, operations) -> {
+            List<Long> upsertIds = new ArrayList<>();
+            List<Long> deletes = new ArrayList<>();
+            operations.forEach((id, operation) -> (ChangeEvent.DELETE.equals(operation) ? deletes : upsertIds).add(id));
+
+            Map<String, Object> delta = new HashMap<>();
+            delta.put("upserts", upsertIds.isEmpty() ? List.of() : repositories.get(type).findAllById(upsertIds));
+            delta.put("deletes", deletes);
+            changes.put(type, delta);
+        });
+
+        response.put("version", events.isEmpty() ? since : events.get(events.size() - 1).getVersion());
+        response.put("reset", false);
+        response.put("hasMore", events.size() == limit);
+        response.put("changes", changes);
+        return response;
+    }
+}
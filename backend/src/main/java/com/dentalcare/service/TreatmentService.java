@@ -1,34 +1,66 @@
 package com.dentalcare.service;
 
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.model.LedgerEntry;
 import com.dentalcare.model.Treatment;
-import com.dentalcare.repository.TreatmentRepository;
 import com.dentalcare.repository.AppointmentRepository;
-import com.dentalcare.model.Appointment;
+import com.dentalcare.repository.TreatmentRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class TreatmentService {
     private final TreatmentRepository treatmentRepository;
+    private final ChangeFeedService changeFeedService;
     private final AppointmentRepository appointmentRepository;
+    private final ReceivablesService receivablesService;
 
-    public TreatmentService(TreatmentRepository treatmentRepository, AppointmentRepository appointmentRepository) {
+    public TreatmentService(TreatmentRepository treatmentRepository,
+                            ChangeFeedService changeFeedService,
+                            AppointmentRepository appointmentRepository,
+                            ReceivablesService receivablesService) {
         this.treatmentRepository = treatmentRepository;
+        this.changeFeedService = changeFeedService;
         this.appointmentRepository = appointmentRepository;
+        this.receivablesService = receivablesService;
     }
 
+    @Transactional
     public Treatment createTreatment(Treatment treatment) {
-        return treatmentRepository.save(treatment);
+        Appointment appointment = appointmentRepository.findById(treatment.getAppointmentId())
+            .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Treatment saved = treatmentRepository.save(treatment);
+        syncCharge(saved, appointment);
+        changeFeedService.record(ChangeEvent.TREATMENT, saved.getId(), ChangeEvent.INSERT);
+        return saved;
+    }
+
+    /**
+     * Re-syncs the charges of an appointment's treatments after the appointment was saved, or
+     * reverses them when it was deleted (appointment null).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appointmentChanged(Long appointmentId, Appointment appointment) {
+        for (Treatment treatment : treatmentRepository.findByAppointmentId(appointmentId)) {
+            syncCharge(treatment, appointment);
+        }
+    }
+
+    // Like the appointment fee, treatment costs are billed only once the appointment is completed
+    private void syncCharge(Treatment treatment, Appointment appointment) {
+        boolean completed = appointment != null && PatientStatsService.COMPLETED.equals(appointment.getStatus());
+        receivablesService.syncCharge(appointment != null ? appointment.getPatientId() : null,
+            LedgerEntry.SOURCE_TREATMENT, treatment.getId(), completed ? treatment.getCost() : null,
+            appointment != null ? "Treatment on " + appointment.getDate() : null);
     }
 
     public List<Treatment> getTreatmentsByPatientId(Long patientId) {
-        List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
-        List<Long> appointmentIds = appointments.stream().map(Appointment::getId).collect(Collectors.toList());
-        if (appointmentIds.isEmpty()) return List.of();
-        return treatmentRepository.findByAppointmentIdIn(appointmentIds);
+        return treatmentRepository.findByPatientId(patientId);
     }
 
     public Optional<Treatment> getTreatmentById(Long id) {
@@ -0,0 +1,96 @@
+package com.dentalcare.util;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe LRU cache with a per-entry time to live. Reads and writes are O(1) under a
+ * single monitor, which is fine for the short critical sections it is used for. An optional
+ * callback is told about values dropped because they expired or were evicted for space; it runs
+ * under the monitor, so it must be quick.
+ */
+public class LruCache<K, V> {
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Consumer<V> onRemoval;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    public LruCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, value -> {});
+    }
+
+    public LruCache(int maxEntries, long ttlMillis, Consumer<V> onRemoval) {
+        this(maxEntries, ttlMillis, onRemoval, Clock.systemUTC());
+    }
+
+    public LruCache(int maxEntries, long ttlMillis, Consumer<V> onRemoval, Clock clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.onRemoval = onRemoval;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                onRemoval.accept(eldest.getValue().value());
+                return true;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            onRemoval.accept(entry.value());
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+    }
+
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /** Drops every expired entry; expired entries are otherwise only dropped when read. */
+    public synchronized void removeExpired() {
+        long now = clock.millis();
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.expiresAt() <= now) {
+                iterator.remove();
+                onRemoval.accept(entry.value());
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
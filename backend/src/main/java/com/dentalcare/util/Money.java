@@ -0,0 +1,132 @@
+package com.dentalcare.util;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money in minor units (paise). Arithmetic is exact long arithmetic; the only
+ * rounding happens in percent and dividedBy, half away from zero. Stored as NUMERIC(12,2)
+ * through MoneyConverter and written to JSON as a plain decimal number, so clients see 12.5
+ * rather than 1250.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public static Money orZero(Money money) {
+        return money != null ? money : ZERO;
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public Money negate() {
+        return ofCents(-cents);
+    }
+
+    /** This amount times basisPoints / 10000, e.g. percent(900) is 9%. */
+    public Money percent(long basisPoints) {
+        return ofBasisPointCents(Math.multiplyExact(cents, basisPoints));
+    }
+
+    /**
+     * Rounds a sum of cents times basis points back to cents, so tax over several lines can be
+     * accumulated exactly and rounded once.
+     */
+    public static Money ofBasisPointCents(long basisPointCents) {
+        return ofCents(divideRounded(basisPointCents, 10_000));
+    }
+
+    public Money dividedBy(long divisor) {
+        return ofCents(divideRounded(cents, divisor));
+    }
+
+    public static Money min(Money a, Money b) {
+        return a.cents <= b.cents ? a : b;
+    }
+
+    public static Money max(Money a, Money b) {
+        return a.cents >= b.cents ? a : b;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString();
+    }
+
+    // Rounds half away from zero, like BigDecimal HALF_UP
+    private static long divideRounded(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
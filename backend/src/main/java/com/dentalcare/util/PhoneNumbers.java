@@ -0,0 +1,41 @@
+package com.dentalcare.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Canonicalises phone numbers to E.164 ("+919876543210") so numbers typed with spaces, dashes,
+ * brackets, a trunk 0 or a 00 prefix compare equal. Numbers without a country code get the
+ * clinic's default one.
+ */
+@Component
+public class PhoneNumbers {
+    private final String defaultCountryCode;
+
+    public PhoneNumbers(@Value("${phone.default-country-code:91}") String defaultCountryCode) {
+        this.defaultCountryCode = defaultCountryCode;
+    }
+
+    /** The E.164 form, or null if the input cannot be a phone number. */
+    public String toE164(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String trimmed = raw.trim();
+        String digits = trimmed.replaceAll("[^0-9]", "");
+        if (trimmed.startsWith("+")) {
+            // already international
+        } else if (digits.startsWith("00")) {
+            digits = digits.substring(2);
+        } else if (digits.length() == 11 && digits.startsWith("0")) {
+            digits = defaultCountryCode + digits.substring(1);
+        } else if (digits.length() == 10) {
+            digits = defaultCountryCode + digits;
+        }
+        // E.164 allows at most 15 digits; anything under 8 is an extension or a typo
+        if (digits.length() < 8 || digits.length() > 15 || digits.startsWith("0")) {
+            return null;
+        }
+        return "+" + digits;
+    }
+}
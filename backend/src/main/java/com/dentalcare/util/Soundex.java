@@ -0,0 +1,45 @@
+package com.dentalcare.util;
+
+/**
+ * American Soundex: the first letter followed by three digits for the consonant sounds that
+ * follow, so "Smith", "Smyth" and "Smithe" all encode to S530. Non-letters are ignored;
+ * a value without letters encodes to an empty string.
+ */
+public final class Soundex {
+    //                                     ABCDEFGHIJKLMNOPQRSTUVWXYZ
+    private static final String CODES = "01230120022455012623010202";
+
+    private Soundex() {
+    }
+
+    public static String encode(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder code = new StringBuilder(4);
+        char previous = 0;
+        for (int i = 0; i < value.length() && code.length() < 4; i++) {
+            char c = Character.toUpperCase(value.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                continue;
+            }
+            char digit = CODES.charAt(c - 'A');
+            if (code.length() == 0) {
+                code.append(c);
+            } else if (digit != '0' && digit != previous) {
+                code.append(digit);
+            }
+            // H and W do not separate two letters with the same code; vowels do
+            if (c != 'H' && c != 'W') {
+                previous = digit;
+            }
+        }
+        if (code.length() == 0) {
+            return "";
+        }
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,20 @@
+CREATE TABLE drug_interactions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    medicine_a_id BIGINT NOT NULL,
+    medicine_b_id BIGINT NOT NULL,
+    severity VARCHAR(255) NOT NULL,
+    description TEXT,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT ck_drug_interactions_pair_order CHECK (medicine_a_id < medicine_b_id),
+    CONSTRAINT uk_drug_interactions_pair UNIQUE (medicine_a_id, medicine_b_id)
+);
+
+CREATE TABLE drug_contraindications (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    medicine_id BIGINT NOT NULL,
+    keyword VARCHAR(255) NOT NULL,
+    severity VARCHAR(255) NOT NULL,
+    description TEXT,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_drug_contraindications_medicine_keyword UNIQUE (medicine_id, keyword)
+);
@@ -0,0 +1,8 @@
+-- Newest-first per-patient listings for the timeline; these supersede the single-column patient_id indexes
+CREATE INDEX IF NOT EXISTS idx_appointments_patient_id_date ON appointments (patient_id, date, start_time);
+CREATE INDEX IF NOT EXISTS idx_prescriptions_patient_id_created_at ON prescriptions (patient_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_amounts_patient_id_created_at ON amounts (patient_id, created_at);
+
+DROP INDEX IF EXISTS idx_appointments_patient_id;
+DROP INDEX IF EXISTS idx_prescriptions_patient_id;
+DROP INDEX IF EXISTS idx_amounts_patient_id;
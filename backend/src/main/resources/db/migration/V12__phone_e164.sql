@@ -0,0 +1,11 @@
+-- Canonical E.164 phone numbers, filled by the services on write and by PhoneBackfillService
+-- for older rows. Patients may share a number (families), pharmacy customers may not.
+ALTER TABLE patients ADD COLUMN phone_e164 VARCHAR(255);
+ALTER TABLE pharmacy_customers ADD COLUMN phone_e164 VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_patients_phone_e164 ON patients (phone_e164);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_pharmacy_customers_phone_e164 ON pharmacy_customers (phone_e164)
+    WHERE phone_e164 IS NOT NULL;
+
+-- Lookups and search now go through phone_e164
+DROP INDEX IF EXISTS idx_patients_phone;
@@ -0,0 +1,18 @@
+-- Soundex of last name plus date of birth, filled by the application (see PatientDedupeService)
+ALTER TABLE patients ADD COLUMN blocking_key VARCHAR(255);
+CREATE INDEX IF NOT EXISTS idx_patients_blocking_key ON patients (blocking_key, id);
+
+CREATE TABLE patient_duplicates (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    duplicate_id BIGINT NOT NULL,
+    score INTEGER NOT NULL,
+    reasons VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    resolved_at TIMESTAMP(6),
+    CONSTRAINT uk_patient_duplicates_pair UNIQUE (patient_id, duplicate_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_duplicates_status ON patient_duplicates (status, score DESC, id);
+CREATE INDEX IF NOT EXISTS idx_patient_duplicates_duplicate ON patient_duplicates (duplicate_id);
@@ -0,0 +1,16 @@
+-- Per-patient visit aggregates maintained by PatientStatsService; seeded here from history
+ALTER TABLE patients ADD COLUMN visit_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE patients ADD COLUMN lifetime_spend DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+UPDATE patients p SET visit_count = v.visits, last_visit = v.last_visit
+FROM (SELECT patient_id, count(*) AS visits, max(date + start_time) AS last_visit
+      FROM appointments WHERE status = 'completed' GROUP BY patient_id) v
+WHERE p.id = v.patient_id;
+
+UPDATE patients p SET lifetime_spend = s.spend
+FROM (SELECT patient_id, sum(amount) AS spend FROM amounts GROUP BY patient_id) s
+WHERE p.id = s.patient_id;
+
+CREATE INDEX IF NOT EXISTS idx_patients_last_visit ON patients (last_visit);
+CREATE INDEX IF NOT EXISTS idx_patients_visit_count ON patients (visit_count);
+CREATE INDEX IF NOT EXISTS idx_patients_lifetime_spend ON patients (lifetime_spend);
@@ -0,0 +1,26 @@
+ALTER TABLE appointments ADD COLUMN fee DOUBLE PRECISION;
+ALTER TABLE treatments ADD COLUMN cost DOUBLE PRECISION;
+ALTER TABLE patients ADD COLUMN outstanding_balance DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- Starts empty: historic payments have no recorded charges to settle
+CREATE TABLE patient_ledger (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    entry_type VARCHAR(255) NOT NULL,
+    source_type VARCHAR(255) NOT NULL,
+    source_id BIGINT NOT NULL,
+    amount DOUBLE PRECISION NOT NULL,
+    balance_after DOUBLE PRECISION NOT NULL,
+    open_amount DOUBLE PRECISION NOT NULL,
+    description VARCHAR(255),
+    posted_at TIMESTAMP(6) NOT NULL,
+    reversed_at TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_ledger_patient_id ON patient_ledger (patient_id, id);
+CREATE INDEX IF NOT EXISTS idx_patient_ledger_source ON patient_ledger (source_type, source_id);
+-- Aging and payment allocation only ever read charges that are still unpaid
+CREATE INDEX IF NOT EXISTS idx_patient_ledger_open ON patient_ledger (patient_id, posted_at, id)
+    INCLUDE (open_amount) WHERE open_amount > 0;
+CREATE INDEX IF NOT EXISTS idx_patients_outstanding_balance ON patients (outstanding_balance DESC, id)
+    WHERE outstanding_balance > 0;
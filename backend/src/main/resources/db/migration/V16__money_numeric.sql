@@ -0,0 +1,34 @@
+-- Money is held as exact cents in the application; store it as fixed-point so values
+-- round-trip without binary floating point drift
+ALTER TABLE amounts ALTER COLUMN amount TYPE NUMERIC(12, 2) USING round(amount::numeric, 2);
+
+ALTER TABLE pharmacy_sales
+    ALTER COLUMN subtotal TYPE NUMERIC(12, 2) USING round(subtotal::numeric, 2),
+    ALTER COLUMN sgst TYPE NUMERIC(12, 2) USING round(sgst::numeric, 2),
+    ALTER COLUMN cgst TYPE NUMERIC(12, 2) USING round(cgst::numeric, 2),
+    ALTER COLUMN discount TYPE NUMERIC(12, 2) USING round(discount::numeric, 2),
+    ALTER COLUMN total TYPE NUMERIC(12, 2) USING round(total::numeric, 2);
+
+ALTER TABLE pharmacy_sale_items
+    ALTER COLUMN unit_price TYPE NUMERIC(12, 2) USING round(unit_price::numeric, 2),
+    ALTER COLUMN total_price TYPE NUMERIC(12, 2) USING round(total_price::numeric, 2);
+
+ALTER TABLE medicines ALTER COLUMN price TYPE NUMERIC(12, 2) USING round(price::numeric, 2);
+ALTER TABLE appointments ALTER COLUMN fee TYPE NUMERIC(12, 2) USING round(fee::numeric, 2);
+ALTER TABLE treatments ALTER COLUMN cost TYPE NUMERIC(12, 2) USING round(cost::numeric, 2);
+
+ALTER TABLE patients
+    ALTER COLUMN lifetime_spend TYPE NUMERIC(12, 2) USING round(lifetime_spend::numeric, 2),
+    ALTER COLUMN outstanding_balance TYPE NUMERIC(12, 2) USING round(outstanding_balance::numeric, 2);
+
+ALTER TABLE patient_ledger
+    ALTER COLUMN amount TYPE NUMERIC(12, 2) USING round(amount::numeric, 2),
+    ALTER COLUMN balance_after TYPE NUMERIC(12, 2) USING round(balance_after::numeric, 2),
+    ALTER COLUMN open_amount TYPE NUMERIC(12, 2) USING round(open_amount::numeric, 2);
+
+ALTER TABLE medicine_daily_sales ALTER COLUMN revenue TYPE NUMERIC(14, 2) USING round(revenue::numeric, 2);
+
+-- Re-derive from the rounded payments so the aggregate matches them to the cent
+UPDATE patients p SET lifetime_spend = s.spend
+FROM (SELECT patient_id, sum(amount) AS spend FROM amounts GROUP BY patient_id) s
+WHERE p.id = s.patient_id AND p.lifetime_spend <> s.spend;
@@ -0,0 +1,13 @@
+CREATE TABLE tax_rates (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    medicine_type VARCHAR(255) NOT NULL UNIQUE,
+    sgst_basis_points INTEGER NOT NULL,
+    cgst_basis_points INTEGER NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT ck_tax_rates_basis_points CHECK (sgst_basis_points BETWEEN 0 AND 10000
+        AND cgst_basis_points BETWEEN 0 AND 10000)
+);
+
+-- The fallback row carries the 9% + 9% GST that sales were charged until now
+INSERT INTO tax_rates (medicine_type, sgst_basis_points, cgst_basis_points, updated_at)
+VALUES ('*', 900, 900, now());
@@ -0,0 +1,10 @@
+-- The feed version is stamped after the writing transaction commits, by one short serialised
+-- step, so versions become visible in order without writers holding a lock until commit.
+-- NULL until stamped; existing events keep their id as version so client cursors stay valid.
+ALTER TABLE change_events ADD COLUMN version BIGINT;
+UPDATE change_events SET version = id;
+
+CREATE UNIQUE INDEX idx_change_events_version ON change_events (version);
+CREATE INDEX idx_change_events_entity_type_version ON change_events (entity_type, version);
+CREATE INDEX idx_change_events_unstamped ON change_events (id) WHERE version IS NULL;
+DROP INDEX IF EXISTS idx_change_events_entity_type_id;
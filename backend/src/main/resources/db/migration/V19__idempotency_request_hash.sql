@@ -0,0 +1,2 @@
+-- SHA-256 of the request body that first claimed the key; NULL for keys stored before this column
+ALTER TABLE idempotency_keys ADD COLUMN request_hash VARCHAR(64);
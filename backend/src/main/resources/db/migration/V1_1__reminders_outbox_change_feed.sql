@@ -0,0 +1,38 @@
+-- Tables and columns added for reminders, the email outbox and the change feed. Written with
+-- IF NOT EXISTS so databases that ddl-auto=update already extended are left as they are.
+
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE treatments ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE prescriptions ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE pharmacy_sales ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+
+CREATE TABLE IF NOT EXISTS appointment_reminders (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    appointment_id BIGINT NOT NULL UNIQUE,
+    attempts INTEGER NOT NULL,
+    last_error TEXT,
+    sent_at TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP(6) NOT NULL,
+    sent_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS change_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entity_type VARCHAR(255) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
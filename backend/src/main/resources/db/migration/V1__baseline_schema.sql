@@ -0,0 +1,149 @@
+-- Baseline schema, matching what hibernate ddl-auto=update produced before migrations took over.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE roles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    description TEXT,
+    permissions JSONB,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    role_id BIGINT REFERENCES roles (id),
+    avatar VARCHAR(255)
+);
+
+CREATE TABLE patients (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    phone VARCHAR(255) NOT NULL,
+    date_of_birth DATE NOT NULL,
+    gender VARCHAR(255) NOT NULL,
+    address VARCHAR(255) NOT NULL,
+    medical_history TEXT,
+    insurance_info VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    last_visit TIMESTAMP(6)
+);
+
+CREATE TABLE appointments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    patient_name VARCHAR(255) NOT NULL,
+    dentist_id BIGINT NOT NULL,
+    dentist_name VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+    start_time TIME(6) NOT NULL,
+    end_time TIME(6) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    treatment_type VARCHAR(255) NOT NULL,
+    notes TEXT,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE amounts (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    appointment_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    amount DOUBLE PRECISION NOT NULL,
+    payment_type VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE treatments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    appointment_id BIGINT NOT NULL,
+    description TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE manufacturers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE medicine_types (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE medicines (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    description TEXT,
+    manufacturer VARCHAR(255),
+    stock INTEGER NOT NULL,
+    unit VARCHAR(255) NOT NULL,
+    price DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    date_of_mfg DATE,
+    date_of_expiry DATE
+);
+
+CREATE TABLE prescriptions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    patient_name VARCHAR(255) NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    dentist_id BIGINT NOT NULL,
+    dentist_name VARCHAR(255) NOT NULL,
+    notes TEXT,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE prescription_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    prescription_id BIGINT REFERENCES prescriptions (id),
+    medicine_id BIGINT NOT NULL,
+    medicine_name VARCHAR(255) NOT NULL,
+    medicine_type VARCHAR(255) NOT NULL,
+    dosage VARCHAR(255) NOT NULL,
+    frequency VARCHAR(255) NOT NULL,
+    duration VARCHAR(255) NOT NULL,
+    instructions VARCHAR(255)
+);
+
+CREATE TABLE pharmacy_customers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    phone VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255),
+    address TEXT,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE pharmacy_sales (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    customer_name VARCHAR(255) NOT NULL,
+    customer_phone VARCHAR(255) NOT NULL,
+    subtotal DOUBLE PRECISION NOT NULL,
+    sgst DOUBLE PRECISION NOT NULL,
+    cgst DOUBLE PRECISION NOT NULL,
+    discount DOUBLE PRECISION NOT NULL,
+    total DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE pharmacy_sale_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sale_id BIGINT REFERENCES pharmacy_sales (id),
+    medicine_id BIGINT NOT NULL,
+    medicine_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price DOUBLE PRECISION NOT NULL,
+    total_price DOUBLE PRECISION NOT NULL
+);
@@ -0,0 +1,27 @@
+-- Indexes for the predicates used by repository finders, reports and background jobs.
+-- IF NOT EXISTS because databases baselined from ddl-auto may already have some of them.
+
+-- Calendar day/week/month views and upcoming appointments
+CREATE INDEX IF NOT EXISTS idx_appointments_date_start_time ON appointments (date, start_time);
+-- Reminder selection (date + status)
+CREATE INDEX IF NOT EXISTS idx_appointments_date_status ON appointments (date, status);
+CREATE INDEX IF NOT EXISTS idx_appointments_patient_id ON appointments (patient_id);
+CREATE INDEX IF NOT EXISTS idx_appointments_dentist_id_date ON appointments (dentist_id, date);
+
+CREATE INDEX IF NOT EXISTS idx_amounts_created_at ON amounts (created_at);
+CREATE INDEX IF NOT EXISTS idx_amounts_appointment_id ON amounts (appointment_id);
+CREATE INDEX IF NOT EXISTS idx_amounts_patient_id ON amounts (patient_id);
+
+CREATE INDEX IF NOT EXISTS idx_patients_created_at ON patients (created_at);
+CREATE INDEX IF NOT EXISTS idx_patients_phone ON patients (phone);
+
+CREATE INDEX IF NOT EXISTS idx_pharmacy_sales_created_at ON pharmacy_sales (created_at);
+CREATE INDEX IF NOT EXISTS idx_pharmacy_sale_items_sale_id ON pharmacy_sale_items (sale_id);
+
+CREATE INDEX IF NOT EXISTS idx_prescriptions_patient_id ON prescriptions (patient_id);
+CREATE INDEX IF NOT EXISTS idx_prescription_items_prescription_id ON prescription_items (prescription_id);
+
+CREATE INDEX IF NOT EXISTS idx_treatments_appointment_id ON treatments (appointment_id);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_change_events_entity_type_id ON change_events (entity_type, id);
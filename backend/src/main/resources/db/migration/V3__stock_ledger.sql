@@ -0,0 +1,24 @@
+CREATE TABLE stock_movements (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    medicine_id BIGINT NOT NULL,
+    movement_type VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    reference_id BIGINT,
+    note VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Serves both the history listing and the "movements since snapshot" range sums
+CREATE INDEX idx_stock_movements_medicine_created_at ON stock_movements (medicine_id, created_at);
+
+CREATE TABLE stock_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    medicine_id BIGINT NOT NULL,
+    stock INTEGER NOT NULL,
+    snapshot_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_stock_snapshots_medicine_snapshot_at UNIQUE (medicine_id, snapshot_at)
+);
+
+-- Opening snapshot: the ledger starts from today's stock figures
+INSERT INTO stock_snapshots (medicine_id, stock, snapshot_at)
+SELECT id, stock, now() FROM medicines;
@@ -0,0 +1,22 @@
+CREATE TABLE medicine_lots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    medicine_id BIGINT NOT NULL,
+    lot_number VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity >= 0),
+    date_of_mfg DATE,
+    date_of_expiry DATE,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+-- Only lots still holding stock are indexed: FEFO allocation per medicine, and the expiry alert range scan
+CREATE INDEX idx_medicine_lots_medicine_expiry ON medicine_lots (medicine_id, date_of_expiry, id) WHERE quantity > 0;
+CREATE INDEX idx_medicine_lots_expiry ON medicine_lots (date_of_expiry) WHERE quantity > 0;
+
+-- Low-stock alerts
+CREATE INDEX idx_medicines_stock ON medicines (stock);
+
+ALTER TABLE stock_movements ADD COLUMN lot_id BIGINT;
+
+-- Existing stock becomes one opening lot per medicine carrying its catalog dates
+INSERT INTO medicine_lots (medicine_id, lot_number, quantity, date_of_mfg, date_of_expiry, created_at)
+SELECT id, 'OPENING', stock, date_of_mfg, date_of_expiry, now() FROM medicines WHERE stock > 0;
@@ -0,0 +1,2 @@
+-- Customer-filtered sales listing, newest first
+CREATE INDEX IF NOT EXISTS idx_pharmacy_sales_customer_id_created_at ON pharmacy_sales (customer_id, created_at);
@@ -0,0 +1,15 @@
+CREATE TABLE medicine_daily_sales (
+    sale_date DATE NOT NULL,
+    medicine_id BIGINT NOT NULL,
+    medicine_name VARCHAR(255) NOT NULL,
+    quantity BIGINT NOT NULL,
+    revenue DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (sale_date, medicine_id)
+);
+
+-- Aggregate the existing sale history once; new sales add to it as they commit
+INSERT INTO medicine_daily_sales (sale_date, medicine_id, medicine_name, quantity, revenue)
+SELECT CAST(s.created_at AS DATE), i.medicine_id, MAX(i.medicine_name), SUM(i.quantity), SUM(i.total_price)
+FROM pharmacy_sales s
+JOIN pharmacy_sale_items i ON i.sale_id = s.id
+GROUP BY CAST(s.created_at AS DATE), i.medicine_id;
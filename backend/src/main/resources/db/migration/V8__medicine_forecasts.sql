@@ -0,0 +1,13 @@
+CREATE TABLE medicine_forecasts (
+    medicine_id BIGINT PRIMARY KEY,
+    daily_velocity DOUBLE PRECISION NOT NULL,
+    last_day DATE NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+-- Reorder point written by the forecasting job; 20 (the old fixed threshold) until the first run
+ALTER TABLE medicines ADD COLUMN reorder_point INTEGER NOT NULL DEFAULT 20;
+
+-- Stock alerts become a range scan on how far stock is above its reorder point
+DROP INDEX IF EXISTS idx_medicines_stock;
+CREATE INDEX idx_medicines_stock_above_reorder_point ON medicines ((stock - reorder_point));
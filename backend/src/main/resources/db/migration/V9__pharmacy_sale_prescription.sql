@@ -0,0 +1,4 @@
+ALTER TABLE pharmacy_sales ADD COLUMN prescription_id BIGINT;
+
+-- A prescription is dispensed by at most one sale; also serves the "already fulfilled" check
+CREATE UNIQUE INDEX uk_pharmacy_sales_prescription_id ON pharmacy_sales (prescription_id) WHERE prescription_id IS NOT NULL;
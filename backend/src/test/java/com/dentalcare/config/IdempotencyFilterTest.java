@@ -0,0 +1,91 @@
+package com.dentalcare.config;
+
+import com.dentalcare.service.IdempotencyService;
+import com.dentalcare.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+    private static final String SCOPE_KEY = "POST /api/amounts key-1";
+
+    private IdempotencyService idempotencyService;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = mock(IdempotencyService.class);
+        filter = new IdempotencyFilter(idempotencyService, Set.of("/amounts"));
+    }
+
+    @Test
+    void retryWithTheSameBodyIsReplayed() throws Exception {
+        when(idempotencyService.claim(eq(SCOPE_KEY), anyString())).thenReturn(true);
+        FilterChain chain = (request, response) -> {
+            // The controller can still read the body the filter hashed
+            assertThat(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"amount\":500}");
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("{\"id\":7}");
+        };
+        filter.doFilter(post("{\"amount\":500}"), new MockHttpServletResponse(), chain);
+
+        ArgumentCaptor<StoredResponse> stored = ArgumentCaptor.forClass(StoredResponse.class);
+        verify(idempotencyService).complete(eq(SCOPE_KEY), stored.capture());
+        when(idempotencyService.getCachedResponse(SCOPE_KEY)).thenReturn(stored.getValue());
+
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        FilterChain notCalled = mock(FilterChain.class);
+        filter.doFilter(post("{\"amount\":500}"), retry, notCalled);
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":7}");
+        verifyNoInteractions(notCalled);
+    }
+
+    @Test
+    void reuseWithADifferentBodyIsRejected() throws Exception {
+        String firstHash = "0".repeat(64);
+        when(idempotencyService.getCachedResponse(SCOPE_KEY)).thenReturn(new StoredResponse(firstHash, 201, null, "{}"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain notCalled = mock(FilterChain.class);
+        filter.doFilter(post("{\"amount\":900}"), response, notCalled);
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        verifyNoInteractions(notCalled);
+    }
+
+    @Test
+    void reuseWhileTheFirstRequestRunsIsRejectedWhenTheBodyDiffers() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(false);
+        when(idempotencyService.matchesClaim(anyString(), anyString())).thenReturn(false);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("{\"amount\":900}"), response, mock(FilterChain.class));
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        verify(idempotencyService, never()).complete(anyString(), any());
+    }
+
+    private static MockHttpServletRequest post(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/amounts");
+        request.setContextPath("/api");
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
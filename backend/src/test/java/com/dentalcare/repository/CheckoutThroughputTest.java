@@ -0,0 +1,127 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.PostgresTestSupport;
+import com.dentalcare.model.Medicine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Timed comparison of the checkout stock step: the old per-line findById, check and save against
+ * the single conditional batch. Counters sell 10-line baskets drawn from a small shared shelf so
+ * they contend on the same rows; prints sales/sec for both and checks the batch loses nothing.
+ */
+@SpringBootTest
+class CheckoutThroughputTest extends PostgresTestSupport {
+    private static final int COUNTERS = 8;
+    private static final int SALES_PER_COUNTER = 50;
+    private static final int SHELF = 20;
+    private static final int LINES = 10;
+    private static final int STOCK = 1_000_000;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void conditionalBatchOutsellsLoadAndSave() throws Exception {
+        // The batch goes first, so JVM warm-up counts against it rather than for it
+        Result batch = run("conditional batch", basket -> medicineRepository.decrementStock(new TreeMap<>(basket)));
+        Result loadAndSave = run("load and save", this::loadAndSave);
+
+        assertThat(batch.failed).isZero();
+        assertThat(batch.lostUnits).isZero();
+        assertThat(batch.salesPerSecond).isPositive();
+        assertThat(loadAndSave.salesPerSecond).isPositive();
+    }
+
+    // What createSale did before: one SELECT and one full-row UPDATE per line, in basket order
+    private void loadAndSave(Map<Long, Integer> basket) {
+        basket.forEach((medicineId, quantity) -> {
+            Medicine medicine = medicineRepository.findById(medicineId).orElseThrow();
+            if (medicine.getStock() < quantity) {
+                throw new IllegalStateException("Insufficient stock for " + medicine.getName());
+            }
+            medicine.setStock(medicine.getStock() - quantity);
+            medicineRepository.save(medicine);
+        });
+    }
+
+    private Result run(String name, Consumer<Map<Long, Integer>> stockStep) throws Exception {
+        List<Long> shelf = new ArrayList<>();
+        for (int i = 0; i < SHELF; i++) {
+            shelf.add(insertMedicine(name + " " + i));
+        }
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger unitsSold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(COUNTERS);
+        CountDownLatch start = new CountDownLatch(1);
+        long elapsed;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < COUNTERS; c++) {
+                long seed = c;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int s = 0; s < SALES_PER_COUNTER; s++) {
+                        Map<Long, Integer> basket = basket(shelf, random);
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> stockStep.accept(basket));
+                            committed.incrementAndGet();
+                            unitsSold.addAndGet(basket.values().stream().mapToInt(Integer::intValue).sum());
+                        } catch (RuntimeException e) {
+                            // Deadlocks between counters locking rows in different orders land here
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            elapsed = System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int remaining = jdbcTemplate.queryForObject("SELECT SUM(stock) FROM medicines WHERE id IN (" +
+            String.join(",", shelf.stream().map(String::valueOf).toList()) + ")", Integer.class);
+        int taken = SHELF * STOCK - remaining;
+        Result result = new Result(committed.get() / (elapsed / 1e9), failed.get(), unitsSold.get() - taken);
+        System.out.printf("%-17s %8.1f sales/sec, %d failed, %d units sold but not taken from stock%n",
+            name, result.salesPerSecond, result.failed, result.lostUnits);
+        return result;
+    }
+
+    // Lines in random order, as a cashier scans them
+    private static Map<Long, Integer> basket(List<Long> shelf, Random random) {
+        List<Long> picked = new ArrayList<>(shelf);
+        Collections.shuffle(picked, random);
+        Map<Long, Integer> basket = new LinkedHashMap<>();
+        for (Long medicineId : picked.subList(0, LINES)) {
+            basket.put(medicineId, 1 + random.nextInt(3));
+        }
+        return basket;
+    }
+
+    private static long insertMedicine(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO medicines (name, type, stock, unit, price, created_at, updated_at) " +
+            "VALUES (?, 'Analgesic', ?, 'tablet', 3.00, now(), now()) RETURNING id", Long.class, name, STOCK);
+    }
+
+    private record Result(double salesPerSecond, int failed, int lostUnits) {}
+}
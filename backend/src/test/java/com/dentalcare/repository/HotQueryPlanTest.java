@@ -0,0 +1,350 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.PostgresTestSupport;
+import com.dentalcare.dto.PageRequest;
+import com.dentalcare.model.Amount;
+import com.dentalcare.model.ChangeEvent;
+import com.dentalcare.service.MedicineLotService;
+import com.dentalcare.service.PatientService;
+import com.dentalcare.service.PharmacySaleService;
+import com.dentalcare.service.ReceivablesService;
+import com.dentalcare.util.Money;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Captures the statements the hot repository and service calls actually send, with their bind
+ * values, at the JDBC layer; then runs EXPLAIN on each against seeded tables and fails if any
+ * falls back to a sequential scan of a table larger than SEQ_SCAN_THRESHOLD rows.
+ */
+@SpringBootTest
+class HotQueryPlanTest extends PostgresTestSupport {
+    private static final int ROWS = 20_000;
+    // Seeded ids sit above anything other tests sharing the database insert
+    private static final int ID_OFFSET = 1_000_000;
+    private static final long SEQ_SCAN_THRESHOLD = 1_000;
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final Pattern EXPLAINABLE = Pattern.compile("\\s*(select|with|update|delete)\\b", Pattern.CASE_INSENSITIVE);
+    private static final LocalDate DAY = LocalDate.of(2021, 6, 1);
+    private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private AmountRepository amountRepository;
+    @Autowired
+    private PharmacySaleRepository pharmacySaleRepository;
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+    @Autowired
+    private TreatmentRepository treatmentRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private PharmacyCustomerRepository pharmacyCustomerRepository;
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+    @Autowired
+    private PatientService patientService;
+    @Autowired
+    private PharmacySaleService pharmacySaleService;
+    @Autowired
+    private ReceivablesService receivablesService;
+    @Autowired
+    private MedicineLotService medicineLotService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void seed() {
+        jdbcTemplate.update("INSERT INTO patients (id, first_name, last_name, email, phone, phone_e164, date_of_birth, " +
+            "gender, address, created_at, visit_count, last_visit) " +
+            "SELECT g + " + ID_OFFSET + ", 'First' || g, 'Last' || g, 'p' || g || '@example.com', '98' || lpad(g::text, 8, '0'), " +
+            "'+9198' || lpad(g::text, 8, '0'), DATE '1980-01-01' + g % 10000, 'F', 'Street ' || g, " +
+            "TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours', g % 1000, TIMESTAMP '2020-01-01' + g * INTERVAL '1 hour' " +
+            "FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO appointments (id, patient_id, patient_name, dentist_id, dentist_name, date, start_time, " +
+            "end_time, status, type, treatment_type, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", g % 5000 + 1, 'Patient ' || g, g % 20 + 1, 'Dentist', DATE '2020-01-01' + g / 10, " +
+            "TIME '09:00' + (g % 10) * INTERVAL '30 minutes', TIME '09:30' + (g % 10) * INTERVAL '30 minutes', " +
+            "(ARRAY['scheduled', 'confirmed', 'completed', 'cancelled'])[g % 4 + 1], 'Checkup', 'dental', " +
+            "TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO amounts (id, appointment_id, patient_id, amount, payment_type, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", g, g % 5000 + 1, 500, 'cash', TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' " +
+            "FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO pharmacy_customers (id, name, phone, phone_e164, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", 'Customer ' || g, '97' || lpad(g::text, 8, '0'), '+9197' || lpad(g::text, 8, '0'), " +
+            "TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO pharmacy_sales (id, customer_id, customer_name, customer_phone, subtotal, sgst, cgst, " +
+            "discount, total, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", g % 5000 + 1 + " + ID_OFFSET + ", 'Customer', '9800000000', 100, 9, 9, 0, 118, " +
+            "TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO pharmacy_sale_items (sale_id, medicine_id, medicine_name, quantity, unit_price, total_price) " +
+            "SELECT g + " + ID_OFFSET + ", g % 2000 + 1 + " + ID_OFFSET + ", 'Medicine', 1, 100, 100 FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO prescriptions (id, patient_id, patient_name, appointment_id, dentist_id, dentist_name, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", g % 5000 + 1, 'Patient', g, g % 20 + 1, 'Dentist', TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' " +
+            "FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO treatments (id, appointment_id, description, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", g, 'Scaling', TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO medicines (id, name, type, stock, unit, price, created_at, updated_at) " +
+            "SELECT g + " + ID_OFFSET + ", 'Medicine ' || g, 'tablet', 100, 'tablet', 2.50, now(), now() " +
+            "FROM generate_series(1, 2000) g");
+        // Ten lots per medicine, one in ten already expired
+        jdbcTemplate.update("INSERT INTO medicine_lots (id, medicine_id, lot_number, quantity, date_of_expiry, created_at) " +
+            "SELECT g + " + ID_OFFSET + ", g % 2000 + 1 + " + ID_OFFSET + ", 'LOT' || g, 10, current_date - 30 + g % 300, now() " +
+            "FROM generate_series(1, ?) g", ROWS);
+        // One open charge in ten, the rest settled
+        jdbcTemplate.update("INSERT INTO patient_ledger (id, patient_id, entry_type, source_type, source_id, amount, balance_after, " +
+            "open_amount, posted_at) " +
+            "SELECT g + " + ID_OFFSET + ", g % 5000 + 1 + " + ID_OFFSET + ", 'charge', 'appointment', g + " + ID_OFFSET + ", 500, 500, " +
+            "CASE WHEN g % 10 = 0 THEN 500 ELSE 0 END, TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours' " +
+            "FROM generate_series(1, ?) g", ROWS);
+        jdbcTemplate.update("INSERT INTO change_events (id, entity_type, entity_id, operation, created_at, version) " +
+            "SELECT g + " + ID_OFFSET + ", (ARRAY['patient', 'appointment', 'medicine', 'pharmacy_sale'])[g % 4 + 1], g, 'update', " +
+            "TIMESTAMP '2020-01-01' + g * INTERVAL '2 hours', g + " + ID_OFFSET + " FROM generate_series(1, ?) g", ROWS);
+        for (String table : List.of("patients", "appointments", "amounts", "pharmacy_customers", "pharmacy_sales",
+                "prescriptions", "treatments", "medicines", "medicine_lots", "patient_ledger", "change_events")) {
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), (SELECT MAX(id) FROM " + table + "))",
+                Long.class, table);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void appointmentQueries() {
+        assertPlansAvoidSequentialScans(() -> {
+            appointmentRepository.findByDate(DAY);
+            appointmentRepository.findByDateBetween(DAY, DAY.plusDays(6));
+            appointmentRepository.findByPatientId(42L);
+            appointmentRepository.findUpcomingAppointments(DAY, org.springframework.data.domain.PageRequest.of(0, 10));
+            appointmentRepository.findDueForReminder(DAY, "confirmed", 3, 0L,
+                org.springframework.data.domain.PageRequest.of(0, 500));
+        });
+    }
+
+    @Test
+    void paymentQueries() {
+        assertPlansAvoidSequentialScans(() -> {
+            amountRepository.findByAppointmentId(42L);
+            amountRepository.findByPatientId(42L);
+            amountRepository.findByCreatedAtBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        });
+    }
+
+    @Test
+    void clinicalHistoryQueries() {
+        assertPlansAvoidSequentialScans(() -> {
+            prescriptionRepository.findByPatientId(42L);
+            prescriptionRepository.findIdsByPatientId(42L, org.springframework.data.domain.PageRequest.of(0, 20));
+            treatmentRepository.findByAppointmentId(42L);
+            treatmentRepository.findByPatientId(42L);
+            patientRepository.findByCreatedAtBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        });
+    }
+
+    @Test
+    void phoneLookups() {
+        assertPlansAvoidSequentialScans(() -> {
+            patientRepository.findFirstByPhoneE164OrderByIdAsc("+919800000042");
+            pharmacyCustomerRepository.findByPhoneE164("+919700000042");
+        });
+    }
+
+    @Test
+    void patientSearchWithVisitFilters() {
+        // Filters selective enough that an index beats reading the table
+        assertPlansAvoidSequentialScans(() -> {
+            patientService.getAllPatients(new PageRequest(0, 20, "visitCount", "desc"), 995, null);
+            patientService.getAllPatients(new PageRequest(0, 20, "lastVisit", "desc"), null, LocalDate.of(2020, 1, 5));
+        });
+    }
+
+    @Test
+    void changeFeedSinceVersion() {
+        long since = ID_OFFSET + ROWS - 100;
+        org.springframework.data.domain.PageRequest limit = org.springframework.data.domain.PageRequest.of(0, 500);
+        assertPlansAvoidSequentialScans(() -> {
+            changeEventRepository.findByVersionGreaterThanOrderByVersionAsc(since, limit);
+            changeEventRepository.findByEntityTypeAndVersionGreaterThanOrderByVersionAsc(ChangeEvent.PATIENT, since, limit);
+            changeEventRepository.findByEntityTypeInAndVersionGreaterThanOrderByVersionAsc(
+                List.of(ChangeEvent.PATIENT, ChangeEvent.APPOINTMENT), since, limit);
+            changeEventRepository.findLatestVersion();
+        });
+    }
+
+    @Test
+    void ledgerOpenCharges() {
+        Amount payment = new Amount();
+        payment.setId((long) ID_OFFSET + ROWS + 1);
+        payment.setPatientId((long) ID_OFFSET + 42);
+        payment.setAmount(Money.ofCents(20_000));
+        payment.setPaymentType("cash");
+        assertPlansAvoidSequentialScans(() -> inRolledBackTransaction(() -> receivablesService.recordPayment(payment)));
+    }
+
+    @Test
+    void lotAllocationSoonestExpiryFirst() {
+        long medicineId = ID_OFFSET + 42;
+        assertPlansAvoidSequentialScans(() -> inRolledBackTransaction(() -> {
+            medicineLotService.getExpiredQuantities(List.of(medicineId));
+            medicineLotService.allocate(new TreeMap<>(Map.of(medicineId, 15)));
+            medicineLotService.allocateExpired(medicineId, 5);
+        }));
+    }
+
+    @Test
+    void saleSummaries() {
+        assertPlansAvoidSequentialScans(() -> {
+            pharmacySaleService.getSaleSummaries(DAY, DAY.plusDays(6), null, 0, 20);
+            pharmacySaleService.getSaleSummaries(null, null, (long) ID_OFFSET + 42, 0, 20);
+            pharmacySaleRepository.findByCreatedAtBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        });
+    }
+
+    private void inRolledBackTransaction(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> {
+            work.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private static void assertPlansAvoidSequentialScans(Runnable calls) {
+        List<CapturedStatement> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            calls.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        List<CapturedStatement> explainable = statements.stream()
+            .filter(statement -> EXPLAINABLE.matcher(statement.sql).lookingAt())
+            .toList();
+        assertThat(explainable).as("statements captured").isNotEmpty();
+        for (CapturedStatement statement : explainable) {
+            List<String> plan = jdbcTemplate.query(connection -> {
+                PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql);
+                statement.bindTo(explain);
+                return explain;
+            }, (rs, rowNum) -> rs.getString(1));
+            for (String line : plan) {
+                Matcher matcher = SEQ_SCAN.matcher(line);
+                if (matcher.find()) {
+                    assertThat(rowCount(matcher.group(1)))
+                        .as("Sequential scan on %s for:%n%s%nin plan:%n%s", matcher.group(1), statement.sql, String.join("\n", plan))
+                        .isLessThanOrEqualTo(SEQ_SCAN_THRESHOLD);
+                }
+            }
+        }
+    }
+
+    private static long rowCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT reltuples::bigint FROM pg_class WHERE oid = ?::regclass", Long.class, table);
+    }
+
+    /** SQL of one prepared statement and the last value bound to each of its parameters. */
+    private static final class CapturedStatement {
+        final String sql;
+        final Map<Integer, Object[]> binds = new TreeMap<>();
+        final Map<Integer, Method> setters = new HashMap<>();
+
+        CapturedStatement(String sql) {
+            this.sql = sql;
+        }
+
+        void bindTo(PreparedStatement statement) throws SQLException {
+            for (Map.Entry<Integer, Object[]> bind : binds.entrySet()) {
+                invoke(statement, setters.get(bind.getKey()), bind.getValue());
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfiguration {
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static final class CapturingDataSource extends DelegatingDataSource {
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capturing(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capturing(super.getConnection(username, password));
+        }
+
+        private static Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(HotQueryPlanTest.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    List<CapturedStatement> captured = CAPTURED.get();
+                    if (captured != null && "prepareStatement".equals(method.getName())) {
+                        CapturedStatement statement = new CapturedStatement((String) args[0]);
+                        captured.add(statement);
+                        return recording((PreparedStatement) result, statement);
+                    }
+                    return result;
+                });
+        }
+
+        // Keeps every setXxx(index, value...) call so the statement can be re-bound for EXPLAIN
+        private static PreparedStatement recording(PreparedStatement target, CapturedStatement statement) {
+            return (PreparedStatement) Proxy.newProxyInstance(HotQueryPlanTest.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && method.getParameterTypes()[0] == int.class) {
+                        statement.binds.put((Integer) args[0], args);
+                        statement.setters.put((Integer) args[0], method);
+                    }
+                    return invoke(target, method, args);
+                });
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
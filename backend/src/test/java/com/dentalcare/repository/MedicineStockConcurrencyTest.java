@@ -0,0 +1,79 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.PostgresTestSupport;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MedicineStockConcurrencyTest extends PostgresTestSupport {
+
+    @Test
+    void concurrentDecrementsNeverTakeStockBelowZero() throws Exception {
+        long medicineId = insertMedicine(50);
+
+        int sold = decrementConcurrently(medicineId, 16, 10, 1);
+
+        assertThat(sold).isEqualTo(50);
+        assertThat(stock(medicineId)).isZero();
+    }
+
+    @Test
+    void concurrentDecrementsLeaveExpiredUnitsUnsold() throws Exception {
+        long medicineId = insertMedicine(30);
+        jdbcTemplate.update("INSERT INTO medicine_lots (medicine_id, lot_number, quantity, date_of_expiry, created_at) " +
+            "VALUES (?, 'EXPIRED-1', 10, ?, now())", medicineId, LocalDate.now().minusDays(1));
+
+        int sold = decrementConcurrently(medicineId, 10, 1, 3);
+
+        assertThat(sold).isEqualTo(6 * 3);
+        assertThat(stock(medicineId)).isEqualTo(12);
+    }
+
+    // Each thread tries rounds decrements of quantity; returns the units actually taken
+    private static int decrementConcurrently(long medicineId, int threads, int rounds, int quantity) throws Exception {
+        MedicineRepositoryCustomImpl repository = new MedicineRepositoryCustomImpl(jdbcTemplate);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < rounds; r++) {
+                        TreeMap<Long, Integer> quantities = new TreeMap<>();
+                        quantities.put(medicineId, quantity);
+                        if (repository.decrementStock(quantities).isEmpty()) {
+                            sold.addAndGet(quantity);
+                        }
+                        assertThat(stock(medicineId)).isNotNegative();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return sold.get();
+    }
+
+    private static long insertMedicine(int stock) {
+        return jdbcTemplate.queryForObject("INSERT INTO medicines (name, type, stock, unit, price, created_at, updated_at) " +
+            "VALUES ('Amoxicillin', 'Antibiotic', ?, 'capsule', 12.50, now(), now()) RETURNING id", Long.class, stock);
+    }
+
+    private static int stock(long medicineId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM medicines WHERE id = ?", Integer.class, medicineId);
+    }
+}
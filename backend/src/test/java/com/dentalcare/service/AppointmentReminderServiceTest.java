@@ -0,0 +1,158 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.AppointmentReminder;
+import com.dentalcare.model.Patient;
+import com.dentalcare.repository.AppointmentReminderRepository;
+import com.dentalcare.repository.AppointmentRepository;
+import com.dentalcare.repository.PatientRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AppointmentReminderServiceTest {
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final List<Appointment> appointments = new ArrayList<>();
+    private final Map<Long, Patient> patients = new HashMap<>();
+    private final Map<Long, AppointmentReminder> reminders = new HashMap<>();
+    private AppointmentReminderService service;
+
+    @BeforeEach
+    void setUp() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        AppointmentReminderRepository reminderRepository = mock(AppointmentReminderRepository.class);
+        PatientRepository patientRepository = mock(PatientRepository.class);
+
+        // Mirrors the query: confirmed appointments after the cursor with no sent reminder, one page at a time
+        when(appointmentRepository.findDueForReminder(eq(TOMORROW), eq("confirmed"), anyInt(), anyLong(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                long afterId = invocation.getArgument(3);
+                Pageable page = invocation.getArgument(4);
+                return appointments.stream()
+                    .filter(a -> a.getId() > afterId)
+                    .filter(a -> reminders.get(a.getId()) == null || reminders.get(a.getId()).getSentAt() == null)
+                    .limit(page.getPageSize())
+                    .toList();
+            });
+        when(reminderRepository.findByAppointmentIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(reminders::get).filter(Objects::nonNull).toList();
+        });
+        when(reminderRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<AppointmentReminder> saved = invocation.getArgument(0);
+            saved.forEach(reminder -> reminders.put(reminder.getAppointmentId(), reminder));
+            return new ArrayList<>(saved);
+        });
+        when(patientRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Patient> found = new ArrayList<>();
+            ids.forEach(id -> Optional.ofNullable(patients.get(id)).ifPresent(found::add));
+            return found;
+        });
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        MailDispatcher dispatcher = new MailDispatcher(mailSender, 2, 60_000);
+
+        service = new AppointmentReminderService(appointmentRepository, reminderRepository, patientRepository,
+            dispatcher, "Appointment reminder for {date}", "Dear {patientName}, see you at {time}.",
+            "clinic@example.com", "confirmed", 2, 3);
+    }
+
+    @Test
+    void sendsOneReminderPerAppointment() throws Exception {
+        patient(1L, "ana@example.com");
+        patient(2L, "ben@example.com");
+        patient(3L, "cy@example.com");
+        appointment(10L, 1L);
+        appointment(11L, 2L);
+        appointment(12L, 3L);
+
+        int sent = service.sendRemindersFor(TOMORROW);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(sent).isEqualTo(3);
+        assertThat(received).hasSize(3);
+        assertThat(Arrays.stream(received).map(AppointmentReminderServiceTest::recipient))
+            .containsExactlyInAnyOrder("ana@example.com", "ben@example.com", "cy@example.com");
+        assertThat(reminders.values()).allSatisfy(reminder -> {
+            assertThat(reminder.getSentAt()).isNotNull();
+            assertThat(reminder.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void doesNotRemindTwice() {
+        patient(1L, "ana@example.com");
+        appointment(10L, 1L);
+        appointment(11L, 1L);
+
+        service.sendRemindersFor(TOMORROW);
+        int sentAgain = service.sendRemindersFor(TOMORROW);
+
+        assertThat(sentAgain).isZero();
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+    }
+
+    @Test
+    void skipsPatientsWithoutEmail() {
+        patient(1L, "ana@example.com");
+        patient(2L, " ");
+        appointment(10L, 1L);
+        appointment(11L, 2L);
+
+        int sent = service.sendRemindersFor(TOMORROW);
+
+        assertThat(sent).isEqualTo(1);
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(reminders).containsOnlyKeys(10L);
+    }
+
+    private void patient(Long id, String email) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setFirstName("Patient");
+        patient.setLastName(String.valueOf(id));
+        patient.setEmail(email);
+        patients.put(id, patient);
+    }
+
+    private void appointment(Long id, Long patientId) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setPatientId(patientId);
+        appointment.setDentistName("Dr. Rao");
+        appointment.setType("Cleaning");
+        appointment.setStatus("confirmed");
+        appointment.setDate(TOMORROW);
+        appointment.setStartTime(LocalTime.of(9, 30));
+        appointments.add(appointment);
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
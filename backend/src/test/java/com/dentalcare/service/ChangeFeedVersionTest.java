@@ -0,0 +1,89 @@
+package com.dentalcare.service;
+
+import com.dentalcare.PostgresTestSupport;
+import com.dentalcare.repository.ChangeEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChangeFeedVersionTest extends PostgresTestSupport {
+    private DataSourceTransactionManager transactionManager;
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+        ChangeEventRepository repository = mock(ChangeEventRepository.class);
+        when(repository.findLatestVersion()).thenAnswer(invocation ->
+            jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM change_events", Long.class));
+        changeFeedService = new ChangeFeedService(repository, jdbcTemplate, transactionManager);
+        changeFeedService.stampVersions();
+    }
+
+    @Test
+    void eventCommittedLateGetsAVersionAfterEverythingAlreadyRead() {
+        long seen = latestVersion();
+
+        // The earlier insert gets the lower id but commits last
+        TransactionStatus slow = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        long slowId = insertEvent(41L);
+        TransactionStatus fast = transactionManager.getTransaction(
+            new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        long fastId = insertEvent(42L);
+        transactionManager.commit(fast);
+        assertThat(changeFeedService.stampVersions()).isEqualTo(1);
+        // Writers hold no feed lock, so the stamp above ran while slow was still open
+        long fastVersion = version(fastId);
+        transactionManager.commit(slow);
+        assertThat(changeFeedService.stampVersions()).isEqualTo(1);
+
+        assertThat(slowId).isLessThan(fastId);
+        assertThat(fastVersion).isGreaterThan(seen);
+        assertThat(version(slowId)).isGreaterThan(fastVersion);
+    }
+
+    @Test
+    void rolledBackEventsNeverGetAVersion() {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        long id = insertEvent(7L);
+        transactionManager.rollback(status);
+
+        assertThat(changeFeedService.stampVersions()).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM change_events WHERE id = ?", Long.class, id)).isEmpty();
+    }
+
+    @Test
+    void versionsFollowIdOrderWithinOneStamp() {
+        long first = insertEvent(1L);
+        long second = insertEvent(2L);
+        long third = insertEvent(3L);
+
+        assertThat(changeFeedService.stampVersions()).isEqualTo(3);
+
+        List<Long> versions = List.of(version(first), version(second), version(third));
+        assertThat(versions).isSorted().doesNotHaveDuplicates();
+        assertThat(versions.get(2)).isEqualTo(latestVersion());
+    }
+
+    private static long insertEvent(long entityId) {
+        return jdbcTemplate.queryForObject("INSERT INTO change_events (entity_type, entity_id, operation, created_at) " +
+            "VALUES ('patient', ?, 'update', now()) RETURNING id", Long.class, entityId);
+    }
+
+    private static long version(long id) {
+        return jdbcTemplate.queryForObject("SELECT version FROM change_events WHERE id = ?", Long.class, id);
+    }
+
+    private static long latestVersion() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM change_events", Long.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.PharmacyCustomer;
+import com.dentalcare.repository.PharmacyCustomerRepository;
+import com.dentalcare.util.PhoneNumbers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PharmacyCustomerServiceTest {
+    private PharmacyCustomerRepository repository;
+    private PharmacyCustomerService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PharmacyCustomerRepository.class);
+        service = new PharmacyCustomerService(repository, new PhoneNumbers("91"), 10, 60);
+    }
+
+    @Test
+    void numberAlreadyOnFileIsReportedWithItsCustomer() {
+        PharmacyCustomer existing = customer(7L, "98765 43210");
+        when(repository.findByPhoneE164("+919876543210")).thenReturn(Optional.of(existing));
+
+        assertThatThrownBy(() -> service.createCustomer(customer(null, "+91 98765-43210")))
+            .isInstanceOfSatisfying(DuplicateCustomerException.class, e -> assertThat(e.getExisting()).isSameAs(existing));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void numberRegisteredConcurrentlyIsReportedInsteadOfFailing() {
+        PharmacyCustomer winner = customer(8L, "9876543210");
+        when(repository.findByPhoneE164("+919876543210")).thenReturn(Optional.empty(), Optional.of(winner));
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("uk_pharmacy_customers_phone_e164"));
+
+        assertThatThrownBy(() -> service.createCustomer(customer(null, "9876543210")))
+            .isInstanceOfSatisfying(DuplicateCustomerException.class, e -> assertThat(e.getExisting()).isSameAs(winner));
+    }
+
+    private static PharmacyCustomer customer(Long id, String phone) {
+        PharmacyCustomer customer = new PharmacyCustomer();
+        customer.setId(id);
+        customer.setName("Walk-in");
+        customer.setPhone(phone);
+        return customer;
+    }
+}
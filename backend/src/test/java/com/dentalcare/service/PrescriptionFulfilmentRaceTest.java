@@ -0,0 +1,64 @@
+package com.dentalcare.service;
+
+import com.dentalcare.PostgresTestSupport;
+import com.dentalcare.dto.PrescriptionFulfilmentRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class PrescriptionFulfilmentRaceTest extends PostgresTestSupport {
+    @Autowired
+    private PrescriptionFulfilmentService prescriptionFulfilmentService;
+
+    @Test
+    void fulfilLosingARaceToAnotherSaleIsReportedAsAlreadyFulfilled() throws Exception {
+        long medicineId = jdbcTemplate.queryForObject("INSERT INTO medicines (name, type, stock, unit, price, created_at, " +
+            "updated_at) VALUES ('Ibuprofen', 'tablet', 20, 'tablet', 3.50, now(), now()) RETURNING id", Long.class);
+        long prescriptionId = jdbcTemplate.queryForObject("INSERT INTO prescriptions (patient_id, patient_name, " +
+            "appointment_id, dentist_id, dentist_name, created_at) VALUES (1, 'Asha Rao', 1, 1, 'Dr Mehta', now()) " +
+            "RETURNING id", Long.class);
+        long itemId = jdbcTemplate.queryForObject("INSERT INTO prescription_items (prescription_id, medicine_id, " +
+            "medicine_name, medicine_type, dosage, frequency, duration) VALUES (?, ?, 'Ibuprofen', 'tablet', '400mg', " +
+            "'TDS', '3 days') RETURNING id", Long.class, prescriptionId, medicineId);
+        PrescriptionFulfilmentRequest request = new PrescriptionFulfilmentRequest();
+        request.setQuantities(Map.of(itemId, 9));
+        request.setCustomerPhone("9876500042");
+
+        // Another sale for the prescription is inserted but not yet committed, so the check passes
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+        TransactionStatus other = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        jdbcTemplate.update("INSERT INTO pharmacy_sales (customer_id, customer_name, customer_phone, subtotal, sgst, cgst, " +
+            "discount, total, prescription_id, created_at) VALUES (1, 'Asha Rao', '9876500042', 0, 0, 0, 0, 0, ?, now())",
+            prescriptionId);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> fulfil = executor.submit(() -> prescriptionFulfilmentService.fulfil(prescriptionId, request));
+            // The fulfil's insert waits on the uncommitted row until the other sale commits
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_locks WHERE NOT granted", Long.class) == 0) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(20);
+            }
+            transactionManager.commit(other);
+
+            assertThatThrownBy(() -> fulfil.get(30, TimeUnit.SECONDS))
+                .cause()
+                .isInstanceOfSatisfying(PrescriptionFulfilmentException.class, e ->
+                    assertThat(e.getReason()).isEqualTo(PrescriptionFulfilmentException.Reason.ALREADY_FULFILLED));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT stock FROM medicines WHERE id = ?", Integer.class, medicineId))
+            .isEqualTo(20);
+    }
+}
@@ -0,0 +1,114 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.model.TaxRate;
+import com.dentalcare.repository.TaxRateRepository;
+import com.dentalcare.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingServiceTest {
+    private PricingService pricingService;
+
+    @BeforeEach
+    void setUp() {
+        TaxRateRepository taxRateRepository = mock(TaxRateRepository.class);
+        when(taxRateRepository.findAll()).thenReturn(List.of(
+            taxRate(TaxRate.DEFAULT_TYPE, 900, 900),
+            taxRate("Antibiotic", 250, 250)));
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class))).thenReturn("v1");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of(
+            new Object[] { 1L, "Analgesic", new BigDecimal("0.50") },
+            new Object[] { 2L, "Analgesic", new BigDecimal("0.50") },
+            new Object[] { 3L, "Analgesic", new BigDecimal("0.50") },
+            new Object[] { 4L, "Antibiotic", new BigDecimal("12.50") }));
+        pricingService = new PricingService(taxRateRepository, jdbcTemplate);
+    }
+
+    @Test
+    void taxIsAccumulatedInBasisPointsAndRoundedOnce() {
+        // 9% of each 0.50 line is 4.5 paise: rounding per line would give 15, once gives 14
+        PharmacySale sale = sale(null, item(1L, 1), item(2L, 1), item(3L, 1));
+
+        pricingService.priceSale(sale);
+
+        assertThat(sale.getSubtotal()).isEqualTo(Money.of("1.50"));
+        assertThat(sale.getSgst()).isEqualTo(Money.of("0.14"));
+        assertThat(sale.getCgst()).isEqualTo(Money.of("0.14"));
+        assertThat(sale.getTotal()).isEqualTo(Money.of("1.78"));
+    }
+
+    @Test
+    void linesArePricedFromTheTableWithTheirTypesRate() {
+        PharmacySaleItem antibiotic = item(4L, 3);
+        antibiotic.setUnitPrice(Money.of("0.01"));
+        PharmacySale sale = sale(null, antibiotic);
+
+        pricingService.priceSale(sale);
+
+        assertThat(antibiotic.getUnitPrice()).isEqualTo(Money.of("12.50"));
+        assertThat(antibiotic.getTotalPrice()).isEqualTo(Money.of("37.50"));
+        // 2.5% of 37.50 is 0.9375
+        assertThat(sale.getSgst()).isEqualTo(Money.of("0.94"));
+        assertThat(sale.getTotal()).isEqualTo(Money.of("39.38"));
+    }
+
+    @Test
+    void discountMayTakeTheWholeTotalButNoMore() {
+        PharmacySale whole = sale(Money.of("1.78"), item(1L, 1), item(2L, 1), item(3L, 1));
+        pricingService.priceSale(whole);
+        assertThat(whole.getTotal()).isEqualTo(Money.ZERO);
+
+        PharmacySale none = sale(null, item(1L, 1));
+        pricingService.priceSale(none);
+        assertThat(none.getDiscount()).isEqualTo(Money.ZERO);
+
+        assertThatThrownBy(() -> pricingService.priceSale(sale(Money.of("1.79"), item(1L, 1), item(2L, 1), item(3L, 1))))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pricingService.priceSale(sale(Money.of("-0.01"), item(1L, 1))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unknownMedicineIsRejected() {
+        assertThatThrownBy(() -> pricingService.priceSale(sale(null, item(99L, 1))))
+            .hasMessageContaining("Medicine not found");
+    }
+
+    private static PharmacySale sale(Money discount, PharmacySaleItem... items) {
+        PharmacySale sale = new PharmacySale();
+        sale.setItems(List.of(items));
+        sale.setDiscount(discount);
+        return sale;
+    }
+
+    private static PharmacySaleItem item(Long medicineId, int quantity) {
+        PharmacySaleItem item = new PharmacySaleItem();
+        item.setMedicineId(medicineId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static TaxRate taxRate(String medicineType, int sgst, int cgst) {
+        TaxRate rate = new TaxRate();
+        rate.setMedicineType(medicineType);
+        rate.setSgstBasisPoints(sgst);
+        rate.setCgstBasisPoints(cgst);
+        return rate;
+    }
+}
@@ -0,0 +1,110 @@
+package com.dentalcare.service;
+
+import com.dentalcare.PostgresTestSupport;
+import com.dentalcare.model.PharmacyCustomer;
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.model.StockMovement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class StockLedgerExpiryTest extends PostgresTestSupport {
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    @Autowired
+    private PharmacySaleService pharmacySaleService;
+    @Autowired
+    private PharmacyCustomerService pharmacyCustomerService;
+
+    @Test
+    void expiryWriteOffTakesTheExpiredLotAndLeavesFreshStockSellable() {
+        long medicineId = insertMedicine("Lidocaine", 15);
+        long expiredLot = insertLot(medicineId, "OLD", 5, LocalDate.now().minusDays(1));
+        long freshLot = insertLot(medicineId, "NEW", 10, LocalDate.now().plusYears(1));
+
+        List<StockMovement> movements = stockLedgerService.applyMovement(medicineId, StockMovement.EXPIRY_WRITE_OFF, 5, "Expired");
+
+        assertThat(movements).singleElement().satisfies(movement -> {
+            assertThat(movement.getLotId()).isEqualTo(expiredLot);
+            assertThat(movement.getQuantity()).isEqualTo(-5);
+        });
+        assertThat(lotQuantity(expiredLot)).isZero();
+        assertThat(lotQuantity(freshLot)).isEqualTo(10);
+        assertThat(stock(medicineId)).isEqualTo(10);
+
+        pharmacySaleService.createSale(sale(medicineId, "Lidocaine", 10, "9876500001"));
+
+        assertThat(lotQuantity(freshLot)).isZero();
+        assertThat(stock(medicineId)).isZero();
+    }
+
+    @Test
+    void expiryWriteOffBeyondExpiredUnitsComesOutOfFreshLots() {
+        long medicineId = insertMedicine("Articaine", 12);
+        long expiredLot = insertLot(medicineId, "OLD", 2, LocalDate.now().minusDays(3));
+        long freshLot = insertLot(medicineId, "NEW", 10, LocalDate.now().plusMonths(6));
+
+        stockLedgerService.applyMovement(medicineId, StockMovement.EXPIRY_WRITE_OFF, 3, "Expired and damaged");
+
+        assertThat(lotQuantity(expiredLot)).isZero();
+        assertThat(lotQuantity(freshLot)).isEqualTo(9);
+        assertThat(stock(medicineId)).isEqualTo(9);
+    }
+
+    @Test
+    void adjustmentCannotRemoveExpiredUnitsAsIfTheyWereSellable() {
+        long medicineId = insertMedicine("Mepivacaine", 8);
+        long expiredLot = insertLot(medicineId, "OLD", 5, LocalDate.now().minusDays(1));
+        insertLot(medicineId, "NEW", 3, LocalDate.now().plusYears(1));
+
+        assertThatThrownBy(() -> stockLedgerService.applyMovement(medicineId, StockMovement.ADJUSTMENT, -4, "Count"))
+            .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(stock(medicineId)).isEqualTo(8);
+        assertThat(lotQuantity(expiredLot)).isEqualTo(5);
+    }
+
+    private PharmacySale sale(long medicineId, String medicineName, int quantity, String phone) {
+        PharmacyCustomer customer = new PharmacyCustomer();
+        customer.setName("Walk-in");
+        customer.setPhone(phone);
+        PharmacyCustomer saved = pharmacyCustomerService.createCustomer(customer);
+
+        PharmacySaleItem item = new PharmacySaleItem();
+        item.setMedicineId(medicineId);
+        item.setMedicineName(medicineName);
+        item.setQuantity(quantity);
+        PharmacySale sale = new PharmacySale();
+        sale.setCustomerId(saved.getId());
+        sale.setCustomerName(saved.getName());
+        sale.setCustomerPhone(saved.getPhone());
+        sale.setItems(List.of(item));
+        return sale;
+    }
+
+    private static long insertMedicine(String name, int stock) {
+        return jdbcTemplate.queryForObject("INSERT INTO medicines (name, type, stock, unit, price, created_at, updated_at) " +
+            "VALUES (?, 'Anaesthetic', ?, 'cartridge', 40.00, now(), now()) RETURNING id", Long.class, name, stock);
+    }
+
+    private static long insertLot(long medicineId, String lotNumber, int quantity, LocalDate expiry) {
+        return jdbcTemplate.queryForObject("INSERT INTO medicine_lots (medicine_id, lot_number, quantity, date_of_expiry, created_at) " +
+            "VALUES (?, ?, ?, ?, now()) RETURNING id", Long.class, medicineId, lotNumber, quantity, expiry);
+    }
+
+    private static int lotQuantity(long lotId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM medicine_lots WHERE id = ?", Integer.class, lotId);
+    }
+
+    private static int stock(long medicineId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM medicines WHERE id = ?", Integer.class, medicineId);
+    }
+}
@@ -0,0 +1,89 @@
+package com.dentalcare.service;
+
+import com.dentalcare.dto.StockReservationDto;
+import com.dentalcare.model.Medicine;
+import com.dentalcare.repository.MedicineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockReservationServiceTest {
+    private static final long LIDOCAINE = 1L;
+    private static final long ARTICAINE = 2L;
+
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        MedicineRepository medicineRepository = mock(MedicineRepository.class);
+        when(medicineRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> medicine(id, 10)).toList();
+        });
+        MedicineLotService medicineLotService = mock(MedicineLotService.class);
+        when(medicineLotService.getExpiredQuantities(anyCollection())).thenReturn(Map.of(LIDOCAINE, 4));
+        service = new StockReservationService(medicineRepository, medicineLotService, 300);
+    }
+
+    @Test
+    void expiredUnitsAreNotReservable() {
+        assertThatThrownBy(() -> service.reserve(Map.of(LIDOCAINE, 7)))
+            .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(service.reserve(Map.of(LIDOCAINE, 6)).getItems()).containsEntry(LIDOCAINE, 6);
+    }
+
+    @Test
+    void releaseRacingCheckoutNeverLeaksReservedUnits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                String id = service.reserve(Map.of(LIDOCAINE, 1)).getId();
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Boolean> released = executor.submit(() -> {
+                    barrier.await();
+                    return service.release(id);
+                });
+                Future<String> held = executor.submit(() -> {
+                    barrier.await();
+                    return service.holdForSale(id, new TreeMap<>(Map.of(ARTICAINE, 2)));
+                });
+                released.get(10, TimeUnit.SECONDS);
+                service.release(held.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Everything was released, so the full sellable stock of both medicines is free again
+        StockReservationDto all = service.reserve(Map.of(LIDOCAINE, 6, ARTICAINE, 10));
+        assertThat(all.getItems()).containsEntry(LIDOCAINE, 6).containsEntry(ARTICAINE, 10);
+    }
+
+    @Test
+    void closedReservationIsNotToppedUp() {
+        String id = service.reserve(Map.of(ARTICAINE, 4)).getId();
+        service.release(id);
+
+        String held = service.holdForSale(id, new TreeMap<>(Map.of(ARTICAINE, 10)));
+
+        assertThat(held).isNotEqualTo(id);
+        assertThat(service.getReservation(id)).isEmpty();
+    }
+
+    private static Medicine medicine(long id, int stock) {
+        Medicine medicine = new Medicine();
+        medicine.setId(id);
+        medicine.setName("Medicine " + id);
+        medicine.setStock(stock);
+        return medicine;
+    }
+}
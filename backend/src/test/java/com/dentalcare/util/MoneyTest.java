@@ -0,0 +1,47 @@
+package com.dentalcare.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void divisionRoundsHalfAwayFromZero() {
+        assertThat(Money.ofCents(5).dividedBy(2).getCents()).isEqualTo(3);
+        assertThat(Money.ofCents(-5).dividedBy(2).getCents()).isEqualTo(-3);
+        assertThat(Money.ofCents(5).dividedBy(-2).getCents()).isEqualTo(-3);
+        assertThat(Money.ofCents(-5).dividedBy(-2).getCents()).isEqualTo(3);
+        assertThat(Money.ofCents(-4).dividedBy(3).getCents()).isEqualTo(-1);
+        assertThat(Money.ofCents(-7).dividedBy(4).getCents()).isEqualTo(-2);
+    }
+
+    @Test
+    void percentRoundsNegativeAmountsLikePositiveOnes() {
+        // 9% of 1.50 is 13.5 paise either way round
+        assertThat(Money.ofCents(150).percent(900).getCents()).isEqualTo(14);
+        assertThat(Money.ofCents(-150).percent(900).getCents()).isEqualTo(-14);
+        assertThat(Money.ofCents(-149).percent(900).getCents()).isEqualTo(-13);
+        assertThat(Money.ofBasisPointCents(-5_000).getCents()).isEqualTo(-1);
+        assertThat(Money.ofBasisPointCents(-4_999).getCents()).isZero();
+    }
+
+    @Test
+    void decimalsRoundToPaiseHalfUp() {
+        assertThat(Money.of("12.345").getCents()).isEqualTo(1235);
+        assertThat(Money.of("-12.345").getCents()).isEqualTo(-1235);
+        assertThat(Money.of(new BigDecimal("0.004"))).isEqualTo(Money.ZERO);
+        assertThat(Money.ofCents(1250).toDecimal()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void overflowFailsInsteadOfWrapping() {
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE / 2).times(3))
+            .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,62 @@
+import { useEffect, useRef } from 'react';
+import { SyncDelta } from '../types';
+import api from '../services/api';
+
+const POLL_INTERVAL = 15_000;
+const cursorKey = (entity: string) => `sync-version:${entity}`;
+
+// Polls /sync for one entity type from the version stored after the last poll. Changes go to
+// onChanges; a reset (no stored version, or one the server cannot continue from) means the list
+// must be loaded in full, after which the feed carries on from the version the server returned.
+export function useChangeFeed<T>(
+  entity: string,
+  onChanges: (delta: SyncDelta<T>) => void,
+  onReset: () => void
+) {
+  const handlersRef = useRef({ onChanges, onReset });
+
+  useEffect(() => {
+    handlersRef.current = { onChanges, onReset };
+  });
+
+  useEffect(() => {
+    let cancelled = false;
+    let polling = false;
+
+    const poll = async () => {
+      if (polling || document.hidden) {
+        return;
+      }
+      polling = true;
+      try {
+        let since = Number(localStorage.getItem(cursorKey(entity)) ?? 0);
+        let hasMore = true;
+        while (hasMore && !cancelled) {
+          const response = await api.sync.getChanges(since, [entity]);
+          if (cancelled) {
+            return;
+          }
+          if (response.reset) {
+            handlersRef.current.onReset();
+          } else if (response.changes[entity]) {
+            handlersRef.current.onChanges(response.changes[entity] as SyncDelta<T>);
+          }
+          since = response.version;
+          localStorage.setItem(cursorKey(entity), String(since));
+          hasMore = response.hasMore;
+        }
+      } catch (err) {
+        console.error(`Failed to sync ${entity} changes:`, err);
+      } finally {
+        polling = false;
+      }
+    };
+
+    poll();
+    const timer = setInterval(poll, POLL_INTERVAL);
+    return () => {
+      cancelled = true;
+      clearInterval(timer);
+    };
+  }, [entity]);
+}
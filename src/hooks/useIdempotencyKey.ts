@@ -0,0 +1,22 @@
+import { useCallback, useRef } from 'react';
+
+// One Idempotency-Key per form submission: retrying the same payload after a failure reuses the
+// key, so the server answers with the first result instead of recording it twice, while an
+// edited payload gets a fresh key. Call reset once the submission has succeeded.
+export const useIdempotencyKey = () => {
+  const last = useRef<{ key: string; payload: string } | null>(null);
+
+  const keyFor = useCallback((payload: unknown) => {
+    const serialized = JSON.stringify(payload);
+    if (!last.current || last.current.payload !== serialized) {
+      last.current = { key: crypto.randomUUID(), payload: serialized };
+    }
+    return last.current.key;
+  }, []);
+
+  const reset = useCallback(() => {
+    last.current = null;
+  }, []);
+
+  return { keyFor, reset };
+};
@@ -1,5 +1,5 @@
 import { useState, useEffect, useCallback, useRef } from 'react';
-import { PageRequest, PageResponse } from '../types';
+import { PageRequest, PageResponse, SyncDelta } from '../types';
 
 interface UsePaginatedApiOptions<T> {
   initialPageSize?: number;
@@ -268,6 +268,23 @@ export function usePaginatedApi<T>(
     }
   }, [options.cacheKey]);
 
+  // Rows from the change feed are patched in place when they are all on the current page; a new
+  // row or a delete can move rows between pages, so then the page is fetched again
+  const applyChanges = useCallback((delta: SyncDelta<T>) => {
+    const idOf = (row: T) => (row as { id?: number }).id;
+    const onPage = new Map(data.content.map(row => [idOf(row), row]));
+    if (delta.deletes.length > 0 || delta.upserts.some(row => !onPage.has(idOf(row)))) {
+      refetch(true);
+      return;
+    }
+    if (delta.upserts.length === 0) {
+      return;
+    }
+    delta.upserts.forEach(row => onPage.set(idOf(row), { ...onPage.get(idOf(row)), ...row }));
+    clearCache();
+    setData(prev => ({ ...prev, content: prev.content.map(row => onPage.get(idOf(row)) ?? row) }));
+  }, [data.content, refetch, clearCache]);
+
   // Debug logging for component state
   console.log('usePaginatedApi state:', {
     hasData: !!data,
@@ -290,6 +307,7 @@ export function usePaginatedApi<T>(
     updatePageRequest,
     refetch,
     clearCache,
+    applyChanges,
   };
 }
 
@@ -5,7 +5,9 @@ import { Appointment, PageRequest } from '../types';
 import AppointmentForm from '../components/appointments/AppointmentForm';
 import Pagination from '../components/common/Pagination';
 import { usePaginatedApi } from '../hooks/usePaginatedApi';
+import { useChangeFeed } from '../hooks/useChangeFeed';
 import { usePageHeader } from '../hooks/usePageHeader';
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey';
 import api from '../services/api';
 
 const AppointmentsPage = () => {
@@ -17,6 +19,7 @@ const AppointmentsPage = () => {
     setPage,
     setSearch,
     refetch,
+    applyChanges,
   } = usePaginatedApi((pageRequest: PageRequest) => api.appointments.getAll(pageRequest), {
     initialPageSize: 10,
     initialSortBy: 'date',
@@ -25,9 +28,12 @@ const AppointmentsPage = () => {
     cacheKey: 'appointments',
   });
 
+  useChangeFeed('appointment', applyChanges, () => refetch(true));
+
   const [statusFilter, setStatusFilter] = useState('all');
   const [showForm, setShowForm] = useState(false);
   const [editingAppointment, setEditingAppointment] = useState<Appointment | null>(null);
+  const createKey = useIdempotencyKey();
   const [showCancelModal, setShowCancelModal] = useState(false);
   const [appointmentToCancel, setAppointmentToCancel] = useState<Appointment | null>(null);
 
@@ -71,7 +77,8 @@ const AppointmentsPage = () => {
 
   const handleAddAppointment = async (appointment: Appointment) => {
     try {
-      await api.appointments.create(appointment);
+      await api.appointments.create(appointment, createKey.keyFor(appointment));
+      createKey.reset();
       refetch(true); // Force refresh to get latest data
       setShowForm(false);
       setEditingAppointment(null);
@@ -91,9 +98,20 @@ const AppointmentsPage = () => {
     }
   };
 
+  // List rows leave out notes, so edits start from the full appointment
+  const openEditForm = async (appointment: Appointment) => {
+    try {
+      setEditingAppointment(await api.appointments.getById(appointment.id));
+      setShowForm(true);
+    } catch (error) {
+      console.error('Failed to load appointment:', error);
+    }
+  };
+
   const handleCancelAppointment = async (appointment: Appointment) => {
     try {
-      await api.appointments.update(appointment.id, { ...appointment, status: 'cancelled' });
+      const current = await api.appointments.getById(appointment.id);
+      await api.appointments.update(appointment.id, { ...current, status: 'cancelled' });
       refetch(true); // Force refresh to get latest data
     } catch (error) {
       console.error('Failed to cancel appointment:', error);
@@ -264,10 +282,7 @@ const AppointmentsPage = () => {
                       {canEditAppointment(appointment) && (
                         <>
                           <button
-                            onClick={() => {
-                              setEditingAppointment(appointment);
-                              setShowForm(true);
-                            }}
+                            onClick={() => openEditForm(appointment)}
                             className="p-2 text-secondary-600 hover:text-secondary-700 hover:bg-secondary-50 rounded-lg transition-colors"
                             title="Edit Appointment"
                           >
@@ -407,10 +422,7 @@ const AppointmentsPage = () => {
                         {canEditAppointment(appointment) && (
                           <>
                             <button
-                              onClick={() => {
-                                setEditingAppointment(appointment);
-                                setShowForm(true);
-                              }}
+                              onClick={() => openEditForm(appointment)}
                               className="inline-flex items-center justify-center rounded-full p-2 hover:bg-secondary-50 hover:text-secondary-700 transition"
                               title="Edit Appointment"
                             >
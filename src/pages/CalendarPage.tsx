@@ -5,6 +5,7 @@ import { Appointment, CalendarViewType } from '../types';
 import AppointmentForm from '../components/appointments/AppointmentForm';
 import { useApi } from '../hooks/useApi';
 import { usePageHeader } from '../hooks/usePageHeader';
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey';
 import api from '../services/api';
 import { Link } from 'react-router-dom';
 
@@ -18,6 +19,8 @@ const CalendarPage = () => {
   const month = currentDate.getMonth() + 1;
   const formattedDate = format(currentDate, 'yyyy-MM-dd');
 
+  const createKey = useIdempotencyKey();
+
   const getAppointments = useCallback(() => {
     if (viewType === 'month') {
       return api.appointments.getByMonth(year, month);
@@ -70,7 +73,8 @@ const CalendarPage = () => {
 
   const handleAddAppointment = async (appointment: Appointment) => {
     try {
-      await api.appointments.create(appointment);
+      await api.appointments.create(appointment, createKey.keyFor(appointment));
+      createKey.reset();
       refetch();
       setShowForm(false);
     } catch (error) {
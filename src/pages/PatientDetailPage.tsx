@@ -9,6 +9,7 @@ import { usePatient, useAppointmentsByPatient, usePrescriptionsByPatient, useTre
 import api from '../services/api';
 import { useAuth } from '../contexts/AuthContext';
 import { usePageHeader } from '../hooks/usePageHeader';
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey';
 
 const ITEMS_PER_PAGE = 10;
 
@@ -56,6 +57,7 @@ const PatientDetailPage = () => {
   const [paymentAmount, setPaymentAmount] = useState<string>('0');
   const [paymentType, setPaymentType] = useState<'cash' | 'online'>('cash');
   const [paymentError, setPaymentError] = useState<string | null>(null);
+  const paymentKey = useIdempotencyKey();
   const [activeTab, setActiveTab] = useState('overview');
   const [isProcessing, setIsProcessing] = useState(false);
   const [currentPage, setCurrentPage] = useState(1);
@@ -150,12 +152,14 @@ const PatientDetailPage = () => {
 
     setIsProcessing(true);
     try {
-      const createdAmount = await api.amounts.create({
+      const payment = {
         appointmentId: selectedAppointment.id,
         patientId: selectedAppointment.patientId,
         amount: Number(paymentAmount),
         paymentType,
-      });
+      };
+      const createdAmount = await api.amounts.create(payment, paymentKey.keyFor(payment));
+      paymentKey.reset();
       console.log('Payment created:', createdAmount);
       
       // Close modal first
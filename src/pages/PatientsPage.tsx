@@ -5,6 +5,7 @@ import { Patient, PageRequest } from '../types';
 import PatientForm from '../components/patients/PatientForm';
 import Pagination from '../components/common/Pagination';
 import { usePaginatedApi } from '../hooks/usePaginatedApi';
+import { useChangeFeed } from '../hooks/useChangeFeed';
 import { usePageHeader } from '../hooks/usePageHeader';
 import api from '../services/api';
 
@@ -17,6 +18,7 @@ const PatientsPage = () => {
     setPage,
     setSearch,
     refetch,
+    applyChanges,
   } = usePaginatedApi(
     async (pageRequest: PageRequest, options?: { signal?: AbortSignal }) => {
       const result = await api.patients.getAll(pageRequest, options);
@@ -31,6 +33,8 @@ const PatientsPage = () => {
     }
   );
 
+  useChangeFeed('patient', applyChanges, () => refetch(true));
+
   const [showForm, setShowForm] = useState(false);
 
   const patients = paginatedData.content || [];
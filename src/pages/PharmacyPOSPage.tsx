@@ -1,6 +1,8 @@
-import { useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
+import axios from 'axios';
 import { Search, Phone, User, Plus, Minus, X } from 'lucide-react';
 import { Medicine, PharmacySale, PharmacySaleItem, PharmacyCustomer } from '../types';
+import { TaxRate } from '../types/pharmacy';
 import ConfirmDialog from '../components/common/ConfirmDialog';
 import AlertDialog from '../components/common/AlertDialog';
 import api from '../services/api';
@@ -11,6 +13,15 @@ interface SaleItem {
   quantity: number;
 }
 
+interface SaleTotals {
+  subtotal: number;
+  sgst: number;
+  cgst: number;
+  total: number;
+  sgstLabel: string;
+  cgstLabel: string;
+}
+
 interface CustomerFormData {
   name: string;
   phone: string;
@@ -25,6 +36,10 @@ const PharmacyPOSPage = () => {
   const [saleItems, setSaleItems] = useState<SaleItem[]>([]);
   const [discount, setDiscount] = useState(0);
   const [isProcessing, setIsProcessing] = useState(false);
+  // null until loaded; the sale cannot be completed without them
+  const [taxRates, setTaxRates] = useState<TaxRate[] | null>(null);
+  // One key per checkout, kept across failed attempts so a retry cannot record the sale twice
+  const checkoutKeyRef = useRef<string | null>(null);
 
   // Customer state
   const [phoneSearch, setPhoneSearch] = useState('');
@@ -63,6 +78,20 @@ const PharmacyPOSPage = () => {
     setShowAlertDialog(true);
   };
 
+  useEffect(() => {
+    api.taxRates.getAll()
+      .then(setTaxRates)
+      .catch((error) => {
+        console.error('Failed to load tax rates:', error);
+        setAlertConfig({
+          type: 'error',
+          title: 'Tax Rates',
+          message: 'Failed to load tax rates. Reload the page before completing a sale.',
+        });
+        setShowAlertDialog(true);
+      });
+  }, []);
+
   const handleMedicineSearch = async (e: React.KeyboardEvent<HTMLInputElement>) => {
     if (e.key === 'Enter' && searchTerm.trim()) {
       try {
@@ -167,6 +196,13 @@ const PharmacyPOSPage = () => {
       setCustomerError(null);
       showAlert('success', 'Success', 'Customer created successfully!');
     } catch (error) {
+      // The number is already registered; carry on with that customer
+      if (axios.isAxiosError(error) && error.response?.status === 409 && error.response.data?.customer) {
+        setCustomer(error.response.data.customer);
+        setShowCustomerFormModal(false);
+        setCustomerError(null);
+        return;
+      }
       console.error('Failed to create customer:', error);
       setCustomerError('Failed to create customer');
     }
@@ -210,31 +246,49 @@ const PharmacyPOSPage = () => {
     setSaleItems((prev) => prev.filter((item) => item.medicine.id !== medicineId));
   };
 
-  const calculateSubtotal = () => {
-    return saleItems.reduce(
-      (total, item) => total + item.medicine.price * item.quantity,
-      0
-    );
-  };
+  const rateFor = (medicine: Medicine) =>
+    taxRates?.find((rate) => rate.medicineType === medicine.type)
+      ?? taxRates?.find((rate) => rate.medicineType === '*');
 
-  const calculateSGST = () => {
-    return calculateSubtotal() * 0.09;
+  const percentLabel = (basisPoints: number[]) => {
+    const distinct = Array.from(new Set(basisPoints));
+    return distinct.length === 1 ? ` (${distinct[0] / 100}%)` : '';
   };
 
-  const calculateCGST = () => {
-    return calculateSubtotal() * 0.09;
+  // Mirrors PricingService.priceSale: whole cents per line, tax summed in cents x basis points
+  // and rounded once, so the totals shown are the ones the server records
+  const calculateTotals = (): SaleTotals => {
+    let subtotalCents = 0;
+    let sgstBasisPointCents = 0;
+    let cgstBasisPointCents = 0;
+    const sgstRates: number[] = [];
+    const cgstRates: number[] = [];
+    saleItems.forEach((item) => {
+      const rate = rateFor(item.medicine);
+      const lineCents = Math.round(item.medicine.price * 100) * item.quantity;
+      subtotalCents += lineCents;
+      sgstBasisPointCents += lineCents * (rate?.sgstBasisPoints ?? 0);
+      cgstBasisPointCents += lineCents * (rate?.cgstBasisPoints ?? 0);
+      sgstRates.push(rate?.sgstBasisPoints ?? 0);
+      cgstRates.push(rate?.cgstBasisPoints ?? 0);
+    });
+    const sgstCents = Math.round(sgstBasisPointCents / 10000);
+    const cgstCents = Math.round(cgstBasisPointCents / 10000);
+    const totalCents = subtotalCents + sgstCents + cgstCents - Math.round((discount || 0) * 100);
+    return {
+      subtotal: subtotalCents / 100,
+      sgst: sgstCents / 100,
+      cgst: cgstCents / 100,
+      total: totalCents / 100,
+      sgstLabel: `SGST${percentLabel(sgstRates)}`,
+      cgstLabel: `CGST${percentLabel(cgstRates)}`,
+    };
   };
 
-  const calculateTotal = () => {
-    const subtotal = calculateSubtotal();
-    const sgst = calculateSGST();
-    const cgst = calculateCGST();
-    const total = subtotal + sgst + cgst;
-    return total - (discount || 0);
-  };
+  const totals = calculateTotals();
 
   const handleCompleteSale = () => {
-    if (isProcessing || saleItems.length === 0 || !customer) {
+    if (isProcessing || saleItems.length === 0 || !customer || !taxRates) {
       if (!customer) {
         setCustomerError('Please enter customer details before completing sale');
       }
@@ -399,15 +453,15 @@ const PharmacyPOSPage = () => {
                 <div className="space-y-3">
                   <div className="flex justify-between text-sm sm:text-base">
                     <span className="text-neutral-600">Subtotal:</span>
-                    <span className="font-medium">₹{calculateSubtotal().toFixed(2)}</span>
+                    <span className="font-medium">₹{totals.subtotal.toFixed(2)}</span>
                   </div>
                   <div className="flex justify-between text-sm sm:text-base">
-                    <span className="text-neutral-600">SGST (9%):</span>
-                    <span className="font-medium">₹{calculateSGST().toFixed(2)}</span>
+                    <span className="text-neutral-600">{totals.sgstLabel}:</span>
+                    <span className="font-medium">₹{totals.sgst.toFixed(2)}</span>
                   </div>
                   <div className="flex justify-between text-sm sm:text-base">
-                    <span className="text-neutral-600">CGST (9%):</span>
-                    <span className="font-medium">₹{calculateCGST().toFixed(2)}</span>
+                    <span className="text-neutral-600">{totals.cgstLabel}:</span>
+                    <span className="font-medium">₹{totals.cgst.toFixed(2)}</span>
                   </div>
                   <div className="flex items-center justify-between">
                     <span className="text-neutral-600 text-sm sm:text-base">Discount:</span>
@@ -425,7 +479,7 @@ const PharmacyPOSPage = () => {
                         Grand Total:
                       </span>
                       <span className="text-base sm:text-lg font-bold text-primary-600">
-                        ₹{calculateTotal().toFixed(2)}
+                        ₹{totals.total.toFixed(2)}
                       </span>
                     </div>
                   </div>
@@ -434,7 +488,7 @@ const PharmacyPOSPage = () => {
 
               <button
                 onClick={handleCompleteSale}
-                disabled={saleItems.length === 0 || isProcessing || !customer}
+                disabled={saleItems.length === 0 || isProcessing || !customer || !taxRates}
                 className="btn btn-primary w-full"
               >
                 {isProcessing ? 'Processing...' : 'Complete Sale'}
@@ -608,10 +662,7 @@ const PharmacyPOSPage = () => {
         onConfirm={async () => {
           setIsProcessing(true);
           try {
-            const subtotal = calculateSubtotal();
-            const sgst = calculateSGST();
-            const cgst = calculateCGST();
-            const total = calculateTotal();
+            const { subtotal, sgst, cgst, total } = totals;
             const sale: PharmacySale = {
               id: 0,
               customerId: customer!.id,
@@ -622,7 +673,7 @@ const PharmacyPOSPage = () => {
                 medicineName: item.medicine.name,
                 quantity: item.quantity,
                 unitPrice: item.medicine.price,
-                totalPrice: item.medicine.price * item.quantity
+                totalPrice: Math.round(item.medicine.price * 100) * item.quantity / 100
               })),
               subtotal,
               sgst,
@@ -631,7 +682,9 @@ const PharmacyPOSPage = () => {
               total,
               createdAt: new Date().toISOString()
             };
-            await api.pharmacySales.create(sale);
+            checkoutKeyRef.current ??= crypto.randomUUID();
+            await api.pharmacySales.create(sale, checkoutKeyRef.current);
+            checkoutKeyRef.current = null;
             setSaleItems([]);
             setDiscount(0);
             setCustomer(null);
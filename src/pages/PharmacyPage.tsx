@@ -4,6 +4,7 @@ import { Medicine, PageRequest } from '../types';
 import MedicineForm from '../components/pharmacy/MedicineForm';
 import Pagination from '../components/common/Pagination';
 import { usePaginatedApi } from '../hooks/usePaginatedApi';
+import { useChangeFeed } from '../hooks/useChangeFeed';
 import { usePageHeader } from '../hooks/usePageHeader';
 import api from '../services/api';
 
@@ -16,6 +17,7 @@ const PharmacyPage = () => {
     setPage,
     setSearch,
     refetch,
+    applyChanges,
   } = usePaginatedApi((pageRequest: PageRequest) => api.medicines.getAll(pageRequest), {
     initialPageSize: 10,
     initialSortBy: 'name',
@@ -24,6 +26,8 @@ const PharmacyPage = () => {
     cacheKey: 'medicines',
   });
 
+  useChangeFeed('medicine', applyChanges, () => refetch(true));
+
   const [showForm, setShowForm] = useState(false);
 
   const medicines = paginatedData.content || [];
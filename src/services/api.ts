@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { PageRequest, PageResponse } from '../types';
+import { PageRequest, PageResponse, SyncResponse } from '../types';
 
 const api = axios.create({
   baseURL: 'http://localhost:8080/api',
@@ -25,6 +25,10 @@ api.interceptors.request.use(
   }
 );
 
+// Retries of a POST sent with the same key return the original response instead of running again
+const withIdempotencyKey = (idempotencyKey?: string) =>
+  idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined;
+
 // Add response interceptor to handle errors
 api.interceptors.response.use(
   (response) => {
@@ -129,6 +133,24 @@ export const patients = {
     const response = await api.get('/patients', { signal: options?.signal }); // Pass signal here
     return response.data;
   },
+  // Appointments, treatments, prescriptions and payments merged newest first
+  getTimeline: async (id: number, page = 0, size = 20) => {
+    const response = await api.get(`/patients/${id}/timeline`, { params: { page, size } });
+    return response.data;
+  },
+  // Likely duplicate registrations, highest score first
+  getDuplicates: async (status = 'pending', page = 0, size = 20) => {
+    const response = await api.get('/patients/duplicates', { params: { status, page, size } });
+    return response.data;
+  },
+  mergeDuplicate: async (candidateId: number, survivorId?: number) => {
+    const response = await api.post(`/patients/duplicates/${candidateId}/merge`, null, { params: { survivorId } });
+    return response.data;
+  },
+  dismissDuplicate: async (candidateId: number) => {
+    const response = await api.post(`/patients/duplicates/${candidateId}/dismiss`);
+    return response.data;
+  },
   getById: async (id: number) => {
     try {
       console.log('API: Fetching patient with id:', id);
@@ -238,8 +260,8 @@ export const appointments = {
     const response = await api.get(`/appointments/${id}`);
     return response.data;
   },
-  create: async (appointment: any) => {
-    const response = await api.post('/appointments', appointment);
+  create: async (appointment: any, idempotencyKey?: string) => {
+    const response = await api.post('/appointments', appointment, withIdempotencyKey(idempotencyKey));
     return response.data;
   },
   update: async (id: number, appointment: any) => {
@@ -324,6 +346,21 @@ export const medicineTypes = {
   },
 };
 
+// Rates are in basis points (900 = 9%); medicineType '*' applies to types without their own row
+export const taxRates = {
+  getAll: async () => {
+    const response = await api.get('/tax-rates');
+    return response.data;
+  },
+  save: async (taxRate: any) => {
+    const response = await api.put('/tax-rates', taxRate);
+    return response.data;
+  },
+  delete: async (id: number) => {
+    await api.delete(`/tax-rates/${id}`);
+  },
+};
+
 export const prescriptions = {
   getAll: async () => {
     const response = await api.get('/prescriptions');
@@ -348,19 +385,40 @@ export const prescriptions = {
   delete: async (id: number) => {
     await api.delete(`/prescriptions/${id}`);
   },
+  check: async (prescription: any) => {
+    const response = await api.post('/prescriptions/check', prescription);
+    return response.data;
+  },
+  // quantities: prescription item id -> units dispensed
+  fulfil: async (id: number, request: {
+    quantities: Record<number, number>;
+    discount?: number;
+    customerPhone?: string;
+    reservationId?: string;
+  }) => {
+    const response = await api.post(`/prescriptions/${id}/fulfil`, request);
+    return response.data;
+  },
 };
 
 export const pharmacySales = {
-  getAll: async () => {
-    const response = await api.get('/pharmacy-sales');
+  getAll: async (params: {
+    page?: number;
+    size?: number;
+    from?: string;
+    to?: string;
+    customerId?: number;
+    summary?: boolean;
+  } = {}) => {
+    const response = await api.get('/pharmacy-sales', { params });
     return response.data;
   },
   getById: async (id: number) => {
     const response = await api.get(`/pharmacy-sales/${id}`);
     return response.data;
   },
-  create: async (sale: any) => {
-    const response = await api.post('/pharmacy-sales', sale);
+  create: async (sale: any, idempotencyKey?: string) => {
+    const response = await api.post('/pharmacy-sales', sale, withIdempotencyKey(idempotencyKey));
     return response.data;
   },
 };
@@ -443,8 +501,34 @@ export const amounts = {
     const response = await api.get(`/amounts/patient/${patientId}`);
     return response.data;
   },
-  create: async (amount: any) => {
-    const response = await api.post('/amounts', amount);
+  create: async (amount: any, idempotencyKey?: string) => {
+    const response = await api.post('/amounts', amount, withIdempotencyKey(idempotencyKey));
+    return response.data;
+  },
+};
+
+export const receivables = {
+  // Open charges by age bucket: days_0_30, days_31_60, days_61_90, days_90_plus
+  getAging: async (asOf?: string) => {
+    const response = await api.get('/receivables/aging', { params: { asOf } });
+    return response.data;
+  },
+  getAgingByPatient: async (page = 0, size = 20, asOf?: string) => {
+    const response = await api.get('/receivables/aging/patients', { params: { page, size, asOf } });
+    return response.data;
+  },
+  getLedger: async (patientId: number, page = 0, size = 20) => {
+    const response = await api.get(`/receivables/patients/${patientId}/ledger`, { params: { page, size } });
+    return response.data;
+  },
+};
+
+export const sync = {
+  // Pass the version from the previous call; a response with reset=true means reload lists in full first
+  getChanges: async (since: number, entities?: string[]): Promise<SyncResponse> => {
+    const response = await api.get('/sync', {
+      params: { since, entities: entities?.join(',') },
+    });
     return response.data;
   },
 };
@@ -458,6 +542,7 @@ const apiService = {
   medicines,
   manufacturers,
   medicineTypes,
+  taxRates,
   prescriptions,
   pharmacySales,
   pharmacyCustomers,
@@ -465,6 +550,8 @@ const apiService = {
   dashboard,
   treatments,
   amounts,
+  receivables,
+  sync,
 };
 
 export default apiService;
\ No newline at end of file
@@ -26,6 +26,19 @@ export interface PageResponse<T> {
   empty: boolean;
 }
 
+// Delta sync types
+export interface SyncDelta<T> {
+  upserts: T[];
+  deletes: number[];
+}
+
+export interface SyncResponse {
+  version: number;
+  reset: boolean;
+  hasMore: boolean;
+  changes: Record<string, SyncDelta<unknown>>;
+}
+
 // Role types
 export interface Role {
   id: number;
@@ -59,6 +72,9 @@ export interface Patient {
   insuranceInfo?: string;
   createdAt: string;
   lastVisit?: string;
+  visitCount?: number;
+  lifetimeSpend?: number;
+  outstandingBalance?: number;
 }
 
 // Appointment types
@@ -75,6 +91,7 @@ export interface Appointment {
   type: string;
   treatmentType: string; 
   notes?: string;
+  fee?: number;
   amount?: number;
   createdAt: string;
 }
@@ -15,6 +15,15 @@ export interface Medicine {
   dateOfExpiry?: string; 
 }
 
+// Rates in basis points (900 = 9%); medicineType '*' applies to types without their own row
+export interface TaxRate {
+  id: number;
+  medicineType: string;
+  sgstBasisPoints: number;
+  cgstBasisPoints: number;
+  updatedAt: string;
+}
+
 export interface PrescriptionItem {
   medicineId: number;
   medicineName: string;